@@ -0,0 +1,64 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Beans (getters and setters) compared with records (accessors and canonical constructor)
+ * with the same properties, for the writer and the reader.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class BeanBenchmark {
+  public record FlatCustomer(String firstName, String lastName, String email, int age, boolean premium) {}
+
+  private final JSONWriter writer = new JSONWriter();
+  private final JSONReader reader = new JSONReader();
+  private Payloads.CustomerBean bean;
+  private FlatCustomer record;
+  private String beanText;
+  private String recordText;
+
+  @Setup
+  public void setup() {
+    bean = Payloads.customerBean(new Random(0x5eed), 0);
+    record = new FlatCustomer(bean.getFirstName(), bean.getLastName(), bean.getEmail(), bean.getAge(), bean.isPremium());
+    beanText = writer.toJSON(bean);
+    recordText = writer.toJSON(record);
+  }
+
+  @Benchmark
+  public String toJSONBean() {
+    return writer.toJSON(bean);
+  }
+
+  @Benchmark
+  public String toJSONRecord() {
+    return writer.toJSON(record);
+  }
+
+  @Benchmark
+  public Object parseJSONBean() {
+    return reader.parseJSON(beanText, Payloads.CustomerBean.class);
+  }
+
+  @Benchmark
+  public Object parseJSONRecord() {
+    return reader.parseJSON(recordText, FlatCustomer.class);
+  }
+}
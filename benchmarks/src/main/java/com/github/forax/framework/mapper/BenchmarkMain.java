@@ -0,0 +1,38 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler (to report {@code gc.alloc.rate.norm}, the number
+ * of bytes allocated per operation) and saves the results as JSON, so the results of two commits
+ * can be compared, by example with <a href="https://jmh.morethan.net">JMH Visualizer</a>.
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java --enable-preview -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regex]
+ * </pre>
+ *
+ * The results are written to {@code jmh-result.json} unless {@code -rf} / {@code -rff} are specified.
+ */
+public final class BenchmarkMain {
+  private BenchmarkMain() {
+    throw new AssertionError();
+  }
+
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    var commandLineOptions = new CommandLineOptions(args);
+    var builder = new OptionsBuilder()
+        .parent(commandLineOptions)
+        .addProfiler(GCProfiler.class);
+    if (!commandLineOptions.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    }
+    new Runner(builder.build()).run();
+  }
+}
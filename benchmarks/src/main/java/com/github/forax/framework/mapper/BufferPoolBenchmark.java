@@ -0,0 +1,112 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link BufferPool} used by the writers under contention, all the threads share the same
+ * {@link JSONWriter}, compared with the allocation of a new {@link StringBuilder} per call.
+ *
+ * The {@code pooled}, {@code new} and {@code shared} benchmarks run on 8 platform threads,
+ * the {@code virtual} benchmarks submit {@value #TASKS} tasks to a virtual thread per task executor
+ * from a single platform thread, so there are far more threads than slots in the pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@Threads(8)
+@State(Scope.Benchmark)
+public class BufferPoolBenchmark {
+  static final int TASKS = 1_000;
+
+  private final JSONWriter writer = new JSONWriter();
+  private final Payloads.Order order = Payloads.order(new Random(0x5eed), 0);
+  private final String text = writer.toJSON(order);
+  private ExecutorService executor;
+
+  @Setup
+  public void setup() {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.close();
+  }
+
+  @Benchmark
+  public String pooledBuilder() {
+    var builder = BufferPool.CHARS.acquire();
+    try {
+      return builder.append(text).toString();
+    } finally {
+      builder.setLength(0);
+      BufferPool.CHARS.release(builder);
+    }
+  }
+
+  @Benchmark
+  public String newBuilder() {
+    return new StringBuilder().append(text).toString();
+  }
+
+  @Benchmark
+  public String sharedWriter() {
+    return writer.toJSON(order);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OperationsPerInvocation(TASKS)
+  public long virtualPooledBuilder() throws InterruptedException, ExecutionException {
+    return runVirtual(this::pooledBuilder);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OperationsPerInvocation(TASKS)
+  public long virtualNewBuilder() throws InterruptedException, ExecutionException {
+    return runVirtual(this::newBuilder);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OperationsPerInvocation(TASKS)
+  public long virtualSharedWriter() throws InterruptedException, ExecutionException {
+    return runVirtual(this::sharedWriter);
+  }
+
+  private long runVirtual(Callable<String> task) throws InterruptedException, ExecutionException {
+    var futures = new ArrayList<Future<String>>(TASKS);
+    for (var i = 0; i < TASKS; i++) {
+      futures.add(executor.submit(task));
+    }
+    var length = 0L;
+    for (var future : futures) {
+      length += future.get().length();
+    }
+    return length;
+  }
+}
@@ -0,0 +1,125 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.orm.Id;
+import com.github.forax.framework.orm.ORM;
+import com.github.forax.framework.orm.Repository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import of newline delimited JSON into an in-memory H2 table,
+ * with the bulk importer of the ORM or by parsing each line into an entity saved by a repository.
+ * The score is in rows per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class BulkImportBenchmark {
+  private static final int ROWS = 100_000;
+
+  public static final class Event {
+    private long id;
+    private String name;
+    private int value;
+
+    @Id
+    public long getId() {
+      return id;
+    }
+    public void setId(long id) {
+      this.id = id;
+    }
+    public String getName() {
+      return name;
+    }
+    public void setName(String name) {
+      this.name = name;
+    }
+    public int getValue() {
+      return value;
+    }
+    public void setValue(int value) {
+      this.value = value;
+    }
+  }
+
+  public interface EventRepository extends Repository<Event, Long> {}
+
+  private Path path;
+  private JdbcDataSource dataSource;
+  private EventRepository repository;
+  private JSONReader reader;
+
+  @Setup
+  public void setup() throws IOException {
+    path = Files.createTempFile("events", ".ndjson");
+    var writer = new JSONWriter();
+    try (var output = Files.newBufferedWriter(path)) {
+      for (var i = 0; i < ROWS; i++) {
+        var event = new Event();
+        event.setId(i);
+        event.setName("event " + i);
+        event.setValue(i % 1_000);
+        output.write(writer.toJSON(event));
+        output.newLine();
+      }
+    }
+    // the in-memory database is dropped when the transaction ends
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:bench");
+    repository = ORM.createRepository(EventRepository.class);
+    reader = new JSONReader();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(path);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public long importJSON() throws SQLException {
+    var count = new long[1];
+    ORM.transaction(dataSource, () -> {
+      ORM.createTable(Event.class);
+      count[0] = ORM.importJSON(Event.class, path, 1_000, 10);
+    });
+    return count[0];
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public long parseAndSave() throws SQLException, IOException {
+    var count = new long[1];
+    try (var lines = Files.lines(path)) {
+      ORM.transaction(dataSource, () -> {
+        ORM.createTable(Event.class);
+        lines.forEach(line -> {
+          repository.save(reader.parseJSON(line, Event.class));
+          count[0]++;
+        });
+      });
+    }
+    return count[0];
+  }
+}
@@ -0,0 +1,40 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency of the first use of a class in a fresh JVM, each fork measures exactly one call,
+ * {@link PropertyScanner} compared with {@code java.beans.Introspector} (which loads {@code java.desktop})
+ * and the first serialization of a bean by a {@link JSONWriter}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 20, jvmArgsAppend = "--enable-preview")
+public class FirstTouchBenchmark {
+  @Benchmark
+  public Object propertyScanner() {
+    return PropertyScanner.properties(Payloads.CustomerBean.class);
+  }
+
+  @Benchmark
+  public Object introspector() throws IntrospectionException {
+    return Introspector.getBeanInfo(Payloads.CustomerBean.class);
+  }
+
+  @Benchmark
+  public String firstToJSON() {
+    return new JSONWriter().toJSON(new Payloads.CustomerBean());
+  }
+}
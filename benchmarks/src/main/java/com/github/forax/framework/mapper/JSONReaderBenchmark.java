@@ -0,0 +1,129 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.Payloads.Size;
+import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Parsing of the JSON texts of the payloads, the raw {@link ToyJSONParser} with a visitor that does nothing,
+ * the {@link JSONPullParser} and the decoding to objects by the {@link JSONReader}
+ * from a string (with and without a {@link StringCache}) and from an off-heap memory segment.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class JSONReaderBenchmark {
+  @Param
+  public Size size;
+
+  private String text;
+  private byte[] bytes;
+  private Class<?> type;
+  private Arena arena;
+  private MemorySegment segment;
+  private JSONReader reader;
+  private JSONReader cachedReader;
+  private JSONVisitor visitor;
+  private long hash;  // folds the values produced by the visitor so the parsing is not eliminated
+
+  @Setup
+  public void setup() {
+    text = Payloads.json(size);
+    bytes = text.getBytes(UTF_8);
+    type = Payloads.type(size);
+    arena = Arena.ofShared();
+    segment = arena.allocate(bytes.length).copyFrom(MemorySegment.ofArray(bytes));
+    reader = new JSONReader();
+    cachedReader = new JSONReader();
+    cachedReader.useStringCache(new StringCache(4_096));
+    visitor = new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        hash += value == null ? 0 : value.hashCode();
+      }
+      @Override
+      public void intValue(String key, int value) {
+        hash += value;
+      }
+      @Override
+      public void longValue(String key, long value) {
+        hash += value;
+      }
+      @Override
+      public void doubleValue(String key, double value) {
+        hash += Double.doubleToRawLongBits(value);
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    };
+  }
+
+  @TearDown
+  public void tearDown() {
+    arena.close();
+  }
+
+  @Benchmark
+  public long toyParse() {
+    ToyJSONParser.parse(text, visitor);
+    return hash;
+  }
+
+  @Benchmark
+  public long toyParseSegment() {
+    ToyJSONParser.parse(segment, visitor, null);
+    return hash;
+  }
+
+  @Benchmark
+  public long pullParse() {
+    var parser = new JSONPullParser(bytes);
+    var sum = 0L;
+    JSONPullParser.Token token;
+    while ((token = parser.nextToken()) != null) {
+      sum += token.ordinal();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public Object parseJSON() {
+    return reader.parseJSON(text, type);
+  }
+
+  @Benchmark
+  public Object parseJSONStringCache() {
+    return cachedReader.parseJSON(text, type);
+  }
+
+  @Benchmark
+  public Object parseSegment() {
+    return reader.parseSegment(segment, type);
+  }
+}
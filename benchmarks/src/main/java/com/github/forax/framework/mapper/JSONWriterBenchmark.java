@@ -0,0 +1,99 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.Payloads.Size;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the payloads with the {@link JSONWriter},
+ * compared with the positional encoding, the memoization of the records, the CBOR encoding
+ * and the overhead of the {@link MapperMetrics}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class JSONWriterBenchmark {
+  @Param
+  public Size size;
+
+  private Object[] objects;
+  private JSONWriter writer;
+  private JSONWriter memoizedWriter;
+  private JSONWriter metricsWriter;
+  private CBORWriter cborWriter;
+
+  @Setup
+  public void setup() {
+    objects = Payloads.objects(size);
+    writer = new JSONWriter();
+    memoizedWriter = new JSONWriter();
+    memoizedWriter.memoize(Payloads.Point.class, new SerializedFormCache(2_048));
+    memoizedWriter.memoize(Payloads.Order.class, new SerializedFormCache(2_048));
+    metricsWriter = new JSONWriter();
+    metricsWriter.useMetrics(new MapperMetrics(Duration.ofMillis(10)));
+    cborWriter = new CBORWriter();
+    checkCBORRoundTrip();
+  }
+
+  // the CBOR encoding is only comparable if the payload can be decoded back
+  private void checkCBORRoundTrip() {
+    var cborReader = new CBORReader();
+    for (var object : objects) {
+      var decoded = cborReader.parseCBOR(cborWriter.toCBOR(object), object.getClass());
+      if (!object.equals(decoded)) {
+        throw new IllegalStateException("the CBOR encoding does not round-trip " + object + " " + decoded);
+      }
+    }
+  }
+
+  @Benchmark
+  public void toJSON(Blackhole blackhole) {
+    for (var object : objects) {
+      blackhole.consume(writer.toJSON(object));
+    }
+  }
+
+  @Benchmark
+  public void toJSONMemoized(Blackhole blackhole) {
+    for (var object : objects) {
+      blackhole.consume(memoizedWriter.toJSON(object));
+    }
+  }
+
+  @Benchmark
+  public void toJSONMetrics(Blackhole blackhole) {
+    for (var object : objects) {
+      blackhole.consume(metricsWriter.toJSON(object));
+    }
+  }
+
+  @Benchmark
+  public void toOrdinalJSON(Blackhole blackhole) {
+    for (var object : objects) {
+      blackhole.consume(writer.toOrdinalJSON(object));
+    }
+  }
+
+  @Benchmark
+  public void toCBOR(Blackhole blackhole) {
+    for (var object : objects) {
+      blackhole.consume(cborWriter.toCBOR(object));
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Export of 10 000 orders as newline delimited JSON to a channel that only counts the bytes,
+ * with the {@link NDJSONSink} and with a string per object written synchronously.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class NDJSONSinkBenchmark {
+  private static final class CountingChannel implements WritableByteChannel {
+    private long count;
+
+    @Override
+    public int write(ByteBuffer src) {
+      var remaining = src.remaining();
+      src.position(src.limit());
+      count += remaining;
+      return remaining;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private final JSONWriter writer = new JSONWriter();
+  private List<Payloads.Order> orders;
+
+  @Setup
+  public void setup() {
+    orders = Payloads.orders(new Random(0x5eed), 10_000);
+  }
+
+  @Benchmark
+  public long sink() {
+    var channel = new CountingChannel();
+    try (var sink = writer.ndjsonSink(channel)) {
+      sink.writeAll(orders);
+    }
+    return channel.count;
+  }
+
+  @Benchmark
+  public long stringPerObject() throws IOException {
+    var channel = new CountingChannel();
+    for (var order : orders) {
+      channel.write(ByteBuffer.wrap((writer.toJSON(order) + "\n").getBytes(UTF_8)));
+    }
+    return channel.count;
+  }
+}
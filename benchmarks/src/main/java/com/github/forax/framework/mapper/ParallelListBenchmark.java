@@ -0,0 +1,51 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a large list of orders as a JSON array,
+ * by the calling thread only (a single chunk) or split in chunks encoded by the fork/join workers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ParallelListBenchmark {
+  @Param({"10000", "1000000"})
+  public int count;
+
+  private List<Payloads.Order> orders;
+  private JSONWriter writer;
+
+  @Setup
+  public void setup() {
+    orders = Payloads.orders(new Random(0x5eed), count);
+    writer = new JSONWriter();
+  }
+
+  @Benchmark
+  public byte[][] sequential() {
+    return writer.encodeChunks(orders, Integer.MAX_VALUE);
+  }
+
+  @Benchmark
+  public byte[] parallel() {
+    return writer.toJSONBytes(orders);
+  }
+}
@@ -0,0 +1,160 @@
+package com.github.forax.framework.mapper;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The payloads shared by the benchmarks.
+ *
+ * The payloads are generated from a fixed seed, so two runs on two different commits
+ * measure exactly the same objects and the same JSON texts.
+ */
+public final class Payloads {
+  private Payloads() {
+    throw new AssertionError();
+  }
+
+  /**
+   * The size of a payload.
+   * <ul>
+   *   <li>SMALL, a record of two ints (~20 bytes)
+   *   <li>MEDIUM, an order with a nested customer and a nested address (~300 bytes)
+   *   <li>LARGE, a report containing 1 000 orders and two numeric arrays of 10 000 values (~570 KB)
+   * </ul>
+   */
+  public enum Size { SMALL, MEDIUM, LARGE }
+
+  public record Point(int x, int y) {}
+  public record Address(String street, String city, String zipCode) {}
+  public record Customer(String firstName, String lastName, String email, int age, boolean premium, Address address) {}
+  public record Order(long id, Instant createdAt, Customer customer, double total, String status) {}
+  public record Report(String name, List<Order> orders, int[] counts, List<Double> values) {}
+
+  /**
+   * A bean version of {@link Customer}, to measure the getter/setter path.
+   */
+  public static final class CustomerBean {
+    private String firstName;
+    private String lastName;
+    private String email;
+    private int age;
+    private boolean premium;
+
+    public String getFirstName() {
+      return firstName;
+    }
+    public void setFirstName(String firstName) {
+      this.firstName = firstName;
+    }
+    public String getLastName() {
+      return lastName;
+    }
+    public void setLastName(String lastName) {
+      this.lastName = lastName;
+    }
+    public String getEmail() {
+      return email;
+    }
+    public void setEmail(String email) {
+      this.email = email;
+    }
+    public int getAge() {
+      return age;
+    }
+    public void setAge(int age) {
+      this.age = age;
+    }
+    public boolean isPremium() {
+      return premium;
+    }
+    public void setPremium(boolean premium) {
+      this.premium = premium;
+    }
+  }
+
+  private static final long SEED = 0x5eed;
+  private static final String[] CITIES = { "Paris", "Lyon", "Marseille", "Nantes", "Lille", "Bordeaux" };
+  private static final String[] STATUSES = { "PENDING", "PAID", "SHIPPED", "DELIVERED" };
+
+  static Point point(Random random) {
+    return new Point(random.nextInt(1_000), random.nextInt(1_000));
+  }
+
+  static Customer customer(Random random, int i) {
+    var address = new Address(random.nextInt(200) + " rue de la Paix", CITIES[random.nextInt(CITIES.length)],
+        String.valueOf(10_000 + random.nextInt(90_000)));
+    return new Customer("first" + i, "last" + i, "customer" + i + "@example.com",
+        18 + random.nextInt(70), random.nextBoolean(), address);
+  }
+
+  static CustomerBean customerBean(Random random, int i) {
+    var customer = customer(random, i);
+    var bean = new CustomerBean();
+    bean.setFirstName(customer.firstName());
+    bean.setLastName(customer.lastName());
+    bean.setEmail(customer.email());
+    bean.setAge(customer.age());
+    bean.setPremium(customer.premium());
+    return bean;
+  }
+
+  static Order order(Random random, int i) {
+    return new Order(1_000_000L + i, Instant.ofEpochSecond(1_700_000_000L + random.nextInt(10_000_000), random.nextInt(1_000) * 1_000_000),
+        customer(random, i), random.nextInt(100_000) / 100.0, STATUSES[random.nextInt(STATUSES.length)]);
+  }
+
+  static List<Order> orders(Random random, int count) {
+    return IntStream.range(0, count).mapToObj(i -> order(random, i)).toList();
+  }
+
+  /**
+   * Returns the objects to serialize for a size, the writer does not encode the nested lists
+   * so the large payload is the 1 000 orders of the report serialized one by one.
+   * @param size the size of the payload
+   * @return the objects to serialize.
+   */
+  public static Object[] objects(Size size) {
+    var random = new Random(SEED);
+    return switch (size) {
+      case SMALL -> new Object[] { point(random) };
+      case MEDIUM -> new Object[] { order(random, 0) };
+      case LARGE -> orders(random, 1_000).toArray();
+    };
+  }
+
+  /**
+   * Returns the type of the object encoded in the JSON text of a size.
+   * @param size the size of the payload
+   * @return the type of the object encoded in the JSON text.
+   */
+  public static Class<?> type(Size size) {
+    return switch (size) {
+      case SMALL -> Point.class;
+      case MEDIUM -> Order.class;
+      case LARGE -> Report.class;
+    };
+  }
+
+  /**
+   * Returns the JSON text of a size, written by the {@link JSONWriter}.
+   * @param size the size of the payload
+   * @return the JSON text.
+   */
+  public static String json(Size size) {
+    var writer = new JSONWriter();
+    var random = new Random(SEED);
+    return switch (size) {
+      case SMALL -> writer.toJSON(point(random));
+      case MEDIUM -> writer.toJSON(order(random, 0));
+      case LARGE -> {
+        var orders = orders(random, 1_000).stream().map(writer::toJSON).collect(Collectors.joining(", ", "[", "]"));
+        var counts = IntStream.range(0, 10_000).mapToObj(__ -> String.valueOf(random.nextInt(1_000_000))).collect(Collectors.joining(", ", "[", "]"));
+        var values = IntStream.range(0, 10_000).mapToObj(__ -> String.valueOf(random.nextDouble() * 1_000)).collect(Collectors.joining(", ", "[", "]"));
+        yield "{\"name\": \"report\", \"orders\": " + orders + ", \"counts\": " + counts + ", \"values\": " + values + "}";
+      }
+    };
+  }
+}
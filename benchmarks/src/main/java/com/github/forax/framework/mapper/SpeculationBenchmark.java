@@ -0,0 +1,67 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Decoding of 1 000 newline delimited objects by the {@link JSONReader}, when all the objects
+ * have their keys in the same order (the key order speculation always hits) and
+ * when two key orders alternate (the speculation always misses).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class SpeculationBenchmark {
+  private static final int COUNT = 1_000;
+
+  private final JSONReader reader = new JSONReader();
+  private MemorySegment sameOrder;
+  private MemorySegment alternateOrder;
+
+  private static String forward(int i) {
+    return "{\"age\": " + (20 + i % 50) + ", \"email\": \"customer" + i + "@example.com\", \"firstName\": \"first" + i
+        + "\", \"lastName\": \"last" + i + "\", \"premium\": " + (i % 2 == 0) + "}";
+  }
+
+  private static String backward(int i) {
+    return "{\"premium\": " + (i % 2 == 0) + ", \"lastName\": \"last" + i + "\", \"firstName\": \"first" + i
+        + "\", \"email\": \"customer" + i + "@example.com\", \"age\": " + (20 + i % 50) + "}";
+  }
+
+  @Setup
+  public void setup() {
+    var same = IntStream.range(0, COUNT).mapToObj(SpeculationBenchmark::forward).collect(Collectors.joining("\n"));
+    var alternate = IntStream.range(0, COUNT).mapToObj(i -> i % 2 == 0 ? forward(i) : backward(i)).collect(Collectors.joining("\n"));
+    sameOrder = MemorySegment.ofArray(same.getBytes(UTF_8));
+    alternateOrder = MemorySegment.ofArray(alternate.getBytes(UTF_8));
+  }
+
+  @Benchmark
+  public void sameKeyOrder(Blackhole blackhole) {
+    reader.parseNDJSON(sameOrder, Payloads.CustomerBean.class, blackhole::consume);
+  }
+
+  @Benchmark
+  public void alternateKeyOrder(Blackhole blackhole) {
+    reader.parseNDJSON(alternateOrder, Payloads.CustomerBean.class, blackhole::consume);
+  }
+}
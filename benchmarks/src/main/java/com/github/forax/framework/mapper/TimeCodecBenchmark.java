@@ -0,0 +1,85 @@
+package com.github.forax.framework.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hand written ISO-8601 codecs of {@link TimeCodecs} compared with a {@link DateTimeFormatter}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 3, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class TimeCodecBenchmark {
+  private final Instant instant = Instant.ofEpochSecond(1_700_000_000L, 123_000_000);
+  private final String instantText = instant.toString();
+  private final LocalDate date = LocalDate.of(2024, 2, 29);
+  private final String dateText = date.toString();
+  private final StringBuilder builder = new StringBuilder();
+
+  @Benchmark
+  public int encodeInstant() {
+    builder.setLength(0);
+    TimeCodecs.INSTANT.encode(instant, builder);
+    return builder.length();
+  }
+
+  @Benchmark
+  public int encodeInstantFormatter() {
+    builder.setLength(0);
+    builder.append('"');
+    DateTimeFormatter.ISO_INSTANT.formatTo(instant, builder);
+    builder.append('"');
+    return builder.length();
+  }
+
+  @Benchmark
+  public Instant decodeInstant() {
+    return TimeCodecs.INSTANT.decode(instantText);
+  }
+
+  @Benchmark
+  public Instant decodeInstantFormatter() {
+    return DateTimeFormatter.ISO_INSTANT.parse(instantText, Instant::from);
+  }
+
+  @Benchmark
+  public int encodeLocalDate() {
+    builder.setLength(0);
+    TimeCodecs.LOCAL_DATE.encode(date, builder);
+    return builder.length();
+  }
+
+  @Benchmark
+  public int encodeLocalDateFormatter() {
+    builder.setLength(0);
+    builder.append('"');
+    DateTimeFormatter.ISO_LOCAL_DATE.formatTo(date, builder);
+    builder.append('"');
+    return builder.length();
+  }
+
+  @Benchmark
+  public LocalDate decodeLocalDate() {
+    return TimeCodecs.LOCAL_DATE.decode(dateText);
+  }
+
+  @Benchmark
+  public LocalDate decodeLocalDateFormatter() {
+    return DateTimeFormatter.ISO_LOCAL_DATE.parse(dateText, LocalDate::from);
+  }
+}
@@ -0,0 +1,429 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Collects the elements of a JSON array and creates the Java array or the {@link List} of a property.
+ *
+ * The numbers of {@code int[]}, {@code long[]}, {@code double[]}, {@code List<Integer>},
+ * {@code List<Long>} and {@code List<Double>} are stored in a growable primitive array
+ * trimmed at the end, the lists are unmodifiable views of that primitive array.
+ * If a {@code null} is added to one of those lists, the elements are boxed from then on.
+ * The parser sends the numbers using {@link ToyJSONParser.JSONVisitor#intValue(String, int)},
+ * {@link ToyJSONParser.JSONVisitor#longValue(String, long)} and
+ * {@link ToyJSONParser.JSONVisitor#doubleValue(String, double)} so they are never boxed.
+ *
+ * @see #of(Type, Codecs)
+ */
+abstract class ArrayBuilder {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  int size;
+
+  /**
+   * Returns an array builder for a type or {@code null} if the type is not an array or a list.
+   *
+   * @param type an array type or a {@link List}, a {@link Collection} or an {@link Iterable}.
+   * @param codecs the codecs used to decode the elements
+   * @return an array builder or {@code null}.
+   */
+  static ArrayBuilder of(Type type, Codecs codecs) {
+    if (type instanceof Class<?> clazz && clazz.isArray()) {
+      var componentType = clazz.getComponentType();
+      return switch (componentType.getName()) {
+        case "int" -> new IntArrayBuilder(false);
+        case "long" -> new LongArrayBuilder(false);
+        case "double" -> new DoubleArrayBuilder(false);
+        default -> new ObjectArrayBuilder(componentType, componentType, codecs);
+      };
+    }
+    if (type instanceof GenericArrayType genericArrayType) {
+      var componentType = genericArrayType.getGenericComponentType();
+      return new ObjectArrayBuilder(componentType, Utils.erase(componentType), codecs);
+    }
+    var rawType = Utils.erase(type);
+    if (rawType != List.class && rawType != Collection.class && rawType != Iterable.class) {
+      return null;
+    }
+    var elementType = type instanceof ParameterizedType parameterizedType
+        ? parameterizedType.getActualTypeArguments()[0]
+        : Object.class;
+    if (!(elementType instanceof Class<?>)) {
+      return new ListBuilder(elementType, codecs);
+    }
+    return switch (elementType.getTypeName()) {
+      case "java.lang.Integer" -> new IntArrayBuilder(true);
+      case "java.lang.Long" -> new LongArrayBuilder(true);
+      case "java.lang.Double" -> new DoubleArrayBuilder(true);
+      default -> new ListBuilder(elementType, codecs);
+    };
+  }
+
+  static int grow(int capacity) {
+    return capacity == 0 ? DEFAULT_CAPACITY : capacity << 1;
+  }
+
+  /**
+   * Returns the type of the elements, used to decode the nested objects and arrays.
+   * @return the type of the elements.
+   */
+  abstract Type elementType();
+
+  /**
+   * Adds a value produced by the parser, decoded using the codecs if necessary.
+   * @param value a string, a boolean or {@code null}.
+   */
+  abstract void add(Object value);
+
+  /**
+   * Adds an element already decoded, a bean, an array or a list.
+   * @param element the element.
+   */
+  void addElement(Object element) {
+    throw new IllegalStateException("expect a number but was " + element);
+  }
+
+  void addInt(int value) {
+    add(value);
+  }
+
+  void addLong(long value) {
+    add(value);
+  }
+
+  void addDouble(double value) {
+    add(value);
+  }
+
+  /**
+   * Returns the array or the list, this builder can not be used after.
+   * @return the array or the list.
+   */
+  abstract Object finish();
+
+  /**
+   * The elements of a primitive array or of a list of numbers, stored in a primitive array
+   * until a {@code null} is added to the list.
+   */
+  private abstract static class PrimitiveArrayBuilder extends ArrayBuilder {
+    private final boolean list;
+    private final String expected;
+    ArrayList<Object> boxed;  // null until a null is added to a list
+
+    private PrimitiveArrayBuilder(boolean list, String expected) {
+      this.list = list;
+      this.expected = expected;
+    }
+
+    /**
+     * Returns the elements already added as a trimmed primitive array.
+     * @return the elements already added as a trimmed primitive array.
+     */
+    abstract Object array();
+
+    /**
+     * Returns an unmodifiable list view of a primitive array.
+     * @param array a primitive array returned by {@link #array()}
+     * @return an unmodifiable list view of the array.
+     */
+    abstract List<?> asList(Object array);
+
+    final IllegalStateException unexpected(Object value) {
+      return new IllegalStateException("expect " + expected + " but was " + value);
+    }
+
+    @Override
+    final void add(Object value) {
+      if (value != null || !list) {
+        throw unexpected(value);
+      }
+      if (boxed == null) {
+        boxed = new ArrayList<>(asList(array()));
+      }
+      boxed.add(null);
+    }
+
+    @Override
+    final Object finish() {
+      if (boxed != null) {
+        return Collections.unmodifiableList(boxed);
+      }
+      var array = array();
+      return list ? asList(array) : array;
+    }
+  }
+
+  private static final class IntArrayBuilder extends PrimitiveArrayBuilder {
+    private int[] values = new int[0];
+
+    private IntArrayBuilder(boolean list) {
+      super(list, "an int");
+    }
+
+    @Override
+    Type elementType() {
+      return int.class;
+    }
+
+    @Override
+    void addInt(int value) {
+      if (boxed != null) {
+        boxed.add(value);
+        return;
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = value;
+    }
+
+    @Override
+    void addLong(long value) {
+      throw unexpected(value);
+    }
+
+    @Override
+    void addDouble(double value) {
+      throw unexpected(value);
+    }
+
+    @Override
+    Object array() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    List<?> asList(Object array) {
+      return new IntList((int[]) array);
+    }
+  }
+
+  private static final class LongArrayBuilder extends PrimitiveArrayBuilder {
+    private long[] values = new long[0];
+
+    private LongArrayBuilder(boolean list) {
+      super(list, "a long");
+    }
+
+    @Override
+    Type elementType() {
+      return long.class;
+    }
+
+    @Override
+    void addInt(int value) {
+      addLong(value);
+    }
+
+    @Override
+    void addLong(long value) {
+      if (boxed != null) {
+        boxed.add(value);
+        return;
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = value;
+    }
+
+    @Override
+    void addDouble(double value) {
+      throw unexpected(value);
+    }
+
+    @Override
+    Object array() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    List<?> asList(Object array) {
+      return new LongList((long[]) array);
+    }
+  }
+
+  private static final class DoubleArrayBuilder extends PrimitiveArrayBuilder {
+    private double[] values = new double[0];
+
+    private DoubleArrayBuilder(boolean list) {
+      super(list, "a double");
+    }
+
+    @Override
+    Type elementType() {
+      return double.class;
+    }
+
+    @Override
+    void addInt(int value) {
+      addDouble(value);
+    }
+
+    @Override
+    void addLong(long value) {
+      addDouble(value);
+    }
+
+    @Override
+    void addDouble(double value) {
+      if (boxed != null) {
+        boxed.add(value);
+        return;
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = value;
+    }
+
+    @Override
+    Object array() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    List<?> asList(Object array) {
+      return new DoubleList((double[]) array);
+    }
+  }
+
+  private static final class ObjectArrayBuilder extends ArrayBuilder {
+    private final Type elementType;
+    private final Class<?> componentType;
+    private final Codecs codecs;
+    private Object[] values = new Object[0];
+
+    private ObjectArrayBuilder(Type elementType, Class<?> componentType, Codecs codecs) {
+      this.elementType = elementType;
+      this.componentType = componentType;
+      this.codecs = codecs;
+    }
+
+    @Override
+    Type elementType() {
+      return elementType;
+    }
+
+    @Override
+    void add(Object value) {
+      addElement(codecs.decode(elementType, value));
+    }
+
+    @Override
+    void addElement(Object element) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = element;
+    }
+
+    @Override
+    Object finish() {
+      var array = Array.newInstance(componentType, size);
+      try {
+        for (var i = 0; i < size; i++) {
+          Array.set(array, i, values[i]);
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IllegalStateException("invalid element for an array of " + componentType.getName(), e);
+      }
+      return array;
+    }
+  }
+
+  private static final class ListBuilder extends ArrayBuilder {
+    private final Type elementType;
+    private final Codecs codecs;
+    private final ArrayList<Object> list = new ArrayList<>();
+
+    private ListBuilder(Type elementType, Codecs codecs) {
+      this.elementType = elementType;
+      this.codecs = codecs;
+    }
+
+    @Override
+    Type elementType() {
+      return elementType;
+    }
+
+    @Override
+    void add(Object value) {
+      addElement(codecs.decode(elementType, value));
+    }
+
+    @Override
+    void addElement(Object element) {
+      list.add(element);
+    }
+
+    @Override
+    Object finish() {
+      return Collections.unmodifiableList(list);
+    }
+  }
+
+  private static final class IntList extends AbstractList<Integer> implements RandomAccess {
+    private final int[] values;
+
+    private IntList(int[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public Integer get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+
+  private static final class LongList extends AbstractList<Long> implements RandomAccess {
+    private final long[] values;
+
+    private LongList(long[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public Long get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+
+  private static final class DoubleList extends AbstractList<Double> implements RandomAccess {
+    private final double[] values;
+
+    private DoubleList(double[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public Double get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+}
@@ -0,0 +1,297 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Per-class property metadata shared by the writers and the readers of the mapper.
+ *
+ * For a bean, the properties are the ones found by {@link PropertyScanner} sorted by name,
+ * for a record, the properties are the record components in declaration order.
+ * The name of a property can be changed using {@link JSONProperty}.
+ *
+ * A reader creates an object using the protocol
+ * {@link #newInstance()}, {@link #populate(Object, Property, Object)} then {@link #finish(Object)}.
+ */
+final class BeanMetadata {
+  record Property(int index, String name, Type type, Method getter, Method setter) {}
+
+  /**
+   * Name of the property that contains the name of the variant of a sealed hierarchy.
+   */
+  static final String DISCRIMINATOR = "@type";
+
+  private static final ClassValue<BeanMetadata> BEAN_METADATA_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected BeanMetadata computeValue(Class<?> type) {
+      return new BeanMetadata(type, type.isRecord() ? recordProperties(type) : beanProperties(type));
+    }
+  };
+
+  private static final ClassValue<String> FINGERPRINT_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected String computeValue(Class<?> type) {
+      var schema = new StringBuilder();
+      appendSchema(type, schema, new HashSet<>());
+      // FNV-1a 64 bits
+      var hash = 0xcbf29ce484222325L;
+      for (var i = 0; i < schema.length(); i++) {
+        hash = (hash ^ schema.charAt(i)) * 0x100000001b3L;
+      }
+      return HexFormat.of().toHexDigits(hash);
+    }
+  };
+
+  private static final ClassValue<Map<String, BeanMetadata>> VARIANTS_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected Map<String, BeanMetadata> computeValue(Class<?> type) {
+      var variantMap = new HashMap<String, BeanMetadata>();
+      collectVariants(type, variantMap);
+      return Map.copyOf(variantMap);
+    }
+  };
+
+  private final Class<?> type;
+  private final String variantName;
+  private final List<Property> properties;
+  private final List<Property> readableProperties;
+  private final Map<String, Property> propertyMap;
+  private Constructor<?> constructor;  // lazily initialized, a bean may have no default constructor
+
+  private BeanMetadata(Class<?> type, List<Property> properties) {
+    this.type = type;
+    this.variantName = isVariant(type) ? variantName(type) : null;
+    this.properties = properties;
+    this.readableProperties = properties.stream().filter(property -> property.getter != null).toList();
+    var propertyMap = new LinkedHashMap<String, Property>();
+    for (var property : properties) {
+      propertyMap.put(property.name, property);
+    }
+    this.propertyMap = propertyMap;
+  }
+
+  static BeanMetadata of(Class<?> type) {
+    return BEAN_METADATA_CLASS_VALUE.get(type);
+  }
+
+  private static String propertyName(String name, JSONProperty annotation) {
+    return annotation == null ? name : annotation.value();
+  }
+
+  private static List<Property> beanProperties(Class<?> type) {
+    var beanProperties = PropertyScanner.properties(type);
+    return IntStream.range(0, beanProperties.size())
+        .mapToObj(i -> {
+          var beanProperty = beanProperties.get(i);
+          var getter = beanProperty.getter();
+          var setter = beanProperty.setter();
+          var annotation = getter != null ? getter.getAnnotation(JSONProperty.class) : null;
+          if (annotation == null && setter != null) {
+            annotation = setter.getAnnotation(JSONProperty.class);
+          }
+          var propertyType = setter != null ? setter.getGenericParameterTypes()[0] : getter.getGenericReturnType();
+          return new Property(i, propertyName(beanProperty.name(), annotation), propertyType, getter, setter);
+        })
+        .toList();
+  }
+
+  private static List<Property> recordProperties(Class<?> type) {
+    var components = type.getRecordComponents();
+    return IntStream.range(0, components.length)
+        .mapToObj(i -> {
+          var component = components[i];
+          var name = propertyName(component.getName(), component.getAnnotation(JSONProperty.class));
+          return new Property(i, name, component.getGenericType(), component.getAccessor(), null);
+        })
+        .toList();
+  }
+
+  private static boolean isVariant(Class<?> type) {
+    var superclass = type.getSuperclass();
+    return (superclass != null && superclass.isSealed())
+        || Arrays.stream(type.getInterfaces()).anyMatch(Class::isSealed);
+  }
+
+  private static String variantName(Class<?> type) {
+    var annotation = type.getAnnotation(JSONProperty.class);
+    return annotation == null ? type.getSimpleName() : annotation.value();
+  }
+
+  private static void collectVariants(Class<?> type, HashMap<String, BeanMetadata> variantMap) {
+    if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+      var beanMetadata = of(type);
+      var name = variantName(type);
+      var previous = variantMap.putIfAbsent(name, beanMetadata);
+      if (previous != null && previous != beanMetadata) {
+        throw new IllegalStateException("variants " + previous.type.getName() + " and " + type.getName() + " have the same name " + name);
+      }
+    }
+    if (type.isSealed()) {
+      for (var subclass : type.getPermittedSubclasses()) {
+        collectVariants(subclass, variantMap);
+      }
+    }
+  }
+
+  Class<?> type() {
+    return type;
+  }
+
+  List<Property> properties() {
+    return properties;
+  }
+
+  /**
+   * Returns the properties that have a getter, in the order of {@link #properties()}.
+   * @return the properties that have a getter.
+   */
+  List<Property> readableProperties() {
+    return readableProperties;
+  }
+
+  /**
+   * Returns a hash of the names and the types of the readable properties,
+   * the types of the properties that are not part of the JDK are hashed recursively.
+   * Two classes with the same fingerprint have the same positional encoding.
+   *
+   * @return a hash of the names and the types of the readable properties.
+   */
+  String fingerprint() {
+    return FINGERPRINT_CLASS_VALUE.get(type);
+  }
+
+  private static void appendSchema(Class<?> type, StringBuilder schema, HashSet<Class<?>> visited) {
+    schema.append('{');
+    for (var property : of(type).readableProperties) {
+      var propertyType = Utils.erase(property.type);
+      schema.append(property.name).append(':').append(propertyType.getName());
+      if (!propertyType.isPrimitive() && !propertyType.getName().startsWith("java.") && visited.add(propertyType)) {
+        appendSchema(propertyType, schema, visited);
+      }
+      schema.append(';');
+    }
+    schema.append('}');
+  }
+
+  /**
+   * Returns the name of the variant written in the {@link #DISCRIMINATOR} property,
+   * if this class is a subtype of a sealed type.
+   * @return the name of the variant or {@code null} if this class is not a subtype of a sealed type.
+   */
+  String variantName() {
+    return variantName;
+  }
+
+  /**
+   * Returns the metadata of the concrete subtypes of this sealed type indexed by their variant name.
+   * The table is computed once from {@link Class#getPermittedSubclasses()}, recursively.
+   * @return the metadata of the concrete subtypes of this sealed type indexed by their variant name.
+   */
+  Map<String, BeanMetadata> variants() {
+    return VARIANTS_CLASS_VALUE.get(type);
+  }
+
+  /**
+   * Returns the metadata of the variant of this sealed type.
+   * @param name the name of the variant
+   * @return the metadata of the variant.
+   * @throws IllegalStateException if there is no variant with that name.
+   */
+  BeanMetadata findVariant(String name) {
+    var beanMetadata = variants().get(name);
+    if (beanMetadata == null) {
+      throw new IllegalStateException("unknown variant " + name + " for sealed type " + type.getName());
+    }
+    return beanMetadata;
+  }
+
+  /**
+   * Returns the name of each property indexed by the name of the Java property or of the record component,
+   * the names are different if the property is annotated with {@link JSONProperty}.
+   * @return an unmodifiable map from the Java names to the names of the properties.
+   */
+  Map<String, String> propertyNames() {
+    var javaNames = type.isRecord()
+        ? Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).toList()
+        : PropertyScanner.properties(type).stream().map(PropertyScanner.BeanProperty::name).toList();
+    return properties.stream()
+        .collect(Collectors.toUnmodifiableMap(property -> javaNames.get(property.index), Property::name));
+  }
+
+  Property findProperty(String name) {
+    var property = propertyMap.get(name);
+    if (property == null) {
+      throw new IllegalStateException("unknown key " + name + " for bean " + type.getName());
+    }
+    return property;
+  }
+
+  private Constructor<?> constructor() {
+    var constructor = this.constructor;
+    if (constructor == null) {
+      constructor = type.isRecord()
+          ? Utils.canonicalConstructor(type, type.getRecordComponents())
+          : Utils.defaultConstructor(type);
+      this.constructor = constructor;
+    }
+    return constructor;
+  }
+
+  Object newInstance() {
+    if (type.isRecord()) {
+      var values = new Object[properties.size()];
+      for (var property : properties) {
+        if (property.type instanceof Class<?> clazz && clazz.isPrimitive()) {
+          values[property.index] = defaultValue(clazz);
+        }
+      }
+      return values;
+    }
+    return Utils.newInstance(constructor());
+  }
+
+  void populate(Object instance, Property property, Object value) {
+    if (type.isRecord()) {
+      ((Object[]) instance)[property.index] = value;
+      return;
+    }
+    var setter = property.setter;
+    if (setter == null) {
+      throw new IllegalStateException("no setter for key " + property.name + " for bean " + type.getName());
+    }
+    Utils.invokeMethod(instance, setter, value);
+  }
+
+  Object finish(Object instance) {
+    if (type.isRecord()) {
+      return Utils.newInstance(constructor(), (Object[]) instance);
+    }
+    return instance;
+  }
+
+  private static Object defaultValue(Class<?> primitive) {
+    return switch (primitive.getName()) {
+      case "boolean" -> false;
+      case "byte" -> (byte) 0;
+      case "short" -> (short) 0;
+      case "char" -> '\0';
+      case "int" -> 0;
+      case "long" -> 0L;
+      case "float" -> 0f;
+      case "double" -> 0.0;
+      default -> throw new AssertionError("unknown primitive " + primitive);
+    };
+  }
+}
@@ -0,0 +1,107 @@
+package com.github.forax.framework.mapper;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * A small lock-free pool of reusable scratch buffers shared by all the threads.
+ *
+ * Unlike a {@link ThreadLocal}, the number of pooled buffers does not grow with the number of threads,
+ * so thousands of virtual threads sharing the same writer only retain a few buffers.
+ * The pool has a fixed number of slots, {@link #acquire()} takes a buffer from a slot or allocates
+ * a new one if all slots are empty, {@link #release(Object)} puts the buffer back in an empty slot
+ * or drops it if the pool is full or if the buffer has grown too large.
+ * Neither method blocks, the slots are updated with compare-and-set.
+ *
+ * @param <B> the type of the buffers
+ */
+final class BufferPool<B> {
+  private static final int MAX_CAPACITY = 64 * 1_024;
+
+  static final BufferPool<StringBuilder> CHARS = new BufferPool<>(defaultSize(), StringBuilder::new, StringBuilder::capacity, MAX_CAPACITY);
+  static final BufferPool<byte[]> BYTES = new BufferPool<>(defaultSize(), () -> new byte[64], buffer -> buffer.length, MAX_CAPACITY);
+
+  private final AtomicReferenceArray<B> slots;
+  private final Supplier<? extends B> factory;
+  private final ToIntFunction<? super B> capacity;
+  private final int maxCapacity;
+
+  /**
+   * Creates a pool.
+   *
+   * @param size the number of slots, a power of two
+   * @param factory a function that allocates a new buffer
+   * @param capacity a function that returns the capacity of a buffer
+   * @param maxCapacity the maximum capacity of a buffer returned to the pool
+   */
+  BufferPool(int size, Supplier<? extends B> factory, ToIntFunction<? super B> capacity, int maxCapacity) {
+    if (size <= 0 || Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("invalid size " + size);
+    }
+    this.slots = new AtomicReferenceArray<>(size);
+    this.factory = Objects.requireNonNull(factory);
+    this.capacity = Objects.requireNonNull(capacity);
+    this.maxCapacity = maxCapacity;
+  }
+
+  // enough slots for all the carrier threads, the encoding never parks a virtual thread
+  private static int defaultSize() {
+    return Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 1;
+  }
+
+  // threads start to probe at different slots to limit the contention
+  private int start() {
+    return (int) Thread.currentThread().threadId();
+  }
+
+  /**
+   * Returns a buffer from the pool or a new buffer.
+   * @return a buffer that is not used by another thread.
+   */
+  B acquire() {
+    var mask = slots.length() - 1;
+    var start = start();
+    for (var i = 0; i <= mask; i++) {
+      var index = (start + i) & mask;
+      var buffer = slots.getPlain(index);
+      if (buffer != null && slots.compareAndSet(index, buffer, null)) {
+        return buffer;
+      }
+    }
+    return factory.get();
+  }
+
+  /**
+   * Returns a buffer to the pool, the buffer must not be used after this call.
+   * @param buffer a buffer
+   */
+  void release(B buffer) {
+    if (capacity.applyAsInt(buffer) > maxCapacity) {
+      return;  // let the GC reclaim the large buffers
+    }
+    var mask = slots.length() - 1;
+    var start = start();
+    for (var i = 0; i <= mask; i++) {
+      var index = (start + i) & mask;
+      if (slots.getPlain(index) == null && slots.compareAndSet(index, null, buffer)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of buffers available in the pool.
+   * @return the number of buffers available in the pool.
+   */
+  int available() {
+    var count = 0;
+    for (var i = 0; i < slots.length(); i++) {
+      if (slots.get(i) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
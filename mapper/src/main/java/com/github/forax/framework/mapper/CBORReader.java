@@ -0,0 +1,219 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+import static com.github.forax.framework.mapper.CBORWriter.FALSE;
+import static com.github.forax.framework.mapper.CBORWriter.FLOAT32;
+import static com.github.forax.framework.mapper.CBORWriter.FLOAT64;
+import static com.github.forax.framework.mapper.CBORWriter.INFO_UINT16;
+import static com.github.forax.framework.mapper.CBORWriter.INFO_UINT32;
+import static com.github.forax.framework.mapper.CBORWriter.INFO_UINT64;
+import static com.github.forax.framework.mapper.CBORWriter.INFO_UINT8;
+import static com.github.forax.framework.mapper.CBORWriter.MAJOR_ARRAY;
+import static com.github.forax.framework.mapper.CBORWriter.MAJOR_MAP;
+import static com.github.forax.framework.mapper.CBORWriter.MAJOR_NEGATIVE;
+import static com.github.forax.framework.mapper.CBORWriter.MAJOR_SIMPLE;
+import static com.github.forax.framework.mapper.CBORWriter.MAJOR_TEXT;
+import static com.github.forax.framework.mapper.CBORWriter.MAJOR_UNSIGNED;
+import static com.github.forax.framework.mapper.CBORWriter.NULL;
+import static com.github.forax.framework.mapper.CBORWriter.TRUE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Decodes CBOR (RFC 8949) encoded by a {@link CBORWriter} into beans or records.
+ *
+ * A CBOR map is decoded using the metadata of the target class, each key is
+ * the name of a property (or the one specified by {@link JSONProperty}),
+ * a map decoded as a sealed type must start with the discriminator {@code "@type"}.
+ * A CBOR array is decoded as an array or a {@link java.util.List} using an {@link ArrayBuilder},
+ * so the integers of an {@code int[]} or a {@code List<Integer>} are not boxed.
+ * The values of a class with a {@link Codec} are decoded by the codec from the CBOR scalar.
+ *
+ * @see CBORWriter
+ */
+public final class CBORReader {
+  private static final class Input {
+    private final byte[] data;
+    private int position;
+
+    private Input(byte[] data) {
+      this.data = data;
+    }
+
+    int read() {
+      if (position >= data.length) {
+        throw new IllegalStateException("unexpected end of input at " + position);
+      }
+      return data[position++] & 0xFF;
+    }
+
+    int readInt() {
+      return read() << 24 | read() << 16 | read() << 8 | read();
+    }
+
+    long readLong() {
+      return (long) readInt() << 32 | (readInt() & 0xFFFF_FFFFL);
+    }
+
+    long readArgument(int info) {
+      return switch (info) {
+        case INFO_UINT8 -> read();
+        case INFO_UINT16 -> read() << 8 | read();
+        case INFO_UINT32 -> readInt() & 0xFFFF_FFFFL;
+        case INFO_UINT64 -> readLong();
+        default -> {
+          if (info >= INFO_UINT8) {
+            throw new IllegalStateException("invalid additional info " + info + " at " + (position - 1));
+          }
+          yield info;
+        }
+      };
+    }
+
+    String readText(int length) {
+      if (length > data.length - position) {
+        throw new IllegalStateException("unexpected end of input at " + position);
+      }
+      var text = new String(data, position, length, UTF_8);
+      position += length;
+      return text;
+    }
+  }
+
+  private final Codecs codecs = new Codecs();
+
+  /**
+   * Registers a codec used to decode the values of the class {@code type}
+   * instead of decoding them as beans.
+   * The codecs must be registered before the first call to {@link #parseCBOR(byte[], Class)}.
+   *
+   * @param type the class of the values
+   * @param codec the codec
+   * @param <T> the type of the values
+   * @throws IllegalStateException if a codec is already registered for the class
+   */
+  public <T> void registerCodec(Class<T> type, Codec<? extends T> codec) {
+    codecs.register(type, codec);
+  }
+
+  /**
+   * Decodes CBOR bytes into an object of the class {@code type}.
+   *
+   * @param data the encoded bytes
+   * @param type the class of the decoded object
+   * @return the decoded object
+   * @param <T> the type of the decoded object
+   * @throws IllegalStateException if the data are not valid CBOR or do not match the class
+   */
+  public <T> T parseCBOR(byte[] data, Class<T> type) {
+    Objects.requireNonNull(data);
+    Objects.requireNonNull(type);
+    var input = new Input(data);
+    var result = decode(input, type);
+    if (input.position != data.length) {
+      throw new IllegalStateException("trailing bytes at " + input.position);
+    }
+    return type.cast(result);
+  }
+
+  private Object decode(Input input, Type type) {
+    return decode(input, type, input.read());
+  }
+
+  private Object decode(Input input, Type type, int initial) {
+    var major = initial >>> 5;
+    var info = initial & 0x1F;
+    return switch (major) {
+      case MAJOR_MAP -> decodeMap(input, Utils.erase(type), input.readArgument(info));
+      case MAJOR_ARRAY -> decodeArray(input, type, input.readArgument(info));
+      default -> codecs.decode(type, decodeScalar(input, initial));
+    };
+  }
+
+  private Object decodeArray(Input input, Type type, long size) {
+    var arrayBuilder = ArrayBuilder.of(type, codecs);
+    if (arrayBuilder == null) {
+      throw new IllegalStateException("can not decode an array as a " + type.getTypeName());
+    }
+    var elementType = arrayBuilder.elementType();
+    for (var i = 0L; i < size; i++) {
+      var initial = input.read();
+      var major = initial >>> 5;
+      if (major == MAJOR_MAP || major == MAJOR_ARRAY) {
+        arrayBuilder.addElement(decode(input, elementType, initial));
+        continue;
+      }
+      var value = decodeScalar(input, initial);
+      switch (value) {
+        case Integer n -> arrayBuilder.addInt(n);
+        case Long n -> arrayBuilder.addLong(n);
+        case Double n -> arrayBuilder.addDouble(n);
+        case null, default -> arrayBuilder.add(value);
+      }
+    }
+    return arrayBuilder.finish();
+  }
+
+  private static Object decodeScalar(Input input, int initial) {
+    var major = initial >>> 5;
+    var info = initial & 0x1F;
+    return switch (major) {
+      case MAJOR_UNSIGNED -> number(input.readArgument(info), info);
+      case MAJOR_NEGATIVE -> number(-1 - input.readArgument(info), info);
+      case MAJOR_TEXT -> input.readText(Math.toIntExact(input.readArgument(info)));
+      case MAJOR_SIMPLE -> switch (initial) {
+        case FALSE -> false;
+        case TRUE -> true;
+        case NULL -> null;
+        case FLOAT32 -> Float.intBitsToFloat(input.readInt());
+        case FLOAT64 -> Double.longBitsToDouble(input.readLong());
+        default -> throw new IllegalStateException("unsupported simple value " + initial + " at " + (input.position - 1));
+      };
+      default -> throw new IllegalStateException("unsupported major type " + major + " at " + (input.position - 1));
+    };
+  }
+
+  private static Object number(long value, int info) {
+    // a long is always encoded on 8 bytes
+    if (info == INFO_UINT64 || value != (int) value) {
+      return value;
+    }
+    return (int) value;
+  }
+
+  private static String readText(Input input, String expected) {
+    var initial = input.read();
+    if (initial >>> 5 != MAJOR_TEXT) {
+      throw new IllegalStateException("expect " + expected + " at " + (input.position - 1));
+    }
+    return input.readText(Math.toIntExact(input.readArgument(initial & 0x1F)));
+  }
+
+  private Object decodeMap(Input input, Class<?> type, long size) {
+    var beanMetadata = BeanMetadata.of(type);
+    var i = 0L;
+    if (type.isSealed()) {
+      // replace the sealed type by the variant
+      if (size == 0 || !readText(input, "a text key").equals(BeanMetadata.DISCRIMINATOR)) {
+        throw new IllegalStateException("the discriminator " + BeanMetadata.DISCRIMINATOR + " must be the first key of a sealed type " + type.getName());
+      }
+      beanMetadata = beanMetadata.findVariant(readText(input, "a variant name"));
+      i = 1;
+    }
+    var instance = beanMetadata.newInstance();
+    for (; i < size; i++) {
+      var key = readText(input, "a text key");
+      if (key.equals(BeanMetadata.DISCRIMINATOR) && beanMetadata.variantName() != null) {
+        var name = readText(input, "a variant name");
+        if (!beanMetadata.variantName().equals(name)) {
+          throw new IllegalStateException("expect variant " + beanMetadata.variantName() + " but was " + name);
+        }
+        continue;
+      }
+      var property = beanMetadata.findProperty(key);
+      beanMetadata.populate(instance, property, decode(input, property.type()));
+    }
+    return beanMetadata.finish(instance);
+  }
+}
@@ -0,0 +1,265 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Encodes objects using the binary format CBOR (RFC 8949),
+ * the beans and the records are encoded as CBOR maps using the same property names
+ * as the {@link JSONWriter}, the subtypes of a sealed type start with the discriminator {@code "@type"}.
+ * The arrays and the collections are encoded as CBOR arrays.
+ * The values of a class with a {@link Codec} (the enums, {@link java.time.Instant}, {@link java.util.UUID}, etc)
+ * are encoded as the CBOR scalar corresponding to the JSON text written by the codec,
+ * by example a CBOR text string for an enum.
+ *
+ * The integers are always encoded using a fixed-width representation,
+ * 4 bytes for an {@code int} and 8 bytes for a {@code long},
+ * the strings are encoded as length-prefixed UTF-8.
+ *
+ * @see CBORReader
+ */
+public final class CBORWriter {
+  static final int MAJOR_UNSIGNED = 0;
+  static final int MAJOR_NEGATIVE = 1;
+  static final int MAJOR_TEXT = 3;
+  static final int MAJOR_ARRAY = 4;
+  static final int MAJOR_MAP = 5;
+  static final int MAJOR_SIMPLE = 7;
+
+  static final int FALSE = 0xF4;
+  static final int TRUE = 0xF5;
+  static final int NULL = 0xF6;
+  static final int FLOAT32 = 0xFA;
+  static final int FLOAT64 = 0xFB;
+
+  static final int INFO_UINT8 = 24;
+  static final int INFO_UINT16 = 25;
+  static final int INFO_UINT32 = 26;
+  static final int INFO_UINT64 = 27;
+
+  private record BeanEncoder(byte[] header, List<Generator> generators) {}
+
+  private static final ClassValue<BeanEncoder> BEAN_ENCODER_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected BeanEncoder computeValue(Class<?> type) {
+      var beanMetadata = BeanMetadata.of(type);
+      var generators = beanMetadata.properties().stream()
+          .filter(property -> property.getter() != null)
+          .<Generator>map(property -> {
+            var getter = property.getter();
+            var key = encodeText(property.name());
+            return (writer, bean, output) -> {
+              output.write(key);
+              writer.encode(Utils.invokeMethod(bean, getter), output);
+            };
+          })
+          .toList();
+      var header = new Output();
+      var variantName = beanMetadata.variantName();
+      header.writeHeader(MAJOR_MAP, generators.size() + (variantName == null ? 0 : 1));
+      if (variantName != null) {
+        header.write(encodeText(BeanMetadata.DISCRIMINATOR));
+        header.write(encodeText(variantName));
+      }
+      return new BeanEncoder(header.toByteArray(), generators);
+    }
+  };
+
+  @FunctionalInterface
+  private interface Generator {
+    void generate(CBORWriter writer, Object bean, Output output);
+  }
+
+  private static final class Output {
+    private byte[] buffer;
+    private int size;
+
+    Output(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    Output() {
+      this(new byte[64]);
+    }
+
+    private void ensureCapacity(int length) {
+      if (size + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + length));
+      }
+    }
+
+    void write(int value) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) value;
+    }
+
+    void write(byte[] bytes) {
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, size, bytes.length);
+      size += bytes.length;
+    }
+
+    void writeInt(int value) {
+      ensureCapacity(4);
+      buffer[size] = (byte) (value >>> 24);
+      buffer[size + 1] = (byte) (value >>> 16);
+      buffer[size + 2] = (byte) (value >>> 8);
+      buffer[size + 3] = (byte) value;
+      size += 4;
+    }
+
+    void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    void writeHeader(int major, long length) {
+      var type = major << 5;
+      if (length < INFO_UINT8) {
+        write(type | (int) length);
+      } else if (length <= 0xFF) {
+        write(type | INFO_UINT8);
+        write((int) length);
+      } else if (length <= 0xFFFF) {
+        write(type | INFO_UINT16);
+        write((int) (length >>> 8));
+        write((int) length);
+      } else if (length <= 0xFFFF_FFFFL) {
+        write(type | INFO_UINT32);
+        writeInt((int) length);
+      } else {
+        write(type | INFO_UINT64);
+        writeLong(length);
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+
+  private final Codecs codecs = new Codecs();
+
+  private static byte[] encodeText(String text) {
+    var bytes = text.getBytes(UTF_8);
+    var output = new Output();
+    output.writeHeader(MAJOR_TEXT, bytes.length);
+    output.write(bytes);
+    return output.toByteArray();
+  }
+
+  /**
+   * Registers a codec used to encode the values of the class {@code type}
+   * instead of encoding them as beans.
+   * The codecs must be registered before the first call to {@link #toCBOR(Object)}.
+   *
+   * @param type the class of the values
+   * @param codec the codec
+   * @param <T> the type of the values
+   * @throws IllegalStateException if a codec is already registered for the class
+   */
+  public <T> void registerCodec(Class<T> type, Codec<? super T> codec) {
+    codecs.register(type, codec);
+  }
+
+  /**
+   * Encodes an object to CBOR.
+   *
+   * @param o the object to encode, can be null
+   * @return the encoded bytes
+   */
+  public byte[] toCBOR(Object o) {
+    var output = new Output(BufferPool.BYTES.acquire());
+    try {
+      encode(o, output);
+      return output.toByteArray();
+    } finally {
+      BufferPool.BYTES.release(output.buffer);
+    }
+  }
+
+  private void encode(Object o, Output output) {
+    switch (o) {
+      case null -> output.write(NULL);
+      case Boolean b -> output.write(b ? TRUE : FALSE);
+      case Integer i -> {
+        // a negative value n is encoded as -1 - n
+        output.write((i < 0 ? MAJOR_NEGATIVE : MAJOR_UNSIGNED) << 5 | INFO_UINT32);
+        output.writeInt(i < 0 ? -1 - i : i);
+      }
+      case Long l -> {
+        output.write((l < 0 ? MAJOR_NEGATIVE : MAJOR_UNSIGNED) << 5 | INFO_UINT64);
+        output.writeLong(l < 0 ? -1 - l : l);
+      }
+      case Float f -> {
+        output.write(FLOAT32);
+        output.writeInt(Float.floatToRawIntBits(f));
+      }
+      case Double d -> {
+        output.write(FLOAT64);
+        output.writeLong(Double.doubleToRawLongBits(d));
+      }
+      case String s -> {
+        var bytes = s.getBytes(UTF_8);
+        output.writeHeader(MAJOR_TEXT, bytes.length);
+        output.write(bytes);
+      }
+      default -> {
+        var codec = codecs.codec(o.getClass());
+        if (codec != null) {
+          encode(encodeWithCodec(codec, o), output);
+          return;
+        }
+        if (o instanceof Collection<?> || o.getClass().isArray()) {
+          encodeArray(o, output);
+          return;
+        }
+        var beanEncoder = BEAN_ENCODER_CLASS_VALUE.get(o.getClass());
+        output.write(beanEncoder.header);
+        for (var generator : beanEncoder.generators) {
+          generator.generate(this, o, output);
+        }
+      }
+    }
+  }
+
+  private void encodeArray(Object o, Output output) {
+    switch (o) {
+      case Collection<?> collection -> {
+        output.writeHeader(MAJOR_ARRAY, collection.size());
+        for (var element : collection) {
+          encode(element, output);
+        }
+      }
+      case Object[] array -> {
+        output.writeHeader(MAJOR_ARRAY, array.length);
+        for (var element : array) {
+          encode(element, output);
+        }
+      }
+      default -> {  // a primitive array
+        var length = Array.getLength(o);
+        output.writeHeader(MAJOR_ARRAY, length);
+        for (var i = 0; i < length; i++) {
+          encode(Array.get(o, i), output);
+        }
+      }
+    }
+  }
+
+  // the value a JSON parser would produce from the JSON text written by the codec
+  private static Object encodeWithCodec(Codec<Object> codec, Object o) {
+    var builder = BufferPool.CHARS.acquire();
+    try {
+      codec.encode(o, builder);
+      return Codecs.parseScalar(builder.toString());
+    } finally {
+      builder.setLength(0);
+      BufferPool.CHARS.release(builder);
+    }
+  }
+}
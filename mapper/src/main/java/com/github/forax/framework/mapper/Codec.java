@@ -0,0 +1,34 @@
+package com.github.forax.framework.mapper;
+
+/**
+ * Encodes and decodes the values of a type that is not a bean, by example a value class like
+ * {@link java.util.UUID} or {@link java.time.Instant}.
+ *
+ * A codec is registered using {@link JSONWriter#registerCodec(Class, Codec)}
+ * or {@link JSONReader#registerCodec(Class, Codec)} (or the same methods of {@link CBORWriter} and {@link CBORReader},
+ * the JSON text of a value must then be a scalar), the mapper already provides codecs for
+ * {@link java.util.UUID}, {@link java.time.Instant}, {@link java.time.LocalDate},
+ * {@link java.time.LocalDateTime}, {@link java.math.BigDecimal} and the enums
+ * (the name of a constant can be changed using {@link JSONProperty}).
+ *
+ * @param <T> the type of the values.
+ */
+public interface Codec<T> {
+  /**
+   * Appends the JSON representation of a value.
+   *
+   * @param value the value to encode, never {@code null}
+   * @param builder the builder to append the JSON text to
+   */
+  void encode(T value, StringBuilder builder);
+
+  /**
+   * Decodes a value from the value produced by the parser,
+   * a {@link String}, an {@link Integer}, a {@link Long}, a {@link Double} or a {@link Boolean}.
+   *
+   * @param value the parsed value, never {@code null}
+   * @return the decoded value
+   * @throws IllegalStateException if the parsed value can not be decoded
+   */
+  T decode(Object value);
+}
@@ -0,0 +1,167 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The codecs of a writer or a reader, the user defined codecs and the built-in ones.
+ *
+ * The codec of a class is found once and cached in a {@link ClassValue},
+ * so the codecs must be registered before the first encoding or decoding.
+ */
+final class Codecs {
+  private record QuotedCodec<T>(Class<T> type, Function<String, ? extends T> parser) implements Codec<T> {
+    @Override
+    public void encode(T value, StringBuilder builder) {
+      builder.append('"').append(value).append('"');
+    }
+
+    @Override
+    public T decode(Object value) {
+      if (!(value instanceof String text)) {
+        throw new IllegalStateException("expect a string for " + type.getName() + " but was " + value);
+      }
+      return parser.apply(text);
+    }
+  }
+
+  private record BigDecimalCodec() implements Codec<BigDecimal> {
+    @Override
+    public void encode(BigDecimal value, StringBuilder builder) {
+      builder.append(value.toPlainString());
+    }
+
+    @Override
+    public BigDecimal decode(Object value) {
+      return switch (value) {
+        case Integer i -> BigDecimal.valueOf(i);
+        case Long l -> BigDecimal.valueOf(l);
+        case Double d -> new BigDecimal(d.toString());  // the shortest decimal representation
+        case String s -> new BigDecimal(s);
+        default -> throw new IllegalStateException("expect a number for " + BigDecimal.class.getName() + " but was " + value);
+      };
+    }
+  }
+
+  private final HashMap<Class<?>, Codec<?>> codecMap = new HashMap<>();
+  private final ClassValue<Codec<Object>> codecClassValue = new ClassValue<>() {
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Codec<Object> computeValue(Class<?> type) {
+      var codec = codecMap.get(type);
+      if (codec == null) {
+        codec = builtin(type);
+      }
+      return (Codec<Object>) codec;
+    }
+  };
+
+  void register(Class<?> type, Codec<?> codec) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(codec);
+    var result = codecMap.putIfAbsent(type, codec);
+    if (result != null) {
+      throw new IllegalStateException("a codec is already registered for " + type.getName());
+    }
+    codecClassValue.remove(type);
+  }
+
+  /**
+   * Returns the codec of a class or {@code null}.
+   * @param type the class of the values
+   * @return the codec of the class or {@code null} if the class has no codec.
+   */
+  Codec<Object> codec(Class<?> type) {
+    return codecClassValue.get(type);
+  }
+
+  /**
+   * Decodes a parsed value using the codec of the erasure of {@code type} if there is one,
+   * a number is converted to the primitive or boxed numeric type of the property.
+   * @param type the type of the property
+   * @param value the parsed value
+   * @return the decoded value or the parsed value if there is no codec.
+   * @throws IllegalStateException if the number can not be converted without loss
+   */
+  Object decode(Type type, Object value) {
+    if (value == null) {
+      return null;
+    }
+    var rawType = Utils.erase(type);
+    var codec = codec(rawType);
+    if (codec != null) {
+      return codec.decode(value);
+    }
+    return value instanceof Number number ? convertNumber(rawType, number) : value;
+  }
+
+  // the parser produces an Integer, a Long or a Double, the reflection does not convert them to a boxed type
+  private static Object convertNumber(Class<?> type, Number number) {
+    return switch (type.getName()) {
+      case "byte", "java.lang.Byte" -> number instanceof Integer i && i == i.byteValue() ? (Object) i.byteValue() : lossy(type, number);
+      case "short", "java.lang.Short" -> number instanceof Integer i && i == i.shortValue() ? (Object) i.shortValue() : lossy(type, number);
+      case "int", "java.lang.Integer" -> number instanceof Integer ? number : lossy(type, number);
+      case "long", "java.lang.Long" -> number instanceof Double ? lossy(type, number) : (Object) number.longValue();
+      case "float", "java.lang.Float" -> number.floatValue();
+      case "double", "java.lang.Double" -> number.doubleValue();
+      default -> number;
+    };
+  }
+
+  private static Object lossy(Class<?> type, Number number) {
+    throw new IllegalStateException("can not convert " + number + " to " + type.getName());
+  }
+
+  /**
+   * Returns the value produced by a JSON parser from the JSON text of a scalar written by a codec,
+   * used by the formats that are not JSON to store the values of a codec.
+   * @param text the JSON text of a string, a number, a boolean or {@code null}
+   * @return a {@link String}, an {@link Integer}, a {@link Long}, a {@link Double}, a {@link Boolean} or {@code null}.
+   * @throws IllegalStateException if the text is not the JSON text of a scalar
+   */
+  static Object parseScalar(String text) {
+    if (text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') {
+      return text.substring(1, text.length() - 1);
+    }
+    switch (text) {
+      case "true" -> { return true; }
+      case "false" -> { return false; }
+      case "null" -> { return null; }
+      default -> {}
+    }
+    try {
+      if (text.indexOf('.') != -1 || text.indexOf('e') != -1 || text.indexOf('E') != -1) {
+        return Double.parseDouble(text);
+      }
+      var value = Long.parseLong(text);
+      if (value == (int) value) {
+        return (int) value;
+      }
+      return value;
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException("a codec must write a string, a number, a boolean or null but was " + text, e);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Codec<?> builtin(Class<?> type) {
+    if (type.isEnum()) {
+      return EnumCodec.of((Class) type);
+    }
+    if (type.getSuperclass() != null && type.getSuperclass().isEnum()) {  // constant with a body
+      return EnumCodec.of((Class) type.getSuperclass());
+    }
+    return switch (type.getName()) {
+      case "java.util.UUID" -> new QuotedCodec<>(UUID.class, UUID::fromString);
+      case "java.time.Instant" -> TimeCodecs.INSTANT;
+      case "java.time.LocalDate" -> TimeCodecs.LOCAL_DATE;
+      case "java.time.LocalDateTime" -> TimeCodecs.LOCAL_DATE_TIME;
+      case "java.math.BigDecimal" -> new BigDecimalCodec();
+      default -> null;
+    };
+  }
+}
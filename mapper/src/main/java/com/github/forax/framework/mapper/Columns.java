@@ -0,0 +1,98 @@
+package com.github.forax.framework.mapper;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The columns of a JSON array of objects decoded as a struct of arrays,
+ * one primitive array or one array of strings per selected property.
+ *
+ * All the columns have the same length, {@link #rowCount()}, a missing or {@code null} value
+ * is stored as {@code 0}, {@code 0L}, {@code 0.0}, {@code false} or {@code null}.
+ *
+ * @see JSONReader#parseColumns(String, Class, String...)
+ */
+public final class Columns {
+  private final int rowCount;
+  private final Map<String, Object> columnMap;
+
+  Columns(int rowCount, Map<String, Object> columnMap) {
+    this.rowCount = rowCount;
+    this.columnMap = columnMap;
+  }
+
+  /**
+   * Returns the number of rows, the length of all the columns.
+   * @return the number of rows.
+   */
+  public int rowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Returns the names of the columns in the order of the selection.
+   * @return the names of the columns.
+   */
+  public Set<String> names() {
+    return Collections.unmodifiableSet(columnMap.keySet());
+  }
+
+  /**
+   * Returns the column of an {@code int} or {@link Integer} property.
+   * @param name the name of the property
+   * @return the column of the property, the array is not copied.
+   * @throws IllegalArgumentException if there is no int column with that name.
+   */
+  public int[] ints(String name) {
+    return column(name, int[].class);
+  }
+
+  /**
+   * Returns the column of a {@code long} or {@link Long} property.
+   * @param name the name of the property
+   * @return the column of the property, the array is not copied.
+   * @throws IllegalArgumentException if there is no long column with that name.
+   */
+  public long[] longs(String name) {
+    return column(name, long[].class);
+  }
+
+  /**
+   * Returns the column of a {@code double}, {@code float}, {@link Double} or {@link Float} property.
+   * @param name the name of the property
+   * @return the column of the property, the array is not copied.
+   * @throws IllegalArgumentException if there is no double column with that name.
+   */
+  public double[] doubles(String name) {
+    return column(name, double[].class);
+  }
+
+  /**
+   * Returns the column of a {@code boolean} or {@link Boolean} property.
+   * @param name the name of the property
+   * @return the column of the property, the array is not copied.
+   * @throws IllegalArgumentException if there is no boolean column with that name.
+   */
+  public boolean[] booleans(String name) {
+    return column(name, boolean[].class);
+  }
+
+  /**
+   * Returns the column of a {@link String} property.
+   * @param name the name of the property
+   * @return the column of the property, the array is not copied.
+   * @throws IllegalArgumentException if there is no string column with that name.
+   */
+  public String[] strings(String name) {
+    return column(name, String[].class);
+  }
+
+  private <A> A column(String name, Class<A> arrayType) {
+    var column = columnMap.get(name);
+    if (!arrayType.isInstance(column)) {
+      throw new IllegalArgumentException("no column " + name + " of type " + arrayType.getComponentType().getName());
+    }
+    return arrayType.cast(column);
+  }
+}
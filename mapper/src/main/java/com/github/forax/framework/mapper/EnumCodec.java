@@ -0,0 +1,227 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The codec of an enum, a constant is encoded as a JSON string containing its name
+ * or the name specified by {@link JSONProperty} on the constant.
+ *
+ * All the work is done once per enum class: the quoted names are precomputed, in chars for the
+ * {@link JSONWriter} and in UTF-8 bytes, and the names are stored in a collision-free hash table,
+ * so decoding a name is one hash, one probe and one comparison,
+ * either from a {@link String} or directly from the UTF-8 bytes of a {@link MemorySegment}.
+ *
+ * The hash table is a perfect hash, its seed is chosen so that two names are never in the same slot,
+ * the table size is a power of two at least twice the number of constants.
+ * If no seed is found, even after growing the table, the codec can not be created
+ * and an {@link IllegalStateException} is thrown.
+ *
+ * @param <E> the type of the enum
+ */
+final class EnumCodec<E extends Enum<E>> implements Codec<E> {
+  private static final ClassValue<EnumCodec<?>> ENUM_CODEC_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected EnumCodec<?> computeValue(Class<?> type) {
+      return new EnumCodec(type);
+    }
+  };
+
+  private static final int MAX_SEED_TRIES = 1_024;
+  private static final int MAX_TABLE_GROWTH = 4;
+
+  private final Class<E> type;
+  private final String[] quotedNames;   // indexed by ordinal
+  private final byte[][] quotedBytes;   // indexed by ordinal
+  private final Table<E> table;
+
+  // the names encoded in UTF-8 and the constants indexed by slot, a slot is null if empty
+  private record Table<E>(int seed, byte[][] slotNames, E[] slotConstants) {}
+
+  private EnumCodec(Class<E> type) {
+    this.type = type;
+    var constants = type.getEnumConstants();
+    var names = Arrays.stream(constants).map(constant -> jsonName(type, constant)).toArray(String[]::new);
+    if (new HashSet<>(Arrays.asList(names)).size() != names.length) {
+      throw new IllegalStateException("two constants of " + type.getName() + " have the same name " + Arrays.toString(names));
+    }
+    this.quotedNames = Arrays.stream(names).map(name -> '"' + name + '"').toArray(String[]::new);
+    this.quotedBytes = Arrays.stream(quotedNames).map(name -> name.getBytes(UTF_8)).toArray(byte[][]::new);
+    this.table = table(type, constants, Arrays.stream(names).map(name -> name.getBytes(UTF_8)).toArray(byte[][]::new));
+  }
+
+  // find a seed without collision, grow the table if there is none
+  private static <E> Table<E> table(Class<?> type, E[] constants, byte[][] nameBytes) {
+    var initialSize = Math.max(2, Integer.highestOneBit(constants.length) << 2);
+    for (var tableSize = initialSize; tableSize <= initialSize << MAX_TABLE_GROWTH; tableSize <<= 1) {
+      for (var seed = 0; seed < MAX_SEED_TRIES; seed++) {
+        var slots = slots(nameBytes, seed, tableSize);
+        if (slots == null) {
+          continue;
+        }
+        var slotNames = new byte[tableSize][];
+        var slotConstants = Arrays.copyOf(constants, tableSize);
+        Arrays.fill(slotConstants, null);
+        for (var i = 0; i < constants.length; i++) {
+          slotNames[slots[i]] = nameBytes[i];
+          slotConstants[slots[i]] = constants[i];
+        }
+        return new Table<>(seed, slotNames, slotConstants);
+      }
+    }
+    throw new IllegalStateException("can not find a perfect hash for the names of " + type.getName());
+  }
+
+  // returns the slot of each name or null if two names collide
+  private static int[] slots(byte[][] nameBytes, int seed, int tableSize) {
+    var used = new boolean[tableSize];
+    var slots = new int[nameBytes.length];
+    for (var i = 0; i < nameBytes.length; i++) {
+      var name = nameBytes[i];
+      var slot = slot(hash(MemorySegment.ofArray(name), 0, name.length, seed), tableSize);
+      if (used[slot]) {
+        return null;
+      }
+      used[slot] = true;
+      slots[i] = slot;
+    }
+    return slots;
+  }
+
+  private static String jsonName(Class<?> type, Enum<?> constant) {
+    try {
+      var annotation = type.getField(constant.name()).getAnnotation(JSONProperty.class);
+      return annotation == null ? constant.name() : annotation.value();
+    } catch (NoSuchFieldException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Returns the codec of an enum, the codecs are created once per enum class.
+   * @param type the class of an enum
+   * @param <E> the type of the enum
+   * @return the codec of the enum.
+   */
+  @SuppressWarnings("unchecked")
+  static <E extends Enum<E>> EnumCodec<E> of(Class<E> type) {
+    Objects.requireNonNull(type);
+    if (!type.isEnum()) {
+      throw new IllegalArgumentException(type.getName() + " is not an enum");
+    }
+    return (EnumCodec<E>) ENUM_CODEC_CLASS_VALUE.get(type);
+  }
+
+  // the seed changes the multiplier, so two names colliding with a seed (like "Aa" and "BB" with 31)
+  // do not collide with the next one
+  private static int multiplier(int seed) {
+    return 31 + (seed << 1);
+  }
+
+  private static int hash(MemorySegment segment, long start, long end, int seed) {
+    var multiplier = multiplier(seed);
+    var hash = seed;
+    for (var offset = start; offset < end; offset++) {
+      hash = hash * multiplier + segment.get(JAVA_BYTE, offset);
+    }
+    return hash;
+  }
+
+  // same hash as the UTF-8 bytes if the text is ASCII
+  private static int hash(String text, int seed) {
+    var multiplier = multiplier(seed);
+    var hash = seed;
+    for (var i = 0; i < text.length(); i++) {
+      hash = hash * multiplier + (byte) text.charAt(i);
+    }
+    return hash;
+  }
+
+  private static int slot(int hash, int tableSize) {
+    hash *= 0x9E3779B9;  // spread the bits
+    return (hash ^ hash >>> 16) & (tableSize - 1);
+  }
+
+  private static boolean isASCII(String text) {
+    for (var i = 0; i < text.length(); i++) {
+      if (text.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the quoted name of a constant encoded in UTF-8.
+   * @param value a constant
+   * @return the quoted name of the constant encoded in UTF-8, must not be modified.
+   */
+  byte[] quotedBytes(E value) {
+    return quotedBytes[value.ordinal()];
+  }
+
+  /**
+   * Returns the constant of a name encoded in UTF-8.
+   * @param segment the segment containing the name
+   * @param start the offset of the first byte of the name
+   * @param end the offset after the last byte of the name
+   * @return the constant or {@code null} if no constant has that name.
+   */
+  E lookup(MemorySegment segment, long start, long end) {
+    var table = this.table;
+    var slot = slot(hash(segment, start, end, table.seed), table.slotNames.length);
+    var name = table.slotNames[slot];
+    if (name == null || name.length != end - start
+        || MemorySegment.mismatch(MemorySegment.ofArray(name), 0, name.length, segment, start, end) != -1) {
+      return null;
+    }
+    return table.slotConstants[slot];
+  }
+
+  /**
+   * Returns the constant of a name.
+   * @param name the name of a constant
+   * @return the constant or {@code null} if no constant has that name.
+   */
+  E lookup(String name) {
+    if (!isASCII(name)) {
+      var bytes = name.getBytes(UTF_8);
+      return lookup(MemorySegment.ofArray(bytes), 0, bytes.length);
+    }
+    var table = this.table;
+    var slot = slot(hash(name, table.seed), table.slotNames.length);
+    var slotName = table.slotNames[slot];
+    if (slotName == null || slotName.length != name.length()) {
+      return null;
+    }
+    for (var i = 0; i < slotName.length; i++) {
+      if (slotName[i] != name.charAt(i)) {
+        return null;
+      }
+    }
+    return table.slotConstants[slot];
+  }
+
+  @Override
+  public void encode(E value, StringBuilder builder) {
+    builder.append(quotedNames[value.ordinal()]);
+  }
+
+  @Override
+  public E decode(Object value) {
+    if (!(value instanceof String name)) {
+      throw new IllegalStateException("expect a string for " + type.getName() + " but was " + value);
+    }
+    var constant = lookup(name);
+    if (constant == null) {
+      throw new IllegalStateException("unknown constant " + name + " for enum " + type.getName());
+    }
+    return constant;
+  }
+}
@@ -0,0 +1,207 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+/**
+ * The encoding of the JSON strings and numbers in UTF-8 shared by the {@link JSONWriter}
+ * and the writers that produce JSON bytes directly, without a {@link JSONWriter}.
+ *
+ * A string is written between quotes, the quotes, the backslashes and the control characters
+ * are escaped (RFC 8259) so a string never contains a newline.
+ * The UTF-8 encoding is the same as {@code String.getBytes(UTF_8)},
+ * an unpaired surrogate is replaced by {@code '?'}.
+ * The sizes are computed without encoding, so a caller can check the capacity before writing.
+ */
+public final class JSONEncoding {
+  private static final String HEX_DIGITS = "0123456789abcdef";
+
+  private JSONEncoding() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Returns the number of bytes of a text encoded in UTF-8.
+   * @param text the text
+   * @return the number of bytes of the text encoded in UTF-8.
+   */
+  public static long utf8Length(CharSequence text) {
+    return length(text, false);
+  }
+
+  /**
+   * Returns the number of bytes of the JSON string of a text encoded in UTF-8, quotes included.
+   * @param text the text
+   * @return the number of bytes of the JSON string of the text encoded in UTF-8.
+   */
+  public static long quotedLength(String text) {
+    return 2 + length(text, true);
+  }
+
+  /**
+   * Returns the number of chars of the decimal representation of a long.
+   * @param value the value
+   * @return the number of chars of the decimal representation of the value.
+   */
+  public static int stringSize(long value) {
+    // count the digits of the negative value, Math.abs(Long.MIN_VALUE) is still negative
+    var size = value < 0 ? 2 : 1;
+    for (var n = value < 0 ? value : -value; n <= -10; n /= 10) {
+      size++;
+    }
+    return size;
+  }
+
+  /**
+   * Writes a text encoded in UTF-8 into a memory segment.
+   * @param text the text
+   * @param segment the memory segment
+   * @param offset the offset of the first byte
+   * @return the offset after the last byte written.
+   * @throws IndexOutOfBoundsException if the segment is too small
+   */
+  public static long encodeUTF8(CharSequence text, MemorySegment segment, long offset) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(segment);
+    return encode(text, segment, offset, false);
+  }
+
+  /**
+   * Writes the JSON string of a text encoded in UTF-8 into a memory segment, quotes included.
+   * @param text the text
+   * @param segment the memory segment
+   * @param offset the offset of the first byte
+   * @return the offset after the last byte written.
+   * @throws IndexOutOfBoundsException if the segment is too small
+   */
+  public static long encodeQuoted(String text, MemorySegment segment, long offset) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(segment);
+    segment.set(JAVA_BYTE, offset, (byte) '"');
+    offset = encode(text, segment, offset + 1, true);
+    segment.set(JAVA_BYTE, offset, (byte) '"');
+    return offset + 1;
+  }
+
+  /**
+   * Writes the decimal representation of a long into a memory segment, without allocating a string.
+   * @param value the value
+   * @param segment the memory segment
+   * @param offset the offset of the first byte
+   * @return the offset after the last byte written.
+   * @throws IndexOutOfBoundsException if the segment is too small
+   */
+  public static long encodeLong(long value, MemorySegment segment, long offset) {
+    Objects.requireNonNull(segment);
+    var end = offset + stringSize(value);
+    // the digits are written backward
+    var index = end;
+    for (var n = value < 0 ? value : -value; ; n /= 10) {
+      segment.set(JAVA_BYTE, --index, (byte) ('0' - n % 10));
+      if (n > -10) {
+        break;
+      }
+    }
+    if (value < 0) {
+      segment.set(JAVA_BYTE, offset, (byte) '-');
+    }
+    return end;
+  }
+
+  /**
+   * Appends the JSON string of a text, quotes included.
+   * @param text the text
+   * @param builder the builder
+   */
+  static void appendQuoted(String text, StringBuilder builder) {
+    builder.append('"');
+    var start = 0;
+    for (var i = 0; i < text.length(); i++) {
+      var c = text.charAt(i);
+      if (!isEscaped(c)) {
+        continue;
+      }
+      builder.append(text, start, i).append(escape(c));
+      start = i + 1;
+    }
+    builder.append(text, start, text.length()).append('"');
+  }
+
+  private static boolean isEscaped(char c) {
+    return c < 0x20 || c == '"' || c == '\\';
+  }
+
+  private static String escape(char c) {
+    return switch (c) {
+      case '"' -> "\\\"";
+      case '\\' -> "\\\\";
+      case '\n' -> "\\n";
+      case '\r' -> "\\r";
+      case '\t' -> "\\t";
+      case '\b' -> "\\b";
+      case '\f' -> "\\f";
+      default -> "\\u00" + HEX_DIGITS.charAt(c >> 4) + HEX_DIGITS.charAt(c & 0xF);
+    };
+  }
+
+  private static int escapeLength(char c) {
+    return switch (c) {
+      case '"', '\\', '\n', '\r', '\t', '\b', '\f' -> 2;
+      default -> 6;
+    };
+  }
+
+  private static long length(CharSequence text, boolean escape) {
+    var length = 0L;
+    for (var i = 0; i < text.length(); i++) {
+      var c = text.charAt(i);
+      if (c < 0x80) {
+        length += escape && isEscaped(c) ? escapeLength(c) : 1;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        length++;  // replaced by '?'
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  private static long encode(CharSequence text, MemorySegment segment, long offset, boolean escape) {
+    for (var i = 0; i < text.length(); i++) {
+      var c = text.charAt(i);
+      if (c < 0x80) {
+        if (escape && isEscaped(c)) {
+          var escaped = escape(c);
+          for (var j = 0; j < escaped.length(); j++) {
+            segment.set(JAVA_BYTE, offset++, (byte) escaped.charAt(j));
+          }
+          continue;
+        }
+        segment.set(JAVA_BYTE, offset++, (byte) c);
+      } else if (c < 0x800) {
+        segment.set(JAVA_BYTE, offset++, (byte) (0xC0 | c >> 6));
+        segment.set(JAVA_BYTE, offset++, (byte) (0x80 | c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+        var codePoint = Character.toCodePoint(c, text.charAt(++i));
+        segment.set(JAVA_BYTE, offset++, (byte) (0xF0 | codePoint >> 18));
+        segment.set(JAVA_BYTE, offset++, (byte) (0x80 | codePoint >> 12 & 0x3F));
+        segment.set(JAVA_BYTE, offset++, (byte) (0x80 | codePoint >> 6 & 0x3F));
+        segment.set(JAVA_BYTE, offset++, (byte) (0x80 | codePoint & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        segment.set(JAVA_BYTE, offset++, (byte) '?');
+      } else {
+        segment.set(JAVA_BYTE, offset++, (byte) (0xE0 | c >> 12));
+        segment.set(JAVA_BYTE, offset++, (byte) (0x80 | c >> 6 & 0x3F));
+        segment.set(JAVA_BYTE, offset++, (byte) (0x80 | c & 0x3F));
+      }
+    }
+    return offset;
+  }
+}
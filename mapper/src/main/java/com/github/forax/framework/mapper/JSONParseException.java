@@ -0,0 +1,134 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Thrown when a JSON text can not be parsed or decoded.
+ *
+ * The exception does not keep a reference to the parsed text, only the position of the error,
+ * its {@link #line()}, its {@link #column()} and its {@link #offset()}, and a window of at most
+ * {@value #WINDOW} characters around the error, so the size of the exception does not depend
+ * on the size of the text. The message is only built when {@link #getMessage()} is called.
+ *
+ * For a text stored in a {@link String}, the column and the offset are counted in chars,
+ * for a text stored in a {@link MemorySegment}, they are counted in bytes.
+ */
+public final class JSONParseException extends IllegalStateException {
+  /**
+   * The maximum number of characters of the text around the error.
+   */
+  static final int WINDOW = 64;
+
+  private final String reason;
+  private final long offset;
+  private final long line;
+  private final long column;
+  private final String context;   // the text around the error
+  private final int contextIndex;  // index of the error in the context
+  private String message;  // lazily initialized
+
+  private JSONParseException(String reason, long offset, long line, long column, String context, int contextIndex, Throwable cause) {
+    super(null, cause);
+    this.reason = reason;
+    this.offset = offset;
+    this.line = line;
+    this.column = column;
+    this.context = context;
+    this.contextIndex = contextIndex;
+  }
+
+  static JSONParseException of(String reason, String input, int offset, Throwable cause) {
+    offset = Math.min(offset, input.length());
+    var line = 1L;
+    var lineStart = 0;
+    for (var i = 0; i < offset; i++) {
+      if (input.charAt(i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    var start = Math.max(0, offset - WINDOW / 2);
+    var end = Math.min(input.length(), offset + WINDOW / 2);
+    return new JSONParseException(reason, offset, line, offset - lineStart + 1,
+        input.substring(start, end), offset - start, cause);
+  }
+
+  static JSONParseException of(String reason, MemorySegment input, long offset, Throwable cause) {
+    var size = input.byteSize();
+    offset = Math.min(offset, size);
+    var line = 1L;
+    var lineStart = 0L;
+    for (var i = 0L; i < offset; i++) {
+      if (input.get(JAVA_BYTE, i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    var start = Math.max(0, offset - WINDOW / 2);
+    var end = Math.min(size, offset + WINDOW / 2);
+    var before = new String(input.asSlice(start, offset - start).toArray(JAVA_BYTE), UTF_8);
+    var after = new String(input.asSlice(offset, end - offset).toArray(JAVA_BYTE), UTF_8);
+    return new JSONParseException(reason, offset, line, offset - lineStart + 1,
+        before + after, before.length(), cause);
+  }
+
+  /**
+   * Returns the reason of the error without the position.
+   * @return the reason of the error.
+   */
+  public String reason() {
+    return reason;
+  }
+
+  /**
+   * Returns the offset of the error from the start of the text.
+   * @return the offset of the error.
+   */
+  public long offset() {
+    return offset;
+  }
+
+  /**
+   * Returns the line of the error, starting at 1.
+   * @return the line of the error.
+   */
+  public long line() {
+    return line;
+  }
+
+  /**
+   * Returns the column of the error in its line, starting at 1.
+   * @return the column of the error.
+   */
+  public long column() {
+    return column;
+  }
+
+  /**
+   * Returns the text around the error, at most {@value #WINDOW} characters.
+   * @return the text around the error.
+   */
+  public String context() {
+    return context;
+  }
+
+  @Override
+  public String getMessage() {
+    if (message != null) {
+      return message;
+    }
+    var builder = new StringBuilder()
+        .append(reason).append(" at line ").append(line).append(", column ").append(column)
+        .append(" (offset ").append(offset).append(")\n  ");
+    // the blanks are replaced by spaces so the caret is aligned
+    for (var i = 0; i < context.length(); i++) {
+      var c = context.charAt(i);
+      builder.append(Character.isWhitespace(c) || Character.isISOControl(c) ? ' ' : c);
+    }
+    builder.append("\n  ").repeat(' ', contextIndex).append('^');
+    return message = builder.toString();
+  }
+}
@@ -3,12 +3,14 @@ package com.github.forax.framework.mapper;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
+import static java.lang.annotation.ElementType.FIELD;
 import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.RECORD_COMPONENT;
+import static java.lang.annotation.ElementType.TYPE;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
 @Retention(RUNTIME)
-@Target({METHOD, RECORD_COMPONENT})
+@Target({FIELD, METHOD, RECORD_COMPONENT, TYPE})
 public @interface JSONProperty {
   String value();
 }
@@ -0,0 +1,309 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.Kind;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A pull parser, the caller asks for the next token with {@link #nextToken()} instead
+ * of being called back by a {@link ToyJSONParser.JSONVisitor}, so a decoder can be written by hand
+ * for a specific message type.
+ *
+ * The parser is a cursor over UTF-8 encoded bytes, no object is allocated per token,
+ * the value of the current token is only decoded if requested using {@link #currentInt()},
+ * {@link #currentLong()}, {@link #currentDouble()} or {@link #currentString()}.
+ * A parser can be reused for another input using one of the {@code reset} methods.
+ *
+ * <pre>
+ * var parser = new JSONPullParser(text);
+ * parser.nextToken();  // START_OBJECT
+ * while (parser.nextToken() == Token.FIELD_NAME) {
+ *   if (parser.currentTextEquals("age")) {
+ *     parser.nextToken();
+ *     age = parser.currentInt();
+ *   } else {
+ *     parser.nextToken();
+ *     parser.skipChildren();
+ *   }
+ * }
+ * </pre>
+ *
+ * This class is not thread-safe.
+ */
+public final class JSONPullParser {
+  /**
+   * The kinds of token.
+   */
+  public enum Token {
+    START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME, STRING, INTEGER, DOUBLE, TRUE, FALSE, NULL
+  }
+
+  private final SegmentLexer lexer;
+  private boolean[] objectStack = new boolean[16];  // true if the container is an object
+  private int depth;
+  private boolean first;  // true just after the start of a container
+  private boolean afterName;  // true if the current token is a field name
+  private Token currentToken;
+
+  /**
+   * Creates a parser reading UTF-8 encoded JSON texts from a memory segment,
+   * several top level values can follow each others (newline delimited JSON).
+   *
+   * @param segment the memory segment containing the JSON texts
+   */
+  public JSONPullParser(MemorySegment segment) {
+    this.lexer = new SegmentLexer(Objects.requireNonNull(segment));
+  }
+
+  /**
+   * Creates a parser reading UTF-8 encoded JSON texts from an array of bytes.
+   *
+   * @param bytes the array containing the JSON texts
+   */
+  public JSONPullParser(byte[] bytes) {
+    this(MemorySegment.ofArray(bytes));
+  }
+
+  /**
+   * Creates a parser reading JSON texts from a string, the string is encoded in UTF-8 once.
+   *
+   * @param text the JSON texts
+   */
+  public JSONPullParser(String text) {
+    this(text.getBytes(UTF_8));
+  }
+
+  /**
+   * Restarts this parser at the beginning of another memory segment.
+   * @param segment the memory segment containing the JSON texts
+   */
+  public void reset(MemorySegment segment) {
+    lexer.reset(Objects.requireNonNull(segment));
+    depth = 0;
+    first = false;
+    afterName = false;
+    currentToken = null;
+  }
+
+  /**
+   * Restarts this parser at the beginning of another array of bytes.
+   * @param bytes the array containing the JSON texts
+   */
+  public void reset(byte[] bytes) {
+    reset(MemorySegment.ofArray(bytes));
+  }
+
+  /**
+   * Returns the current token or {@code null} if {@link #nextToken()} was not called or the end of the input is reached.
+   * @return the current token.
+   */
+  public Token currentToken() {
+    return currentToken;
+  }
+
+  /**
+   * Returns the number of nested objects and arrays enclosing the current position.
+   * @return the number of nested objects and arrays enclosing the current position.
+   */
+  public int depth() {
+    return depth;
+  }
+
+  /**
+   * Reads the next token.
+   * @return the next token or {@code null} at the end of the input.
+   * @throws IllegalStateException if the input is not a valid JSON text.
+   */
+  public Token nextToken() {
+    if (afterName) {
+      afterName = false;
+      expect(lexer.next(), Kind.COLON);
+      return currentToken = value(lexer.next());
+    }
+    if (depth == 0) {
+      if (!lexer.hasNext()) {
+        return currentToken = null;
+      }
+      return currentToken = value(lexer.next());
+    }
+    var kind = lexer.next();
+    var object = objectStack[depth - 1];
+    if (kind == (object ? Kind.RIGHT_CURLY : Kind.RIGHT_BRACKET)) {
+      depth--;
+      first = false;
+      return currentToken = object ? Token.END_OBJECT : Token.END_ARRAY;
+    }
+    if (!first) {
+      expect(kind, Kind.COMMA);
+      kind = lexer.next();
+    }
+    first = false;
+    if (object) {
+      expect(kind, Kind.STRING);
+      afterName = true;
+      return currentToken = Token.FIELD_NAME;
+    }
+    return currentToken = value(kind);
+  }
+
+  private void expect(Kind kind, Kind expected) {
+    if (kind != expected) {
+      throw lexer.error("expect " + expected + " but recognized " + kind);
+    }
+  }
+
+  private Token value(Kind kind) {
+    return switch (kind) {
+      case LEFT_CURLY -> push(true);
+      case LEFT_BRACKET -> push(false);
+      case STRING -> Token.STRING;
+      case INTEGER -> Token.INTEGER;
+      case DOUBLE -> Token.DOUBLE;
+      case TRUE -> Token.TRUE;
+      case FALSE -> Token.FALSE;
+      case NULL -> Token.NULL;
+      default -> throw lexer.error("expect a value but recognized " + kind);
+    };
+  }
+
+  private Token push(boolean object) {
+    if (depth == objectStack.length) {
+      objectStack = Arrays.copyOf(objectStack, depth << 1);
+    }
+    objectStack[depth++] = object;
+    first = true;
+    return object ? Token.START_OBJECT : Token.START_ARRAY;
+  }
+
+  /**
+   * Skips the content of the current object or array, after this call the current token
+   * is the corresponding {@link Token#END_OBJECT} or {@link Token#END_ARRAY}.
+   * Does nothing if the current token is not {@link Token#START_OBJECT} or {@link Token#START_ARRAY}.
+   */
+  public void skipChildren() {
+    if (currentToken != Token.START_OBJECT && currentToken != Token.START_ARRAY) {
+      return;
+    }
+    var targetDepth = depth - 1;
+    while (depth != targetDepth) {
+      nextToken();
+    }
+  }
+
+  private void checkCurrent(Token expected) {
+    if (currentToken != expected) {
+      throw new IllegalStateException("the current token " + currentToken + " is not a " + expected);
+    }
+  }
+
+  /**
+   * Returns the value of the current {@link Token#INTEGER} token.
+   * @return the value of the current integer token.
+   * @throws IllegalStateException if the current token is not an integer or does not fit in an int.
+   */
+  public int currentInt() {
+    var value = currentLong();
+    if (value != (int) value) {
+      throw lexer.error("integer overflow");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Returns the value of the current {@link Token#INTEGER} token.
+   * @return the value of the current integer token.
+   * @throws IllegalStateException if the current token is not an integer.
+   */
+  public long currentLong() {
+    checkCurrent(Token.INTEGER);
+    return lexer.longValue();
+  }
+
+  /**
+   * Returns the value of the current {@link Token#DOUBLE} or {@link Token#INTEGER} token.
+   * @return the value of the current number token.
+   * @throws IllegalStateException if the current token is not a number.
+   */
+  public double currentDouble() {
+    if (currentToken == Token.INTEGER) {
+      return lexer.longValue();
+    }
+    checkCurrent(Token.DOUBLE);
+    return lexer.doubleValue();
+  }
+
+  private void checkText() {
+    if (currentToken != Token.STRING && currentToken != Token.FIELD_NAME) {
+      throw new IllegalStateException("the current token " + currentToken + " is not a " + Token.STRING + " or a " + Token.FIELD_NAME);
+    }
+  }
+
+  /**
+   * Returns the value of the current {@link Token#STRING} or {@link Token#FIELD_NAME} token.
+   * @return the value of the current string or field name token.
+   * @throws IllegalStateException if the current token is not a string or a field name.
+   */
+  public String currentString() {
+    checkText();
+    return lexer.stringValue(null);
+  }
+
+  /**
+   * Returns the UTF-8 bytes of the current {@link Token#STRING} or {@link Token#FIELD_NAME} token
+   * without the quotes, the escape sequences are not decoded.
+   * The returned segment is a view of the input, no byte is copied.
+   *
+   * @return the UTF-8 bytes of the current string or field name token.
+   * @throws IllegalStateException if the current token is not a string or a field name.
+   */
+  public MemorySegment currentStringBytes() {
+    checkText();
+    return lexer.tokenBytes();
+  }
+
+  /**
+   * Returns true if the value of the current {@link Token#STRING} or {@link Token#FIELD_NAME} token
+   * is equal to the text, without allocating a string if the text is ASCII.
+   *
+   * @param text a text
+   * @return true if the value of the current string or field name token is equal to the text.
+   * @throws IllegalStateException if the current token is not a string or a field name.
+   */
+  public boolean currentTextEquals(String text) {
+    Objects.requireNonNull(text);
+    checkText();
+    return lexer.tokenEquals(text);
+  }
+
+  /**
+   * Returns the constant of an enum named by the current {@link Token#STRING} token,
+   * the name of a constant is its name or the one specified by {@link JSONProperty}.
+   * The constant is found from the UTF-8 bytes of the token, no string is allocated.
+   *
+   * @param type the class of the enum
+   * @param <E> the type of the enum
+   * @return the constant named by the current string token.
+   * @throws IllegalStateException if the current token is not a string or is not the name of a constant.
+   */
+  public <E extends Enum<E>> E currentEnum(Class<E> type) {
+    Objects.requireNonNull(type);
+    checkCurrent(Token.STRING);
+    var constant = lexer.tokenEnum(EnumCodec.of(type));
+    if (constant == null) {
+      throw lexer.error("unknown constant " + currentString() + " for enum " + type.getName());
+    }
+    return constant;
+  }
+
+  /**
+   * Returns the offset in bytes of the start of the current token.
+   * @return the offset in bytes of the start of the current token.
+   */
+  public long currentOffset() {
+    return lexer.tokenStart();
+  }
+}
@@ -1,64 +1,934 @@
 package com.github.forax.framework.mapper;
 
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Constructor;
+import java.lang.foreign.MemorySegment;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 public class JSONReader {
-  private record BeanData(Constructor<?> constructor, Map<String, PropertyDescriptor> propertyMap) {
-    PropertyDescriptor findProperty(String key) {
-      var property = propertyMap.get(key);
-      if (property == null) {
-        throw new IllegalStateException("unknown key " + key + " for bean " + constructor.getDeclaringClass().getName());
+  private static final class Context {
+    private final BeanMetadata beanMetadata;
+    private final Object instance;  // null if the beanMetadata is the one of a sealed type, the discriminator is expected
+    private final BeanMetadata.Property enclosingProperty;  // null for the root
+    private final BeanMetadata.Property[] shape;
+    private int position;
+
+    private Context(BeanMetadata beanMetadata, Object instance, BeanMetadata.Property enclosingProperty, BeanMetadata.Property[] shape) {
+      this.beanMetadata = beanMetadata;
+      this.instance = instance;
+      this.enclosingProperty = enclosingProperty;
+      this.shape = shape;
+    }
+
+    Object finish() {
+      if (instance == null) {
+        throw new IllegalStateException("no discriminator " + BeanMetadata.DISCRIMINATOR + " for sealed type " + beanMetadata.type().getName());
       }
-      return property;
+      return beanMetadata.finish(instance);
     }
   }
 
-  private static final ClassValue<BeanData> BEAN_DATA_CLASS_VALUE = new ClassValue<>() {
+  private static final class OrdinalContext {
+    private final BeanMetadata beanMetadata;
+    private final Object instance;
+    private final BeanMetadata.Property enclosingProperty;  // null for the root
+    private int position;   // -1 means the fingerprint is expected
+
+    private OrdinalContext(BeanMetadata beanMetadata, BeanMetadata.Property enclosingProperty, int position) {
+      this.beanMetadata = beanMetadata;
+      this.instance = beanMetadata.newInstance();
+      this.enclosingProperty = enclosingProperty;
+      this.position = position;
+    }
+
+    BeanMetadata.Property nextProperty() {
+      var properties = beanMetadata.readableProperties();
+      if (position >= properties.size()) {
+        throw new IllegalStateException("too many values for bean " + beanMetadata.type().getName());
+      }
+      return properties.get(position++);
+    }
+
+    void populate(Object value, Codecs codecs) {
+      if (position == -1) {
+        var fingerprint = beanMetadata.fingerprint();
+        if (!fingerprint.equals(value)) {
+          throw new IllegalStateException("schema mismatch for bean " + beanMetadata.type().getName()
+              + ", expect fingerprint " + fingerprint + " but was " + value);
+        }
+        position = 0;
+        return;
+      }
+      var property = nextProperty();
+      beanMetadata.populate(instance, property, codecs.decode(property.type(), value));
+    }
+  }
+
+  private final Codecs codecs = new Codecs();
+  private StringCache stringCache;
+
+  // for each class, the properties in the key order of the last decoded object
+  private final ClassValue<BeanMetadata.Property[]> shapeClassValue = new ClassValue<>() {
     @Override
-    protected BeanData computeValue(Class<?> type) {
-      throw new UnsupportedOperationException("TODO");
+    protected BeanMetadata.Property[] computeValue(Class<?> type) {
+      return new BeanMetadata.Property[BeanMetadata.of(type).properties().size()];
     }
   };
+  private final LongAdder speculationHits = new LongAdder();
+  private final LongAdder speculationMisses = new LongAdder();
+  private MapperMetrics metrics;
+
+  /**
+   * Deduplicates the strings of the parsed JSON texts using a bounded cache,
+   * so the decoded objects share the same instance for each repeated string value.
+   *
+   * @param stringCache the cache used to find the canonical strings.
+   */
+  public void useStringCache(StringCache stringCache) {
+    Objects.requireNonNull(stringCache);
+    this.stringCache = stringCache;
+  }
+
+  /**
+   * Records the number, the size and the duration of the decoded documents per class.
+   * The metrics must be set before the first call to a {@code parse} method.
+   *
+   * @param metrics the metrics updated by this reader.
+   */
+  public void useMetrics(MapperMetrics metrics) {
+    Objects.requireNonNull(metrics);
+    this.metrics = metrics;
+  }
+
+  /**
+   * Registers a codec used to decode the values of the properties typed by the class {@code type}.
+   * The codecs must be registered before the first call to a {@code parse} method.
+   *
+   * @param type the class of the values
+   * @param codec the codec
+   * @param <T> the type of the values
+   * @throws IllegalStateException if a codec is already registered for the class
+   */
+  public <T> void registerCodec(Class<T> type, Codec<? extends T> codec) {
+    codecs.register(type, codec);
+  }
+
+  // an array or a list being decoded
+  private record ArrayContext(ArrayBuilder arrayBuilder, BeanMetadata.Property enclosingProperty) {}
+
+  private final class BeanVisitor implements ToyJSONParser.JSONVisitor {
+    private final Class<?> beanClass;
+    private final Consumer<Object> consumer;  // null if only one object is decoded
+    private final ArrayDeque<Object> stack = new ArrayDeque<>();  // a Context or an ArrayContext
+    private Object result;
+
+    private BeanVisitor(Class<?> beanClass, Consumer<Object> consumer) {
+      this.beanClass = beanClass;
+      this.consumer = consumer;
+    }
+
+    private Context current() {
+      var context = (Context) stack.peek();
+      if (context.instance == null) {
+        throw new IllegalStateException("the discriminator " + BeanMetadata.DISCRIMINATOR + " must be the first key of a sealed type " + context.beanMetadata.type().getName());
+      }
+      return context;
+    }
+
+    private void push(BeanMetadata beanMetadata, Object instance, BeanMetadata.Property enclosingProperty) {
+      stack.push(new Context(beanMetadata, instance, enclosingProperty, shapeClassValue.get(beanMetadata.type())));
+    }
 
-  public Object parseJSON(String text, Class<?> beanClass) {
+    @Override
+    public void value(String key, Object value) {
+      if (stack.peek() instanceof ArrayContext arrayContext) {
+        arrayContext.arrayBuilder.add(value);
+        return;
+      }
+      var context = (Context) stack.peek();
+      if (context.instance == null && BeanMetadata.DISCRIMINATOR.equals(key) && value instanceof String name) {
+        // replace the sealed type by the variant
+        var beanMetadata = context.beanMetadata.findVariant(name);
+        stack.pop();
+        push(beanMetadata, beanMetadata.newInstance(), context.enclosingProperty);
+        return;
+      }
+      context = current();
+      var beanMetadata = context.beanMetadata;
+      if (key.equals(BeanMetadata.DISCRIMINATOR) && beanMetadata.variantName() != null) {
+        if (!beanMetadata.variantName().equals(value)) {
+          throw new IllegalStateException("expect variant " + beanMetadata.variantName() + " but was " + value);
+        }
+        return;
+      }
+      // call the corresponding setter on the current instance
+      var property = findProperty(context, key);
+      beanMetadata.populate(context.instance, property, codecs.decode(property.type(), value));
+    }
+
+    @Override
+    public void intValue(String key, int value) {
+      if (stack.peek() instanceof ArrayContext arrayContext) {
+        arrayContext.arrayBuilder.addInt(value);
+        return;
+      }
+      value(key, (Integer) value);
+    }
+
+    @Override
+    public void longValue(String key, long value) {
+      if (stack.peek() instanceof ArrayContext arrayContext) {
+        arrayContext.arrayBuilder.addLong(value);
+        return;
+      }
+      value(key, (Long) value);
+    }
+
+    @Override
+    public void doubleValue(String key, double value) {
+      if (stack.peek() instanceof ArrayContext arrayContext) {
+        arrayContext.arrayBuilder.addDouble(value);
+        return;
+      }
+      value(key, (Double) value);
+    }
+
+    // the property of the enclosing object or null if the value is the root or inside an array
+    private BeanMetadata.Property enclosingProperty(String key) {
+      return stack.peek() instanceof Context ? findProperty(current(), key) : null;
+    }
+
+    // the type of the value from the enclosing property or the enclosing array
+    private Type enclosingType(BeanMetadata.Property property) {
+      if (property != null) {
+        return property.type();
+      }
+      if (stack.peek() instanceof ArrayContext arrayContext) {
+        return arrayContext.arrayBuilder.elementType();
+      }
+      return beanClass;
+    }
+
+    // send the decoded value to the enclosing object, the enclosing array or to the consumer
+    private void complete(Object value, BeanMetadata.Property enclosingProperty) {
+      switch (stack.peek()) {
+        case null -> {
+          if (consumer == null) {
+            result = value;
+          } else {
+            consumer.accept(value);
+          }
+        }
+        case ArrayContext arrayContext -> arrayContext.arrayBuilder.addElement(value);
+        case Context parent -> parent.beanMetadata.populate(parent.instance, enclosingProperty, value);
+        default -> throw new AssertionError();
+      }
+    }
+
+    @Override
+    public void startObject(String key) {
+      var property = enclosingProperty(key);
+      var type = Utils.erase(enclosingType(property));
+      var beanMetadata = BeanMetadata.of(type);
+      if (type.isSealed()) {
+        push(beanMetadata, null, property);
+        return;
+      }
+      push(beanMetadata, beanMetadata.newInstance(), property);
+    }
+
+    @Override
+    public void endObject(String key) {
+      var context = (Context) stack.pop();
+      complete(context.finish(), context.enclosingProperty);
+    }
+
+    @Override
+    public void startArray(String key) {
+      var property = enclosingProperty(key);
+      var type = enclosingType(property);
+      var arrayBuilder = ArrayBuilder.of(type, codecs);
+      if (arrayBuilder == null) {
+        throw new IllegalStateException("can not decode an array as a " + type.getTypeName());
+      }
+      stack.push(new ArrayContext(arrayBuilder, property));
+    }
+
+    @Override
+    public void endArray(String key) {
+      var arrayContext = (ArrayContext) stack.pop();
+      complete(arrayContext.arrayBuilder.finish(), arrayContext.enclosingProperty);
+    }
+  }
+
+  /**
+   * Finds the property of a key, first by checking if the key is the one at the same position
+   * in the last object of the same class (the shape), then using a hash lookup.
+   */
+  private BeanMetadata.Property findProperty(Context context, String key) {
+    var shape = context.shape;
+    var position = context.position++;
+    if (position >= shape.length) {  // more keys than properties, a key is duplicated
+      return context.beanMetadata.findProperty(key);
+    }
+    var predicted = shape[position];
+    if (predicted != null && predicted.name().equals(key)) {
+      speculationHits.increment();
+      return predicted;
+    }
+    speculationMisses.increment();
+    var property = context.beanMetadata.findProperty(key);
+    shape[position] = property;  // racy but the properties are immutable
+    return property;
+  }
+
+  /**
+   * Returns the number of keys found using the key order of the previous object of the same class.
+   * @return the number of keys found using the key order of the previous object of the same class.
+   *
+   * @see #speculationHitRate()
+   */
+  public long speculationHits() {
+    return speculationHits.sum();
+  }
+
+  /**
+   * Returns the number of keys that were not at the same position as in the previous object of the same class.
+   * @return the number of keys that were not at the same position as in the previous object of the same class.
+   *
+   * @see #speculationHitRate()
+   */
+  public long speculationMisses() {
+    return speculationMisses.sum();
+  }
+
+  /**
+   * Returns the ratio of keys found using the key order of the previous object of the same class,
+   * {@code 0} if no key has been decoded.
+   * @return the ratio of keys found using the key order of the previous object of the same class.
+   */
+  public double speculationHitRate() {
+    var hits = speculationHits.sum();
+    var total = hits + speculationMisses.sum();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  public <T> T parseJSON(String text, Class<T> beanClass) {
     Objects.requireNonNull(text);
     Objects.requireNonNull(beanClass);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var visitor = new BeanVisitor(beanClass, null);
+    ToyJSONParser.parse(text, visitor, stringCache);
+    if (metrics != null) {
+      metrics.recordDecode(beanClass, JSONEncoding.utf8Length(text), System.nanoTime() - start);
+    }
+    return beanClass.cast(visitor.result);
+  }
+
+  /**
+   * Decodes a JSON text encoded in UTF-8 stored in a memory segment,
+   * by example a file mapped with {@link java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long, java.lang.foreign.Arena)}.
+   *
+   * @param segment a memory segment containing a JSON text encoded in UTF-8
+   * @param beanClass the class of the decoded object
+   * @return the decoded object
+   * @param <T> the type of the decoded object
+   */
+  public <T> T parseSegment(MemorySegment segment, Class<T> beanClass) {
+    Objects.requireNonNull(segment);
+    Objects.requireNonNull(beanClass);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var visitor = new BeanVisitor(beanClass, null);
+    ToyJSONParser.parse(segment, visitor, stringCache);
+    if (metrics != null) {
+      metrics.recordDecode(beanClass, segment.byteSize(), System.nanoTime() - start);
+    }
+    return beanClass.cast(visitor.result);
+  }
+
+  /**
+   * Decodes a sequence of JSON objects separated by newlines (newline delimited JSON) encoded in UTF-8
+   * stored in a memory segment, each decoded object is sent to the consumer before the next one is parsed,
+   * so only one decoded object is alive at a time.
+   *
+   * @param segment a memory segment containing JSON texts encoded in UTF-8
+   * @param beanClass the class of the decoded objects
+   * @param consumer the consumer called for each decoded object
+   * @param <T> the type of the decoded objects
+   */
+  public <T> void parseNDJSON(MemorySegment segment, Class<T> beanClass, Consumer<? super T> consumer) {
+    Objects.requireNonNull(segment);
+    Objects.requireNonNull(beanClass);
+    Objects.requireNonNull(consumer);
+    var metrics = this.metrics;
+    if (metrics == null) {
+      ToyJSONParser.parseAll(segment, new BeanVisitor(beanClass, result -> consumer.accept(beanClass.cast(result))), stringCache);
+      return;
+    }
+    var recorder = new DocumentRecorder<>(metrics, beanClass, consumer);
+    ToyJSONParser.parseAll(segment, new BeanVisitor(beanClass, recorder), stringCache, recorder);
+  }
+
+  /**
+   * Records each document of a newline delimited JSON, its size is the number of bytes
+   * since the end of the previous document, the time spent in the consumer is not recorded.
+   */
+  private static final class DocumentRecorder<T> implements Consumer<Object>, LongConsumer {
+    private final MapperMetrics metrics;
+    private final Class<T> beanClass;
+    private final Consumer<? super T> consumer;
+    private long start = System.nanoTime();  // when the parsing of the current document started
+    private long nanos;  // the time spent decoding the current document
+    private long offset;  // the offset of the end of the previous document
+
+    private DocumentRecorder(MapperMetrics metrics, Class<T> beanClass, Consumer<? super T> consumer) {
+      this.metrics = metrics;
+      this.beanClass = beanClass;
+      this.consumer = consumer;
+    }
+
+    @Override
+    public void accept(Object result) {
+      nanos = System.nanoTime() - start;
+      consumer.accept(beanClass.cast(result));
+    }
+
+    @Override
+    public void accept(long end) {
+      metrics.recordDecode(beanClass, end - offset, nanos);
+      offset = end;
+      start = System.nanoTime();
+    }
+  }
+
+  /**
+   * Decodes a positional JSON array written by {@link JSONWriter#toOrdinalJSON(Object)},
+   * the first element must be the fingerprint of the schema of {@code beanClass}
+   * otherwise the text was written using another version of the class and is rejected.
+   * A nested array is decoded as an array or a list if the property is one, as a nested bean otherwise.
+   *
+   * @param text a positional JSON array
+   * @param beanClass the class of the decoded object
+   * @return the decoded object
+   * @param <T> the type of the decoded object
+   * @throws IllegalStateException if the text is not valid or the fingerprints do not match
+   */
+  public <T> T parseOrdinalJSON(String text, Class<T> beanClass) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(beanClass);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
     var visitor = new ToyJSONParser.JSONVisitor() {
-      private BeanData beanData;
+      private final ArrayDeque<Object> stack = new ArrayDeque<>();  // an OrdinalContext or an ArrayContext
       private Object result;
 
       @Override
       public void value(String key, Object value) {
-        // call the corresponding setter on result
-        throw new UnsupportedOperationException("TODO");
+        switch (stack.peek()) {
+          case ArrayContext arrayContext -> arrayContext.arrayBuilder.add(value);
+          case OrdinalContext context -> context.populate(value, codecs);
+          default -> throw new AssertionError();
+        }
+      }
+
+      @Override
+      public void intValue(String key, int value) {
+        if (stack.peek() instanceof ArrayContext arrayContext) {
+          arrayContext.arrayBuilder.addInt(value);
+          return;
+        }
+        value(key, (Integer) value);
+      }
+
+      @Override
+      public void longValue(String key, long value) {
+        if (stack.peek() instanceof ArrayContext arrayContext) {
+          arrayContext.arrayBuilder.addLong(value);
+          return;
+        }
+        value(key, (Long) value);
+      }
+
+      @Override
+      public void doubleValue(String key, double value) {
+        if (stack.peek() instanceof ArrayContext arrayContext) {
+          arrayContext.arrayBuilder.addDouble(value);
+          return;
+        }
+        value(key, (Double) value);
       }
 
       @Override
       public void startObject(String key) {
-        //get the beanData and store it in the field
-        //create an instance and store it in result
-        throw new UnsupportedOperationException("TODO");
+        throw new IllegalStateException("an object is not allowed in a positional text");
       }
 
       @Override
       public void endObject(String key) {
-        // do nothing
+        throw new AssertionError();
       }
 
       @Override
       public void startArray(String key) {
-        throw new UnsupportedOperationException("Implemented later");
+        if (stack.isEmpty()) {
+          stack.push(new OrdinalContext(BeanMetadata.of(beanClass), null, -1));
+          return;
+        }
+        // a nested array is either an array, a list or a nested bean
+        var property = stack.peek() instanceof OrdinalContext context ? context.nextProperty() : null;
+        var type = property != null ? property.type() : ((ArrayContext) stack.peek()).arrayBuilder.elementType();
+        var arrayBuilder = ArrayBuilder.of(type, codecs);
+        if (arrayBuilder != null) {
+          stack.push(new ArrayContext(arrayBuilder, property));
+          return;
+        }
+        stack.push(new OrdinalContext(BeanMetadata.of(Utils.erase(type)), property, 0));
       }
 
       @Override
       public void endArray(String key) {
-        throw new UnsupportedOperationException("Implemented later");
+        Object value;
+        BeanMetadata.Property enclosingProperty;
+        switch (stack.pop()) {
+          case ArrayContext arrayContext -> {
+            value = arrayContext.arrayBuilder.finish();
+            enclosingProperty = arrayContext.enclosingProperty;
+          }
+          case OrdinalContext context -> {
+            value = context.beanMetadata.finish(context.instance);
+            enclosingProperty = context.enclosingProperty;
+          }
+          default -> throw new AssertionError();
+        }
+        switch (stack.peek()) {
+          case null -> result = value;
+          case ArrayContext arrayContext -> arrayContext.arrayBuilder.addElement(value);
+          case OrdinalContext parent -> parent.beanMetadata.populate(parent.instance, enclosingProperty, value);
+          default -> throw new AssertionError();
+        }
       }
     };
-    ToyJSONParser.parse(text, visitor);
-    return visitor.result;
+    ToyJSONParser.parse(text, visitor, stringCache);
+    if (metrics != null) {
+      metrics.recordDecode(beanClass, JSONEncoding.utf8Length(text), System.nanoTime() - start);
+    }
+    return beanClass.cast(visitor.result);
+  }
+
+  /**
+   * Applies a JSON merge patch (RFC 7386) written by {@link JSONWriter#writeDiff(Object, Object)}
+   * to a bean or a record, the properties not present in the patch keep their values,
+   * a {@code null} resets the property (a primitive property can not be reset), a nested object patches the nested bean
+   * and an array replaces the whole array or list.
+   * The target is not modified, a new bean or a new record is created.
+   *
+   * @param target the bean or the record to patch
+   * @param patch a JSON merge patch
+   * @return a new bean or a new record with the patch applied
+   * @param <T> the type of the target
+   * @throws IllegalStateException if the patch is not valid, contains an unknown key or a {@code null} for a primitive property
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T applyPatch(T target, String patch) {
+    Objects.requireNonNull(target);
+    Objects.requireNonNull(patch);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var visitor = new PatchVisitor();
+    ToyJSONParser.parse(patch, visitor, stringCache);
+    var result = (T) merge(target.getClass(), target, visitor.result);
+    if (metrics != null) {
+      metrics.recordDecode(target.getClass(), JSONEncoding.utf8Length(patch), System.nanoTime() - start);
+    }
+    return result;
+  }
+
+  /**
+   * Creates a new instance with the values of the target (if not null) overridden by the values of the patch.
+   */
+  private Object merge(Class<?> type, Object target, Map<String, Object> patch) {
+    var beanMetadata = BeanMetadata.of(target == null ? type : target.getClass());
+    if (patch.get(BeanMetadata.DISCRIMINATOR) instanceof String name
+        && !name.equals(beanMetadata.variantName())) {
+      // another variant, the target is replaced
+      beanMetadata = BeanMetadata.of(type).findVariant(name);
+      target = null;
+    } else if (beanMetadata.type().isSealed()) {
+      throw new IllegalStateException("no discriminator " + BeanMetadata.DISCRIMINATOR + " for sealed type " + beanMetadata.type().getName());
+    }
+    for (var key : patch.keySet()) {
+      if (!key.equals(BeanMetadata.DISCRIMINATOR)) {
+        beanMetadata.findProperty(key);  // reject unknown keys
+      }
+    }
+    var instance = beanMetadata.newInstance();
+    for (var property : beanMetadata.properties()) {
+      var name = property.name();
+      Object value;
+      if (patch.containsKey(name)) {
+        value = patch.get(name);
+        if (value instanceof Map<?, ?> map) {
+          @SuppressWarnings("unchecked")
+          var nestedPatch = (Map<String, Object>) map;
+          var nestedTarget = target == null || property.getter() == null ? null : Utils.invokeMethod(target, property.getter());
+          value = merge(Utils.erase(property.type()), nestedTarget, nestedPatch);
+        } else if (value instanceof List<?> elements) {
+          value = decodeArray(property.type(), elements);  // an array is replaced, not merged
+        } else if (value == null && property.type() instanceof Class<?> clazz && clazz.isPrimitive()) {
+          throw new IllegalStateException("can not remove primitive property " + name);
+        } else {
+          value = codecs.decode(property.type(), value);
+        }
+      } else if (target != null && property.getter() != null
+          && (beanMetadata.type().isRecord() || property.setter() != null)) {
+        value = Utils.invokeMethod(target, property.getter());
+      } else {
+        continue;
+      }
+      beanMetadata.populate(instance, property, value);
+    }
+    return beanMetadata.finish(instance);
+  }
+
+  /**
+   * Decodes the elements of an array of a patch, like the array of a JSON text.
+   */
+  private Object decodeArray(Type type, List<?> elements) {
+    var arrayBuilder = ArrayBuilder.of(type, codecs);
+    if (arrayBuilder == null) {
+      throw new IllegalStateException("can not decode an array as a " + type.getTypeName());
+    }
+    var elementType = arrayBuilder.elementType();
+    for (var element : elements) {
+      switch (element) {
+        case Integer value -> arrayBuilder.addInt(value);
+        case Long value -> arrayBuilder.addLong(value);
+        case Double value -> arrayBuilder.addDouble(value);
+        case Map<?, ?> map -> {
+          @SuppressWarnings("unchecked")
+          var nestedPatch = (Map<String, Object>) map;
+          arrayBuilder.addElement(merge(Utils.erase(elementType), null, nestedPatch));
+        }
+        case List<?> list -> arrayBuilder.addElement(decodeArray(elementType, list));
+        case null, default -> arrayBuilder.add(element);
+      }
+    }
+    return arrayBuilder.finish();
+  }
+
+  /**
+   * Builds the tree of a JSON merge patch, objects are represented as maps and arrays as lists.
+   */
+  private static final class PatchVisitor implements ToyJSONParser.JSONVisitor {
+    private final ArrayDeque<Object> stack = new ArrayDeque<>();  // a LinkedHashMap or an ArrayList
+    private LinkedHashMap<String, Object> result;
+
+    @SuppressWarnings("unchecked")
+    private void add(String key, Object value) {
+      switch (stack.peek()) {
+        case LinkedHashMap<?, ?> map -> ((LinkedHashMap<String, Object>) map).put(key, value);
+        case ArrayList<?> list -> ((ArrayList<Object>) list).add(value);
+        case null, default -> throw new IllegalStateException("a JSON merge patch must be an object");
+      }
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      add(key, value);
+    }
+
+    @Override
+    public void startObject(String key) {
+      var map = new LinkedHashMap<String, Object>();
+      if (stack.isEmpty()) {
+        result = map;
+      } else {
+        add(key, map);
+      }
+      stack.push(map);
+    }
+
+    @Override
+    public void endObject(String key) {
+      stack.pop();
+    }
+
+    @Override
+    public void startArray(String key) {
+      var list = new ArrayList<>();
+      add(key, list);
+      stack.push(list);
+    }
+
+    @Override
+    public void endArray(String key) {
+      stack.pop();
+    }
+  }
+
+  /**
+   * A growable column, a primitive array or an array of strings.
+   */
+  private static final class ColumnBuilder {
+    private final String name;
+    private Object array;
+
+    private ColumnBuilder(String name, Object array) {
+      this.name = name;
+      this.array = array;
+    }
+
+    // returns an empty array of the column type or null if the type is not supported
+    private static Object newColumn(Type type, int capacity) {
+      return switch (Utils.erase(type).getName()) {
+        case "int", "java.lang.Integer" -> new int[capacity];
+        case "long", "java.lang.Long" -> new long[capacity];
+        case "double", "float", "java.lang.Double", "java.lang.Float" -> new double[capacity];
+        case "boolean", "java.lang.Boolean" -> new boolean[capacity];
+        case "java.lang.String" -> new String[capacity];
+        default -> null;
+      };
+    }
+
+    void resize(int length) {
+      array = switch (array) {
+        case int[] ints -> Arrays.copyOf(ints, length);
+        case long[] longs -> Arrays.copyOf(longs, length);
+        case double[] doubles -> Arrays.copyOf(doubles, length);
+        case boolean[] booleans -> Arrays.copyOf(booleans, length);
+        case String[] strings -> Arrays.copyOf(strings, length);
+        default -> throw new AssertionError();
+      };
+    }
+
+    void set(int row, Object value) {
+      if (value == null) {
+        return;  // keep the default value
+      }
+      switch (array) {
+        case int[] ints when value instanceof Integer i -> ints[row] = i;
+        case long[] longs when value instanceof Integer || value instanceof Long -> longs[row] = ((Number) value).longValue();
+        case double[] doubles when value instanceof Number number -> doubles[row] = number.doubleValue();
+        case boolean[] booleans when value instanceof Boolean b -> booleans[row] = b;
+        case String[] strings when value instanceof String string -> strings[row] = string;
+        default -> throw invalid(value);
+      }
+    }
+
+    void setInt(int row, int value) {
+      switch (array) {
+        case int[] ints -> ints[row] = value;
+        case long[] longs -> longs[row] = value;
+        case double[] doubles -> doubles[row] = value;
+        default -> throw invalid(value);
+      }
+    }
+
+    void setLong(int row, long value) {
+      switch (array) {
+        case long[] longs -> longs[row] = value;
+        case double[] doubles -> doubles[row] = value;
+        default -> throw invalid(value);
+      }
+    }
+
+    void setDouble(int row, double value) {
+      if (!(array instanceof double[] doubles)) {
+        throw invalid(value);
+      }
+      doubles[row] = value;
+    }
+
+    private IllegalStateException invalid(Object value) {
+      return new IllegalStateException("invalid value " + value + " for column " + name + " of type " + array.getClass().getComponentType().getName());
+    }
+  }
+
+  private static final class ColumnVisitor implements ToyJSONParser.JSONVisitor {
+    private final BeanMetadata beanMetadata;
+    private final LinkedHashMap<String, ColumnBuilder> columnMap;
+    private int depth;  // 1 inside the array, 2 inside a row, more inside a value of a row
+    private int rowCount;
+    private int capacity;
+
+    private ColumnVisitor(BeanMetadata beanMetadata, LinkedHashMap<String, ColumnBuilder> columnMap, int capacity) {
+      this.beanMetadata = beanMetadata;
+      this.columnMap = columnMap;
+      this.capacity = capacity;
+    }
+
+    private void checkRowKey(String key) {
+      if (columnMap.containsKey(key)) {
+        throw new IllegalStateException("expect a value for column " + key);
+      }
+      beanMetadata.findProperty(key);  // reject unknown keys
+    }
+
+    // the column of a value of a row or null if the value is not stored in a column
+    private ColumnBuilder column(String key) {
+      if (depth != 2) {  // inside a property that is not a column
+        return null;
+      }
+      var column = columnMap.get(key);
+      if (column == null) {
+        beanMetadata.findProperty(key);  // reject unknown keys
+      }
+      return column;
+    }
+
+    @Override
+    public void value(String key, Object value) {
+      if (depth == 1) {
+        throw new IllegalStateException("expect an object but was " + value);
+      }
+      var column = column(key);
+      if (column != null) {
+        column.set(rowCount - 1, value);
+      }
+    }
+
+    // the numbers are stored in the columns without being boxed
+
+    @Override
+    public void intValue(String key, int value) {
+      if (depth == 1) {
+        throw new IllegalStateException("expect an object but was " + value);
+      }
+      var column = column(key);
+      if (column != null) {
+        column.setInt(rowCount - 1, value);
+      }
+    }
+
+    @Override
+    public void longValue(String key, long value) {
+      if (depth == 1) {
+        throw new IllegalStateException("expect an object but was " + value);
+      }
+      var column = column(key);
+      if (column != null) {
+        column.setLong(rowCount - 1, value);
+      }
+    }
+
+    @Override
+    public void doubleValue(String key, double value) {
+      if (depth == 1) {
+        throw new IllegalStateException("expect an object but was " + value);
+      }
+      var column = column(key);
+      if (column != null) {
+        column.setDouble(rowCount - 1, value);
+      }
+    }
+
+    @Override
+    public void startObject(String key) {
+      switch (depth) {
+        case 0 -> throw new IllegalStateException("expect an array of objects");
+        case 1 -> {
+          if (rowCount == capacity) {
+            capacity = capacity << 1;
+            for (var column : columnMap.values()) {
+              column.resize(capacity);
+            }
+          }
+          rowCount++;
+        }
+        case 2 -> checkRowKey(key);
+        default -> {}
+      }
+      depth++;
+    }
+
+    @Override
+    public void endObject(String key) {
+      depth--;
+    }
+
+    @Override
+    public void startArray(String key) {
+      switch (depth) {
+        case 0 -> {}
+        case 1 -> throw new IllegalStateException("expect an object but was an array");
+        case 2 -> checkRowKey(key);
+        default -> {}
+      }
+      depth++;
+    }
+
+    @Override
+    public void endArray(String key) {
+      depth--;
+    }
+  }
+
+  /**
+   * Decodes a JSON array of objects as columns (a struct of arrays) instead of a list of objects,
+   * the values of each selected property are stored in a primitive array or an array of strings
+   * so no object is allocated per row. The properties that are not selected are skipped.
+   *
+   * The supported property types are {@code int}, {@code long}, {@code double}, {@code float},
+   * {@code boolean}, their wrappers and {@link String}.
+   *
+   * @param text a JSON array of objects
+   * @param beanClass the class describing the properties of the objects
+   * @param names the names of the selected properties, all the properties with a supported type if empty
+   * @return the decoded columns
+   * @throws IllegalArgumentException if a name is not a property or the type of a property is not supported
+   * @throws IllegalStateException if the text is not a JSON array of objects or contains an unknown key
+   */
+  public Columns parseColumns(String text, Class<?> beanClass, String... names) {
+    Objects.requireNonNull(text);
+    Objects.requireNonNull(beanClass);
+    Objects.requireNonNull(names);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var capacity = 16;
+    var beanMetadata = BeanMetadata.of(beanClass);
+    var columnMap = new LinkedHashMap<String, ColumnBuilder>();
+    if (names.length == 0) {
+      for (var property : beanMetadata.properties()) {
+        var array = ColumnBuilder.newColumn(property.type(), capacity);
+        if (array != null) {
+          columnMap.put(property.name(), new ColumnBuilder(property.name(), array));
+        }
+      }
+    }
+    for (var name : names) {
+      var property = beanMetadata.properties().stream()
+          .filter(p -> p.name().equals(name))
+          .findFirst()
+          .orElseThrow(() -> new IllegalArgumentException("unknown property " + name + " for bean " + beanClass.getName()));
+      var array = ColumnBuilder.newColumn(property.type(), capacity);
+      if (array == null) {
+        throw new IllegalArgumentException("property " + name + " of type " + property.type().getTypeName() + " can not be decoded as a column");
+      }
+      if (columnMap.put(name, new ColumnBuilder(name, array)) != null) {
+        throw new IllegalArgumentException("property " + name + " is selected twice");
+      }
+    }
+    var visitor = new ColumnVisitor(beanMetadata, columnMap, capacity);
+    ToyJSONParser.parse(text, visitor, stringCache);
+    var rowCount = visitor.rowCount;
+    var columns = new LinkedHashMap<String, Object>();
+    for (var column : columnMap.values()) {
+      column.resize(rowCount);
+      columns.put(column.name, column.array);
+    }
+    if (metrics != null) {
+      metrics.recordDecode(beanClass, JSONEncoding.utf8Length(text), System.nanoTime() - start);
+    }
+    return new Columns(rowCount, columns);
   }
 }
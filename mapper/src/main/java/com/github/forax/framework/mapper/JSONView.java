@@ -0,0 +1,19 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.RECORD_COMPONENT;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Names the views a property belongs to, a property without this annotation belongs to all the views.
+ *
+ * @see JSONWriter.View#named(String)
+ */
+@Retention(RUNTIME)
+@Target({METHOD, RECORD_COMPONENT})
+public @interface JSONView {
+  String[] value();
+}
@@ -1,62 +1,873 @@
 package com.github.forax.framework.mapper;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public final class JSONWriter {
 
   private record BiduleGenerator(String prefix, Method getter) implements Generator {
     @Override
-    public String generate(JSONWriter writer, Object bean) {
-      return prefix + writer.toJSON(Utils.invokeMethod(bean, getter));
+    public boolean generate(JSONWriter writer, Object bean, StringBuilder builder) {
+      builder.append(prefix);
+      writer.append(Utils.invokeMethod(bean, getter), builder, View.ALL);
+      return true;
     }
   }
 
   private static final ClassValue<List<Generator>> BEAN_INFO_CLASS_VALUE = new ClassValue<>() {
     @Override
     protected List<Generator> computeValue(Class<?> type) {
-      return Arrays.stream(Utils.beanInfo(type).getPropertyDescriptors())
-        .filter(property -> !"class".equals(property.getName()))
-        .<Generator>map(property -> {
-          var getter = property.getReadMethod();
-          var annotation = getter.getAnnotation(JSONProperty.class);
-          var name = annotation == null ? property.getName() : annotation.value();
-          var prefix = '"' + name + "\": ";
-          return (writer, bean) -> prefix + writer.toJSON(Utils.invokeMethod(bean, getter));
-          // return new BiduleGenerator(prefix, getter);
-        })
+      return generators(type, View.ALL);
+    }
+  };
+
+  private static List<Generator> generators(Class<?> type, View view) {
+    var beanMetadata = BeanMetadata.of(type);
+    var generators = beanMetadata.readableProperties().stream()
+      .filter(property -> view.filter.test(type, property))
+      .<Generator>map(property -> {
+        var getter = property.getter();
+        var prefix = '"' + property.name() + "\": ";
+        if (view.omitNulls) {
+          return (writer, bean, builder) -> {
+            var value = Utils.invokeMethod(bean, getter);
+            if (value == null) {
+              return false;
+            }
+            builder.append(prefix);
+            writer.append(value, builder, view);
+            return true;
+          };
+        }
+        return (writer, bean, builder) -> {
+          builder.append(prefix);
+          writer.append(Utils.invokeMethod(bean, getter), builder, view);
+          return true;
+        };
+        // return new BiduleGenerator(prefix, getter);
+      });
+    var variantName = beanMetadata.variantName();
+    if (variantName == null) {
+      return generators.toList();
+    }
+    // a variant of a sealed type starts with the discriminator
+    var discriminator = '"' + BeanMetadata.DISCRIMINATOR + "\": \"" + variantName + '"';
+    return Stream.concat(Stream.<Generator>of((writer, bean, builder) -> {
+          builder.append(discriminator);
+          return true;
+        }), generators)
         .toList();
+  }
+
+  /**
+   * A view selects the properties written by {@link #toJSON(Object, View)}, by example
+   * to expose a different subset of the same bean to different endpoints.
+   * The properties selected by a view are computed once per class and cached.
+   *
+   * A view is immutable and thread-safe, it should be stored in a constant
+   * and not created for each call to {@link #toJSON(Object, View)}.
+   */
+  public static final class View {
+    private static final View ALL = new View("all", (type, property) -> true, false);
+
+    private final String description;
+    private final BiPredicate<Class<?>, BeanMetadata.Property> filter;
+    private final boolean omitNulls;
+    private final ClassValue<List<Generator>> generatorsClassValue = new ClassValue<>() {
+      @Override
+      protected List<Generator> computeValue(Class<?> type) {
+        return JSONWriter.generators(type, View.this);
+      }
+    };
+
+    private View(String description, BiPredicate<Class<?>, BeanMetadata.Property> filter, boolean omitNulls) {
+      this.description = description;
+      this.filter = filter;
+      this.omitNulls = omitNulls;
+    }
+
+    private List<Generator> generators(Class<?> type) {
+      return this == ALL ? BEAN_INFO_CLASS_VALUE.get(type) : generatorsClassValue.get(type);
+    }
+
+    /**
+     * Returns a view that contains the properties annotated with {@link JSONView} with that name
+     * and the properties not annotated with {@link JSONView}, in all the classes.
+     *
+     * @param name the name of the view
+     * @return a new view
+     */
+    public static View named(String name) {
+      Objects.requireNonNull(name);
+      return new View("named " + name, (type, property) -> {
+        var annotation = property.getter().getAnnotation(JSONView.class);
+        if (annotation == null && property.setter() != null) {
+          annotation = property.setter().getAnnotation(JSONView.class);
+        }
+        return annotation == null || Arrays.asList(annotation.value()).contains(name);
+      }, false);
+    }
+
+    /**
+     * Returns a view that only contains the properties {@code names} of the class {@code type},
+     * the other classes are not filtered.
+     *
+     * @param type a class
+     * @param names the names of the properties of the class
+     * @return a new view
+     * @throws IllegalArgumentException if a name is not a property of the class
+     */
+    public static View include(Class<?> type, String... names) {
+      var nameSet = propertyNames(type, names);
+      return new View("include " + type.getName() + " " + nameSet, (t, property) -> t != type || nameSet.contains(property.name()), false);
+    }
+
+    /**
+     * Returns a view that contains all the properties of the class {@code type} except the properties {@code names},
+     * the other classes are not filtered.
+     *
+     * @param type a class
+     * @param names the names of the properties of the class
+     * @return a new view
+     * @throws IllegalArgumentException if a name is not a property of the class
+     */
+    public static View exclude(Class<?> type, String... names) {
+      var nameSet = propertyNames(type, names);
+      return new View("exclude " + type.getName() + " " + nameSet, (t, property) -> t != type || !nameSet.contains(property.name()), false);
+    }
+
+    private static Set<String> propertyNames(Class<?> type, String... names) {
+      Objects.requireNonNull(type);
+      var nameSet = Set.of(names);
+      var beanMetadata = BeanMetadata.of(type);
+      for (var name : nameSet) {
+        if (beanMetadata.readableProperties().stream().noneMatch(property -> property.name().equals(name))) {
+          throw new IllegalArgumentException("unknown property " + name + " for bean " + type.getName());
+        }
+      }
+      return nameSet;
+    }
+
+    /**
+     * Returns a view that contains the same properties as this view but
+     * does not write the properties with a {@code null} value.
+     *
+     * @return a new view
+     */
+    public View omitNulls() {
+      return new View(description + " omit nulls", filter, true);
+    }
+
+    @Override
+    public String toString() {
+      return "View(" + description + ")";
+    }
+  }
+
+  // the size in bytes of the braces, the separators, the discriminator and the property names of a bean
+  private record BeanSize(long fixedSize, List<Method> getters) {}
+
+  private static final ClassValue<BeanSize> BEAN_SIZE_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected BeanSize computeValue(Class<?> type) {
+      var beanMetadata = BeanMetadata.of(type);
+      var properties = beanMetadata.readableProperties();
+      var fixedSize = 2L;  // {}
+      var count = properties.size();
+      for (var property : properties) {
+        fixedSize += JSONEncoding.utf8Length('"' + property.name() + "\": ");
+      }
+      var variantName = beanMetadata.variantName();
+      if (variantName != null) {
+        fixedSize += JSONEncoding.utf8Length('"' + BeanMetadata.DISCRIMINATOR + "\": \"" + variantName + '"');
+        count++;
+      }
+      if (count > 1) {
+        fixedSize += 2L * (count - 1);  // ", "
+      }
+      var getters = properties.stream().map(BeanMetadata.Property::getter).toList();
+      return new BeanSize(fixedSize, getters);
+    }
+  };
+
+  private static final ClassValue<List<Method>> ORDINAL_GETTERS_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected List<Method> computeValue(Class<?> type) {
+      return BeanMetadata.of(type).readableProperties().stream()
+          .map(BeanMetadata.Property::getter)
+          .toList();
+    }
+  };
+
+  private record DiffProperty(String prefix, Method getter) {}
+
+  private static final ClassValue<List<DiffProperty>> DIFF_PROPERTIES_CLASS_VALUE = new ClassValue<>() {
+    @Override
+    protected List<DiffProperty> computeValue(Class<?> type) {
+      return BeanMetadata.of(type).readableProperties().stream()
+          .map(property -> new DiffProperty('"' + property.name() + "\": ", property.getter()))
+          .toList();
     }
   };
 
   @FunctionalInterface
   private interface Generator {
-    String generate(JSONWriter writer, Object bean);
+    /**
+     * Appends a property of the bean.
+     * @return false if the property was not written.
+     */
+    boolean generate(JSONWriter writer, Object bean, StringBuilder builder);
+  }
+
+  private final Codecs codecs = new Codecs();
+  // the functions configured by configure(), they only encode so they are not codecs
+  private final HashMap<Class<?>, Function<Object, String>> formatterMap = new HashMap<>();
+  private final ClassValue<Function<Object, String>> formatterClassValue = new ClassValue<>() {
+    @Override
+    protected Function<Object, String> computeValue(Class<?> type) {
+      return formatterMap.get(type);
+    }
+  };
+  private final HashMap<Class<?>, SerializedFormCache> memoizedMap = new HashMap<>();
+  private final ClassValue<SerializedFormCache> memoizedClassValue = new ClassValue<>() {
+    @Override
+    protected SerializedFormCache computeValue(Class<?> type) {
+      return memoizedMap.get(type);
+    }
+  };
+  private MapperMetrics metrics;
+
+  /**
+   * Records the number, the size and the duration of the encoded documents per class.
+   * The metrics must be set before the first call to a {@code toJSON} method.
+   *
+   * @param metrics the metrics updated by this writer.
+   */
+  public void useMetrics(MapperMetrics metrics) {
+    Objects.requireNonNull(metrics);
+    this.metrics = metrics;
+  }
+
+  // used by NDJSONSink, null if the metrics are not enabled
+  MapperMetrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Registers a codec used to encode the values of the class {@code type}
+   * instead of encoding them as beans.
+   * The codecs must be registered before the first call to a {@code toJSON} method.
+   *
+   * @param type the class of the values
+   * @param codec the codec
+   * @param <T> the type of the values
+   * @throws IllegalStateException if a codec is already registered for the class
+   */
+  public <T> void registerCodec(Class<T> type, Codec<? super T> codec) {
+    codecs.register(type, codec);
+  }
+
+  /**
+   * Configures the JSON text used to encode the values of the class {@code type},
+   * the function is used instead of the codec of the class if there is one.
+   * Unlike a {@link Codec}, the function only encodes the values.
+   * The classes must be configured before the first call to a {@code toJSON} method.
+   *
+   * @param type the class of the values
+   * @param function a function that returns the JSON text of a value
+   * @param <T> the type of the values
+   * @throws IllegalStateException if the class is already configured
+   *
+   * @see #registerCodec(Class, Codec)
+   */
+  @SuppressWarnings("unchecked")
+  public <T> void configure(Class<T> type, Function<? super T, String> function) {
+    Objects.requireNonNull(type);
+    Objects.requireNonNull(function);
+    var result = formatterMap.putIfAbsent(type, (Function<Object, String>) function);
+    if (result != null) {
+      throw new IllegalStateException(type.getName() + " is already configured");
+    }
+    formatterClassValue.remove(type);
+  }
+
+  /**
+   * Caches the JSON text of the instances of an immutable record type,
+   * so writing the same instance again appends the cached text instead of encoding the record.
+   * The record type and the types of its components must be deeply immutable.
+   * The record types must be memoized before the first call to a {@code toJSON} method.
+   *
+   * @param recordType the class of the record
+   * @param cache the cache storing the JSON texts, it can be shared by several record types
+   * @throws IllegalArgumentException if {@code recordType} is not a record
+   * @throws IllegalStateException if the record type is already memoized
+   */
+  public void memoize(Class<? extends Record> recordType, SerializedFormCache cache) {
+    Objects.requireNonNull(recordType);
+    Objects.requireNonNull(cache);
+    if (!recordType.isRecord()) {
+      throw new IllegalArgumentException(recordType.getName() + " is not a record");
+    }
+    var result = memoizedMap.putIfAbsent(recordType, cache);
+    if (result != null) {
+      throw new IllegalStateException(recordType.getName() + " is already memoized");
+    }
+    memoizedClassValue.remove(recordType);
   }
 
   public String toJSON(Object o) {
+    return toJSON(o, View.ALL);
+  }
+
+  /**
+   * Encodes an object to JSON, the beans only contain the properties selected by the view.
+   *
+   * @param o the object to encode, can be null
+   * @param view the view selecting the properties
+   * @return a JSON text
+   *
+   * @see View
+   */
+  public String toJSON(Object o, View view) {
+    Objects.requireNonNull(view);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var builder = BufferPool.CHARS.acquire();
+    try {
+      append(o, builder, view);
+      var text = builder.toString();
+      if (metrics != null && o != null) {
+        metrics.recordEncode(o.getClass(), JSONEncoding.utf8Length(text), System.nanoTime() - start);
+      }
+      return text;
+    } finally {
+      builder.setLength(0);
+      BufferPool.CHARS.release(builder);
+    }
+  }
+
+  /**
+   * Returns the exact number of bytes of the JSON text of an object encoded in UTF-8,
+   * the size is computed by walking the object graph without encoding it,
+   * only the values encoded by a codec are encoded in a scratch buffer.
+   * The size can be used to allocate the storage of the text before writing it
+   * with {@link #writeSegment(Object, MemorySegment)}.
+   *
+   * @param o the object, can be null
+   * @return the number of bytes of {@code toJSON(o)} encoded in UTF-8
+   */
+  public long sizeOf(Object o) {
+    var scratch = BufferPool.CHARS.acquire();
+    try {
+      return sizeOf(o, scratch);
+    } finally {
+      scratch.setLength(0);
+      BufferPool.CHARS.release(scratch);
+    }
+  }
+
+  private long sizeOf(Object o, StringBuilder scratch) {
     return switch (o) {
-      case null -> "null";
-      case Boolean b -> "" + b;
-      case Integer i -> "" + i;
-      case Long l -> "" + l;
-      case Float f -> "" + f;
-      case Double d -> "" + d;
-      case String s -> '"' + s + '"';
+      case null -> 4;
+      case Boolean b -> b ? 4 : 5;
+      case Integer i -> JSONEncoding.stringSize(i);
+      case Long l -> JSONEncoding.stringSize(l);
+      case Float f -> Float.toString(f).length();
+      case Double d -> Double.toString(d).length();
+      case String s -> JSONEncoding.quotedLength(s);
       default -> {
-        var generators = BEAN_INFO_CLASS_VALUE.get(o.getClass());
-        yield generators.stream()
-          .map(generator -> generator.generate(this, o))
-          .collect(Collectors.joining(", ", "{", "}"));
+        var formatter = formatterClassValue.get(o.getClass());
+        if (formatter != null) {
+          yield JSONEncoding.utf8Length(formatter.apply(o));
+        }
+        var codec = codecs.codec(o.getClass());
+        if (codec instanceof EnumCodec<?> enumCodec) {
+          yield quotedSize(enumCodec, (Enum<?>) o);
+        }
+        if (codec != null) {
+          scratch.setLength(0);
+          codec.encode(o, scratch);
+          yield JSONEncoding.utf8Length(scratch);
+        }
+        if (isArray(o)) {
+          var size = 2L;  // []
+          var count = 0;
+          for (var element : elements(o)) {
+            size += sizeOf(element, scratch);
+            count++;
+          }
+          if (count > 1) {
+            size += 2L * (count - 1);  // ", "
+          }
+          yield size;
+        }
+        var beanSize = BEAN_SIZE_CLASS_VALUE.get(o.getClass());
+        var size = beanSize.fixedSize;
+        for (var getter : beanSize.getters) {
+          size += sizeOf(Utils.invokeMethod(o, getter), scratch);
+        }
+        yield size;
       }
     };
   }
 
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int quotedSize(EnumCodec enumCodec, Enum<?> constant) {
+    return enumCodec.quotedBytes(constant).length;
+  }
+
+  /**
+   * Writes the JSON text of an object encoded in UTF-8 at the start of a memory segment,
+   * by example a region of a memory mapped file presized using {@link #sizeOf(Object)}.
+   *
+   * @param o the object, can be null
+   * @param segment the memory segment
+   * @return the number of bytes written
+   * @throws IndexOutOfBoundsException if the segment is too small
+   */
+  public long writeSegment(Object o, MemorySegment segment) {
+    Objects.requireNonNull(segment);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var builder = BufferPool.CHARS.acquire();
+    try {
+      append(o, builder, View.ALL);
+      var size = JSONEncoding.encodeUTF8(builder, segment, 0);
+      if (metrics != null && o != null) {
+        metrics.recordEncode(o.getClass(), size, System.nanoTime() - start);
+      }
+      return size;
+    } finally {
+      builder.setLength(0);
+      BufferPool.CHARS.release(builder);
+    }
+  }
+
+  // the number of elements below which a list is encoded by the calling thread
+  static final int MIN_CHUNK_SIZE = 1_024;
+
+  /**
+   * Encodes the elements of a list in UTF-8 as a JSON array.
+   *
+   * The list is split into chunks encoded in parallel by the fork/join workers,
+   * each chunk into a private buffer, the chunks are then concatenated in the order of the list.
+   * The result is the same as encoding the elements one by one with {@link #toJSON(Object)}
+   * separated by {@code ", "} inside brackets. An array can be encoded using {@link Arrays#asList(Object[])}.
+   *
+   * The list must support a fast random access and must not be modified during the encoding.
+   *
+   * @param list the list, the elements can be null
+   * @return the JSON array encoded in UTF-8
+   * @throws IllegalStateException if the JSON array is larger than the maximum size of an array
+   */
+  public byte[] toJSONBytes(List<?> list) {
+    Objects.requireNonNull(list);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var chunks = encodeChunks(list, MIN_CHUNK_SIZE);
+    var size = jsonArraySize(chunks);
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("JSON array too large " + size);
+    }
+    var bytes = new byte[(int) size];
+    bytes[0] = '[';
+    var offset = 1;
+    for (var i = 0; i < chunks.length; i++) {
+      if (i != 0) {
+        bytes[offset++] = ',';
+        bytes[offset++] = ' ';
+      }
+      var chunk = chunks[i];
+      System.arraycopy(chunk, 0, bytes, offset, chunk.length);
+      offset += chunk.length;
+    }
+    bytes[offset] = ']';
+    if (metrics != null) {
+      metrics.recordEncode(List.class, bytes.length, System.nanoTime() - start);
+    }
+    return bytes;
+  }
+
+  /**
+   * Writes the elements of a list in UTF-8 as a JSON array to a channel.
+   *
+   * The chunks of the list are encoded in parallel like {@link #toJSONBytes(List)},
+   * then written in order by gathering writes without being copied into a single buffer.
+   *
+   * @param list the list, the elements can be null
+   * @param channel the channel in blocking mode, not closed by this method
+   * @return the number of bytes written
+   * @throws UncheckedIOException if an I/O error occurs
+   */
+  public long writeJSON(List<?> list, GatheringByteChannel channel) {
+    Objects.requireNonNull(list);
+    Objects.requireNonNull(channel);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var chunks = encodeChunks(list, MIN_CHUNK_SIZE);
+    // [ chunk0 , chunk1 ... ]
+    var buffers = new ByteBuffer[2 * chunks.length + 1];
+    buffers[0] = ByteBuffer.wrap(chunks.length == 0 ? new byte[] { '[', ']' } : new byte[] { '[' });
+    for (var i = 0; i < chunks.length; i++) {
+      buffers[2 * i + 1] = ByteBuffer.wrap(chunks[i]);
+      buffers[2 * i + 2] = ByteBuffer.wrap(i == chunks.length - 1 ? new byte[] { ']' } : new byte[] { ',', ' ' });
+    }
+    var size = jsonArraySize(chunks);
+    try {
+      var written = 0L;
+      var index = 0;
+      while (written < size) {
+        written += channel.write(buffers, index, buffers.length - index);
+        while (index < buffers.length && !buffers[index].hasRemaining()) {
+          index++;
+        }
+      }
+      if (metrics != null) {
+        metrics.recordEncode(List.class, written, System.nanoTime() - start);
+      }
+      return written;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // the size of the brackets, the separators and the chunks
+  private static long jsonArraySize(byte[][] chunks) {
+    var size = 2L + (chunks.length == 0 ? 0 : 2L * (chunks.length - 1));
+    for (var chunk : chunks) {
+      size += chunk.length;
+    }
+    return size;
+  }
+
+  // encodes the elements of the list in chunks, the elements of a chunk are separated by ", "
+  byte[][] encodeChunks(List<?> list, int minChunkSize) {
+    var size = list.size();
+    if (size == 0) {
+      return new byte[0][];
+    }
+    // a few chunks per worker so a slow chunk does not delay the others
+    var parallelism = ForkJoinPool.getCommonPoolParallelism();
+    var chunkSize = Math.max(minChunkSize, (size + 4 * parallelism - 1) / (4 * parallelism));
+    var chunks = new byte[(size + chunkSize - 1) / chunkSize][];
+    new ChunkTask(this, list, chunkSize, chunks, 0, chunks.length).invoke();
+    return chunks;
+  }
+
+  private static final class ChunkTask extends RecursiveAction {
+    private final JSONWriter writer;
+    private final List<?> list;
+    private final int chunkSize;
+    private final byte[][] chunks;
+    private final int from;
+    private final int to;  // chunk indexes
+
+    private ChunkTask(JSONWriter writer, List<?> list, int chunkSize, byte[][] chunks, int from, int to) {
+      this.writer = writer;
+      this.list = list;
+      this.chunkSize = chunkSize;
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        chunks[from] = writer.encodeChunk(list, from * chunkSize, Math.min(list.size(), (from + 1) * chunkSize));
+        return;
+      }
+      var middle = (from + to) >>> 1;
+      invokeAll(new ChunkTask(writer, list, chunkSize, chunks, from, middle),
+          new ChunkTask(writer, list, chunkSize, chunks, middle, to));
+    }
+  }
+
+  private byte[] encodeChunk(List<?> list, int from, int to) {
+    var builder = BufferPool.CHARS.acquire();
+    try {
+      for (var i = from; i < to; i++) {
+        if (i != from) {
+          builder.append(", ");
+        }
+        append(list.get(i), builder, View.ALL);
+      }
+      var bytes = new byte[Math.toIntExact(JSONEncoding.utf8Length(builder))];
+      JSONEncoding.encodeUTF8(builder, MemorySegment.ofArray(bytes), 0);
+      return bytes;
+    } finally {
+      builder.setLength(0);
+      BufferPool.CHARS.release(builder);
+    }
+  }
+
+  /**
+   * Returns a sink that writes objects as newline delimited JSON to a channel,
+   * the channel is written by a virtual thread while the next objects are encoded.
+   *
+   * @param channel the channel, not closed by the sink
+   * @return a new sink
+   *
+   * @see NDJSONSink
+   */
+  public NDJSONSink ndjsonSink(WritableByteChannel channel) {
+    Objects.requireNonNull(channel);
+    return NDJSONSink.of(this, channel, NDJSONSink.DEFAULT_BUFFER_SIZE, NDJSONSink.DEFAULT_BUFFER_COUNT);
+  }
+
+  /**
+   * Returns a sink that writes objects as newline delimited JSON to a file channel starting at a position,
+   * the buffers are written using the asynchronous operations of the channel.
+   *
+   * @param channel the file channel, not closed by the sink
+   * @param position the position in the file of the first byte
+   * @return a new sink
+   *
+   * @see NDJSONSink
+   */
+  public NDJSONSink ndjsonSink(AsynchronousFileChannel channel, long position) {
+    Objects.requireNonNull(channel);
+    return NDJSONSink.of(this, channel, position, NDJSONSink.DEFAULT_BUFFER_SIZE, NDJSONSink.DEFAULT_BUFFER_COUNT);
+  }
+
+  /**
+   * Returns the names used in the JSON texts for the properties of a bean or a record,
+   * indexed by the names of the Java properties or of the record components,
+   * so a code that writes the same objects without a writer, by example from database rows,
+   * can use the names changed by {@link JSONProperty}.
+   *
+   * @param type a bean class or a record class
+   * @return an unmodifiable map from the Java names to the JSON names.
+   */
+  public static Map<String, String> propertyNames(Class<?> type) {
+    Objects.requireNonNull(type);
+    return BeanMetadata.of(type).propertyNames();
+  }
+
+  /**
+   * Encodes a bean or a record as a positional JSON array, the values of the properties
+   * are written in the canonical property order without the property names.
+   * The first element of the array is the fingerprint of the class schema,
+   * so a reader can reject a text written with another version of the class.
+   * The nested beans are also encoded as positional arrays (without fingerprint).
+   *
+   * @param o a bean or a record
+   * @return a JSON array
+   *
+   * @see JSONReader#parseOrdinalJSON(String, Class)
+   */
+  public String toOrdinalJSON(Object o) {
+    Objects.requireNonNull(o);
+    var metrics = this.metrics;
+    var start = metrics == null ? 0L : System.nanoTime();
+    var builder = BufferPool.CHARS.acquire();
+    try {
+      builder.append("[\"").append(BeanMetadata.of(o.getClass()).fingerprint()).append('"');
+      for (var getter : ORDINAL_GETTERS_CLASS_VALUE.get(o.getClass())) {
+        builder.append(", ");
+        append(Utils.invokeMethod(o, getter), builder, null);
+      }
+      var text = builder.append(']').toString();
+      if (metrics != null) {
+        metrics.recordEncode(o.getClass(), JSONEncoding.utf8Length(text), System.nanoTime() - start);
+      }
+      return text;
+    } finally {
+      builder.setLength(0);
+      BufferPool.CHARS.release(builder);
+    }
+  }
+
+  /**
+   * Encodes the changes between two versions of a bean or a record as a JSON merge patch (RFC 7386).
+   * Only the properties with a different value are written, a property that becomes {@code null}
+   * is written as {@code null} and a nested bean of the same class is written as a nested patch.
+   * Values are compared using {@link Objects#deepEquals(Object, Object)},
+   * an array or a collection that has changed is written whole.
+   *
+   * @param previous the previous version
+   * @param current the current version
+   * @return a JSON merge patch, {@code {}} if nothing has changed
+   * @throws IllegalArgumentException if the two versions are not instances of the same class
+   *
+   * @see JSONReader#applyPatch(Object, String)
+   */
+  public String writeDiff(Object previous, Object current) {
+    Objects.requireNonNull(previous);
+    Objects.requireNonNull(current);
+    if (previous.getClass() != current.getClass()) {
+      throw new IllegalArgumentException("can not compare a " + previous.getClass().getName() + " and a " + current.getClass().getName());
+    }
+    var builder = BufferPool.CHARS.acquire();
+    try {
+      appendDiff(previous, current, builder);
+      return builder.toString();
+    } finally {
+      builder.setLength(0);
+      BufferPool.CHARS.release(builder);
+    }
+  }
+
+  private boolean appendDiff(Object previous, Object current, StringBuilder builder) {
+    builder.append('{');
+    var separator = "";
+    for (var property : DIFF_PROPERTIES_CLASS_VALUE.get(current.getClass())) {
+      var previousValue = Utils.invokeMethod(previous, property.getter);
+      var currentValue = Utils.invokeMethod(current, property.getter);
+      if (Objects.deepEquals(previousValue, currentValue)) {
+        continue;
+      }
+      var mark = builder.length();
+      builder.append(separator).append(property.prefix);
+      if (previousValue != null && currentValue != null
+          && previousValue.getClass() == currentValue.getClass() && isBean(currentValue)) {
+        if (!appendDiff(previousValue, currentValue, builder)) {  // equals() not overridden but same values
+          builder.setLength(mark);
+          continue;
+        }
+      } else {
+        append(currentValue, builder, View.ALL);
+      }
+      separator = ", ";
+    }
+    builder.append('}');
+    return !separator.isEmpty();
+  }
+
+  private boolean isBean(Object o) {
+    return !(o instanceof Boolean || o instanceof Number || o instanceof String)
+        && !isArray(o) && formatterClassValue.get(o.getClass()) == null && codecs.codec(o.getClass()) == null;
+  }
+
+  // used by NDJSONSink
+  void append(Object o, StringBuilder builder) {
+    append(o, builder, View.ALL);
+  }
+
+  // the view is null for the positional encoding
+  private void append(Object o, StringBuilder builder, View view) {
+    switch (o) {
+      case null -> builder.append("null");
+      case Boolean b -> builder.append(b.booleanValue());
+      case Integer i -> builder.append(i.intValue());
+      case Long l -> builder.append(l.longValue());
+      case Float f -> builder.append(f.floatValue());
+      case Double d -> builder.append(d.doubleValue());
+      case String s -> JSONEncoding.appendQuoted(s, builder);
+      default -> {
+        var formatter = formatterClassValue.get(o.getClass());
+        if (formatter != null) {
+          builder.append(formatter.apply(o));
+          return;
+        }
+        var codec = codecs.codec(o.getClass());
+        if (codec != null) {
+          codec.encode(o, builder);
+          return;
+        }
+        if (isArray(o)) {
+          appendArray(o, builder, view);
+          return;
+        }
+        if (view == null) {
+          appendOrdinalBean(o, builder);
+          return;
+        }
+        if (view == View.ALL) {
+          var cache = memoizedClassValue.get(o.getClass());
+          if (cache != null) {
+            appendMemoizedBean(o, builder, cache);
+            return;
+          }
+        }
+        appendBean(o, builder, view);
+      }
+    }
+  }
+
+  // an array or a collection is encoded as a JSON array
+  private static boolean isArray(Object o) {
+    return o instanceof Collection<?> || o.getClass().isArray();
+  }
+
+  private static Iterable<?> elements(Object o) {
+    if (o instanceof Collection<?> collection) {
+      return collection;
+    }
+    if (o instanceof Object[] array) {
+      return Arrays.asList(array);
+    }
+    return IntStream.range(0, Array.getLength(o)).mapToObj(i -> Array.get(o, i)).toList();
+  }
+
+  private void appendArray(Object o, StringBuilder builder, View view) {
+    builder.append('[');
+    var separator = "";
+    for (var element : elements(o)) {
+      builder.append(separator);
+      append(element, builder, view);
+      separator = ", ";
+    }
+    builder.append(']');
+  }
+
+  private void appendBean(Object o, StringBuilder builder, View view) {
+    var generators = view.generators(o.getClass());
+    builder.append('{');
+    var separator = "";
+    for (var generator : generators) {
+      var mark = builder.length();
+      builder.append(separator);
+      if (!generator.generate(this, o, builder)) {
+        builder.setLength(mark);
+        continue;
+      }
+      separator = ", ";
+    }
+    builder.append('}');
+  }
+
+  private void appendMemoizedBean(Object o, StringBuilder builder, SerializedFormCache cache) {
+    var text = cache.get(o);
+    if (text != null) {
+      builder.append(text);
+      return;
+    }
+    var start = builder.length();
+    appendBean(o, builder, View.ALL);
+    cache.put(o, builder.substring(start));
+  }
+
+  private void appendOrdinalBean(Object o, StringBuilder builder) {
+    var getters = ORDINAL_GETTERS_CLASS_VALUE.get(o.getClass());
+    builder.append('[');
+    var separator = "";
+    for (var getter : getters) {
+      builder.append(separator);
+      append(Utils.invokeMethod(o, getter), builder, null);
+      separator = ", ";
+    }
+    builder.append(']');
+  }
+
 }
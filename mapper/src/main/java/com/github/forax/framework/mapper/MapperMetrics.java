@@ -0,0 +1,186 @@
+package com.github.forax.framework.mapper;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-class serialization metrics recorded by a {@link JSONWriter} or a {@link JSONReader}
+ * that opted in with {@code useMetrics()}, for each class, the number of documents encoded and decoded,
+ * their cumulated size and the cumulated time spent.
+ *
+ * The counters are {@link LongAdder}s so several threads can record concurrently without contention.
+ * A document that takes more time than the slow threshold is also counted as slow and
+ * reported as a JFR event {@code com.github.forax.framework.mapper.SlowDocument}.
+ *
+ * The size is the number of bytes of the JSON text encoded in UTF-8,
+ * even for the methods working on strings.
+ *
+ * The documents are recorded by {@link JSONWriter#toJSON(Object, JSONWriter.View)},
+ * {@link JSONWriter#toOrdinalJSON(Object)}, {@link JSONWriter#writeSegment(Object, java.lang.foreign.MemorySegment)},
+ * {@link JSONWriter#toJSONBytes(java.util.List)}, {@link JSONWriter#writeJSON(java.util.List, java.nio.channels.GatheringByteChannel)},
+ * {@link NDJSONSink#write(Object)}, {@link JSONReader#parseJSON(String, Class)},
+ * {@link JSONReader#parseSegment(java.lang.foreign.MemorySegment, Class)},
+ * {@link JSONReader#parseNDJSON(java.lang.foreign.MemorySegment, Class, java.util.function.Consumer)} (one document per line),
+ * {@link JSONReader#parseOrdinalJSON(String, Class)}, {@link JSONReader#applyPatch(Object, String)} and
+ * {@link JSONReader#parseColumns(String, Class, String...)}.
+ * The JSON arrays written from a list are recorded under the class {@link java.util.List}.
+ * A writer or a reader without metrics only pays a null check per call.
+ *
+ * This class is thread-safe.
+ */
+public final class MapperMetrics {
+  /**
+   * The metrics of a class.
+   */
+  public static final class ClassMetrics {
+    private final LongAdder encodeCount = new LongAdder();
+    private final LongAdder encodedSize = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder decodeCount = new LongAdder();
+    private final LongAdder decodedSize = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder slowCount = new LongAdder();
+
+    private ClassMetrics() {}
+
+    /**
+     * Returns the number of documents encoded.
+     * @return the number of documents encoded.
+     */
+    public long encodeCount() {
+      return encodeCount.sum();
+    }
+
+    /**
+     * Returns the cumulated size of the documents encoded.
+     * @return the cumulated size of the documents encoded.
+     */
+    public long encodedSize() {
+      return encodedSize.sum();
+    }
+
+    /**
+     * Returns the cumulated time spent encoding.
+     * @return the cumulated time spent encoding.
+     */
+    public Duration encodeTime() {
+      return Duration.ofNanos(encodeNanos.sum());
+    }
+
+    /**
+     * Returns the number of documents decoded.
+     * @return the number of documents decoded.
+     */
+    public long decodeCount() {
+      return decodeCount.sum();
+    }
+
+    /**
+     * Returns the cumulated size of the documents decoded.
+     * @return the cumulated size of the documents decoded.
+     */
+    public long decodedSize() {
+      return decodedSize.sum();
+    }
+
+    /**
+     * Returns the cumulated time spent decoding.
+     * @return the cumulated time spent decoding.
+     */
+    public Duration decodeTime() {
+      return Duration.ofNanos(decodeNanos.sum());
+    }
+
+    /**
+     * Returns the number of documents encoded or decoded slower than the threshold.
+     * @return the number of slow documents.
+     */
+    public long slowCount() {
+      return slowCount.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "encode " + encodeCount() + " (" + encodedSize() + ", " + encodeTime() + ")"
+          + " decode " + decodeCount() + " (" + decodedSize() + ", " + decodeTime() + ")"
+          + " slow " + slowCount();
+    }
+  }
+
+  private final long slowThresholdNanos;
+  private final ConcurrentHashMap<Class<?>, ClassMetrics> metricsMap = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an empty set of metrics.
+   *
+   * @param slowThreshold the time above which a document is reported as slow.
+   */
+  public MapperMetrics(Duration slowThreshold) {
+    Objects.requireNonNull(slowThreshold);
+    if (slowThreshold.isNegative()) {
+      throw new IllegalArgumentException("invalid threshold " + slowThreshold);
+    }
+    this.slowThresholdNanos = slowThreshold.toNanos();
+  }
+
+  /**
+   * Returns the time above which a document is reported as slow.
+   * @return the time above which a document is reported as slow.
+   */
+  public Duration slowThreshold() {
+    return Duration.ofNanos(slowThresholdNanos);
+  }
+
+  /**
+   * Returns the metrics of a class or {@code null} if no document of that class was recorded.
+   * @param type the class
+   * @return the metrics of the class or {@code null}.
+   */
+  public ClassMetrics classMetrics(Class<?> type) {
+    Objects.requireNonNull(type);
+    return metricsMap.get(type);
+  }
+
+  /**
+   * Returns the metrics of all the recorded classes, the map is updated
+   * when a document of a new class is recorded.
+   * @return the metrics of all the recorded classes.
+   */
+  public Map<Class<?>, ClassMetrics> classMetrics() {
+    return Collections.unmodifiableMap(metricsMap);
+  }
+
+  private ClassMetrics metrics(Class<?> type) {
+    var metrics = metricsMap.get(type);  // avoid the lock of computeIfAbsent on the fast path
+    if (metrics != null) {
+      return metrics;
+    }
+    return metricsMap.computeIfAbsent(type, __ -> new ClassMetrics());
+  }
+
+  void recordEncode(Class<?> type, long size, long nanos) {
+    var metrics = metrics(type);
+    metrics.encodeCount.increment();
+    metrics.encodedSize.add(size);
+    metrics.encodeNanos.add(nanos);
+    if (nanos > slowThresholdNanos) {
+      metrics.slowCount.increment();
+      SlowDocumentEvent.emit("encode", type, size, nanos);
+    }
+  }
+
+  void recordDecode(Class<?> type, long size, long nanos) {
+    var metrics = metrics(type);
+    metrics.decodeCount.increment();
+    metrics.decodedSize.add(size);
+    metrics.decodeNanos.add(nanos);
+    if (nanos > slowThresholdNanos) {
+      metrics.slowCount.increment();
+      SlowDocumentEvent.emit("decode", type, size, nanos);
+    }
+  }
+}
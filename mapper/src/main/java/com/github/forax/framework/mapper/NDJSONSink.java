@@ -0,0 +1,298 @@
+package com.github.forax.framework.mapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes objects as newline delimited JSON (one JSON text per line) to a channel,
+ * the newlines of the strings are escaped by the {@link JSONWriter} so a JSON text is always on one line.
+ *
+ * The JSON texts are encoded in UTF-8 into a fixed number of direct buffers, when a buffer is full,
+ * it is written asynchronously to the channel while the next objects are encoded into another buffer,
+ * so the serialization and the I/O overlap. If all the buffers are being written,
+ * {@link #write(Object)} waits until one is available, so the memory used is bounded.
+ *
+ * The channel is not closed by {@link #close()}, it is owned by the caller.
+ * An I/O error is reported by the next call to {@link #write(Object)} or {@link #close()}
+ * as an {@link IllegalStateException}.
+ *
+ * This class is not thread-safe.
+ *
+ * @see JSONWriter#ndjsonSink(WritableByteChannel)
+ * @see JSONWriter#ndjsonSink(AsynchronousFileChannel, long)
+ */
+public final class NDJSONSink implements AutoCloseable {
+  static final int DEFAULT_BUFFER_SIZE = 64 * 1_024;
+  static final int DEFAULT_BUFFER_COUNT = 2;
+
+  // writes a buffer asynchronously then calls completed() or failed(),
+  // or throws an exception without calling them if the write can not be started
+  private interface Output {
+    void write(NDJSONSink sink, ByteBuffer buffer, long position);
+    default void close() {}
+  }
+
+  private record ChannelOutput(WritableByteChannel channel, ExecutorService executor) implements Output {
+    @Override
+    public void write(NDJSONSink sink, ByteBuffer buffer, long position) {
+      executor.execute(() -> {
+        try {
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          sink.completed(buffer);
+        } catch (IOException | RuntimeException e) {
+          sink.failed(buffer, e);
+        }
+      });
+    }
+
+    @Override
+    public void close() {
+      executor.close();
+    }
+  }
+
+  private record FileOutput(AsynchronousFileChannel channel) implements Output {
+    @Override
+    public void write(NDJSONSink sink, ByteBuffer buffer, long position) {
+      channel.write(buffer, position, position, new CompletionHandler<>() {
+        @Override
+        public void completed(Integer written, Long position) {
+          if (buffer.hasRemaining()) {  // partial write
+            var next = position + written;
+            try {
+              channel.write(buffer, next, next, this);
+            } catch (RuntimeException e) {
+              sink.failed(buffer, e);
+            }
+            return;
+          }
+          sink.completed(buffer);
+        }
+
+        @Override
+        public void failed(Throwable e, Long position) {
+          sink.failed(buffer, e);
+        }
+      });
+    }
+  }
+
+  private final JSONWriter writer;
+  private final Output output;
+  private final int bufferCount;
+  private final ArrayBlockingQueue<ByteBuffer> freeBuffers;
+  private final CharsetEncoder encoder = UTF_8.newEncoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private ByteBuffer buffer;
+  private long position;  // position of the current buffer in the channel
+  private long count;
+  private volatile Throwable failure;
+  private boolean closed;
+
+  private NDJSONSink(JSONWriter writer, Output output, long position, int bufferSize, int bufferCount) {
+    this.writer = writer;
+    this.output = output;
+    this.position = position;
+    this.bufferCount = bufferCount;
+    this.freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+    for (var i = 0; i < bufferCount; i++) {
+      freeBuffers.add(ByteBuffer.allocateDirect(bufferSize));
+    }
+    this.buffer = freeBuffers.remove();
+  }
+
+  private static void checkBuffers(int bufferSize, int bufferCount) {
+    if (bufferSize < 16) {
+      throw new IllegalArgumentException("invalid buffer size " + bufferSize);
+    }
+    if (bufferCount < 1) {
+      throw new IllegalArgumentException("invalid buffer count " + bufferCount);
+    }
+  }
+
+  static NDJSONSink of(JSONWriter writer, WritableByteChannel channel, int bufferSize, int bufferCount) {
+    checkBuffers(bufferSize, bufferCount);
+    var executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("ndjson-sink").factory());
+    return new NDJSONSink(writer, new ChannelOutput(channel, executor), 0, bufferSize, bufferCount);
+  }
+
+  static NDJSONSink of(JSONWriter writer, AsynchronousFileChannel channel, long position, int bufferSize, int bufferCount) {
+    if (position < 0) {
+      throw new IllegalArgumentException("invalid position " + position);
+    }
+    checkBuffers(bufferSize, bufferCount);
+    return new NDJSONSink(writer, new FileOutput(channel), position, bufferSize, bufferCount);
+  }
+
+  private void completed(ByteBuffer buffer) {
+    buffer.clear();
+    freeBuffers.add(buffer);
+  }
+
+  private void failed(ByteBuffer buffer, Throwable e) {
+    if (failure == null) {
+      failure = e;
+    }
+    completed(buffer);
+  }
+
+  // a write that can not be started fails like a write that fails asynchronously,
+  // so the buffer is given back
+  private void submit(ByteBuffer buffer, long position) {
+    try {
+      output.write(this, buffer, position);
+    } catch (RuntimeException e) {
+      failed(buffer, e);
+    }
+  }
+
+  private void checkState() {
+    if (closed) {
+      throw new IllegalStateException("sink closed");
+    }
+    var failure = this.failure;
+    if (failure != null) {
+      throw new IllegalStateException("error while writing to the channel", failure);
+    }
+  }
+
+  /**
+   * Returns the number of objects written.
+   * @return the number of objects written.
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * Writes the JSON text of an object followed by a newline.
+   *
+   * @param o the object, can be null
+   * @throws IllegalStateException if the sink is closed or a previous write to the channel failed.
+   */
+  public void write(Object o) {
+    checkState();
+    var metrics = writer.metrics();
+    var start = metrics == null ? 0L : System.nanoTime();
+    var offset = position + buffer.position();
+    var builder = BufferPool.CHARS.acquire();
+    try {
+      writer.append(o, builder);
+      builder.append('\n');
+      encode(builder);
+      if (metrics != null && o != null) {
+        metrics.recordEncode(o.getClass(), position + buffer.position() - offset, System.nanoTime() - start);
+      }
+    } finally {
+      builder.setLength(0);
+      BufferPool.CHARS.release(builder);
+    }
+    count++;
+  }
+
+  /**
+   * Writes the JSON texts of all the objects, one per line.
+   *
+   * @param objects the objects
+   * @throws IllegalStateException if the sink is closed or a write to the channel failed.
+   */
+  public void writeAll(Iterable<?> objects) {
+    Objects.requireNonNull(objects);
+    for (var o : objects) {
+      write(o);
+    }
+  }
+
+  /**
+   * Writes the JSON texts of all the objects of a sequential stream, one per line.
+   *
+   * @param objects the objects
+   * @throws IllegalStateException if the sink is closed or a write to the channel failed.
+   */
+  public void writeAll(Stream<?> objects) {
+    Objects.requireNonNull(objects);
+    objects.sequential().forEachOrdered(this::write);
+  }
+
+  private void encode(CharSequence text) {
+    var chars = CharBuffer.wrap(text);
+    while (encoder.encode(chars, buffer, true).isOverflow()) {
+      flush();
+    }
+    encoder.reset();
+  }
+
+  private void flush() {
+    buffer.flip();
+    var size = buffer.remaining();
+    if (size != 0) {
+      submit(buffer, position);
+      position += size;
+      buffer = takeFreeBuffer();
+    } else {
+      buffer.clear();
+    }
+    checkState();
+  }
+
+  private ByteBuffer takeFreeBuffer() {
+    try {
+      return freeBuffers.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while waiting for a buffer", e);
+    }
+  }
+
+  /**
+   * Writes the remaining bytes and waits until all the buffers are written to the channel,
+   * the remaining bytes are not written if a previous write failed.
+   * The channel is not closed.
+   *
+   * @throws IllegalStateException if a write to the channel failed.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    try {
+      buffer.flip();
+      var size = buffer.remaining();
+      if (size != 0 && failure == null) {
+        submit(buffer, position);
+        position += size;
+      } else {
+        completed(buffer);
+      }
+      buffer = null;
+      // wait until all the buffers are back
+      for (var i = 0; i < bufferCount; i++) {
+        takeFreeBuffer();
+      }
+    } finally {
+      closed = true;
+      output.close();
+    }
+    var failure = this.failure;
+    if (failure != null) {
+      throw new IllegalStateException("error while writing to the channel", failure);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Finds the properties of a bean from its public getters and setters,
+ * a lightweight replacement of {@code java.beans.Introspector} that does not
+ * require the module {@code java.desktop} and does not compute the events or the indexed properties.
+ *
+ * The rules are the ones of the Java Beans specification:
+ * a getter is a public instance method {@code getX()} with a non void return type or
+ * {@code isX()} returning a {@code boolean} ({@code isX} is preferred to {@code getX}),
+ * a setter is a public instance method {@code setX(value)} returning void, if there is a getter
+ * the type of the parameter of the setter must be the return type of the getter.
+ * The name of the property is {@code X} decapitalized, the property {@code class} is ignored.
+ *
+ * The properties are sorted by name like the ones of the {@code Introspector}.
+ */
+final class PropertyScanner {
+  private PropertyScanner() {
+    throw new AssertionError();
+  }
+
+  /**
+   * A property of a bean.
+   * @param name the name of the property
+   * @param getter the getter or {@code null}
+   * @param setter the setter or {@code null}
+   */
+  record BeanProperty(String name, Method getter, Method setter) {}
+
+  private static final class Candidate {
+    private Method getter;
+    private final ArrayList<Method> setters = new ArrayList<>();
+  }
+
+  /**
+   * Returns the properties of a bean sorted by name.
+   * @param type the class of the bean
+   * @return the properties of the bean.
+   */
+  static List<BeanProperty> properties(Class<?> type) {
+    var candidateMap = new TreeMap<String, Candidate>();
+    for (var method : type.getMethods()) {
+      if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+        continue;
+      }
+      var methodName = method.getName();
+      var parameterCount = method.getParameterCount();
+      var returnType = method.getReturnType();
+      if (parameterCount == 0 && returnType == boolean.class && methodName.length() > 2 && methodName.startsWith("is")) {
+        var candidate = candidateMap.computeIfAbsent(decapitalize(methodName.substring(2)), __ -> new Candidate());
+        candidate.getter = method;  // isX is preferred to getX
+        continue;
+      }
+      if (parameterCount == 0 && returnType != void.class && methodName.length() > 3 && methodName.startsWith("get")) {
+        var candidate = candidateMap.computeIfAbsent(decapitalize(methodName.substring(3)), __ -> new Candidate());
+        if (candidate.getter == null
+            || (!candidate.getter.getName().startsWith("is") && candidate.getter.getReturnType().isAssignableFrom(returnType))) {
+          candidate.getter = method;  // covariant return type, keep the most specific one
+        }
+        continue;
+      }
+      if (parameterCount == 1 && returnType == void.class && methodName.length() > 3 && methodName.startsWith("set")) {
+        candidateMap.computeIfAbsent(decapitalize(methodName.substring(3)), __ -> new Candidate()).setters.add(method);
+      }
+    }
+    candidateMap.remove("class");
+
+    var properties = new ArrayList<BeanProperty>();
+    candidateMap.forEach((name, candidate) -> {
+      var getter = candidate.getter;
+      var setter = setter(getter, candidate.setters);
+      if (getter != null || setter != null) {
+        properties.add(new BeanProperty(name, getter, setter));
+      }
+    });
+    return List.copyOf(properties);
+  }
+
+  private static Method setter(Method getter, List<Method> setters) {
+    if (getter != null) {
+      var propertyType = getter.getReturnType();
+      return setters.stream()
+          .filter(setter -> setter.getParameterTypes()[0] == propertyType)
+          .findFirst()
+          .orElse(null);
+    }
+    // no getter, choose deterministically between overloaded setters
+    return setters.stream()
+        .min(Comparator.comparing(setter -> setter.getParameterTypes()[0].getName()))
+        .orElse(null);
+  }
+
+  /**
+   * Decapitalizes a name like {@code java.beans.Introspector.decapitalize},
+   * {@code "FooBar"} becomes {@code "fooBar"} but {@code "URL"} stays {@code "URL"}.
+   * @param name a name
+   * @return the name decapitalized.
+   */
+  static String decapitalize(String name) {
+    if (name.isEmpty() || (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0)))) {
+      return name;
+    }
+    var chars = name.toCharArray();
+    chars[0] = Character.toLowerCase(chars[0]);
+    return new String(chars);
+  }
+}
@@ -0,0 +1,317 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.ToyJSONParser.Kind;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A lexer that reads UTF-8 encoded JSON directly from a {@link MemorySegment} using long offsets,
+ * so it works on memory mapped files larger than 2 GB without copying them into the Java heap.
+ *
+ * The lexer is a cursor, {@link #next()} returns the {@link Kind} of the next token
+ * and records its bounds, no object is allocated until the value of a token is requested.
+ */
+final class SegmentLexer {
+  private MemorySegment segment;
+  private long size;
+  private long position;
+  private long tokenStart;
+  private long tokenEnd;
+  private boolean escaped;
+
+  SegmentLexer(MemorySegment segment) {
+    reset(segment);
+  }
+
+  /**
+   * Restarts the lexer at the beginning of another segment.
+   * @param segment the new segment
+   */
+  void reset(MemorySegment segment) {
+    this.segment = segment;
+    this.size = segment.byteSize();
+    this.position = 0;
+    this.tokenStart = 0;
+    this.tokenEnd = 0;
+    this.escaped = false;
+  }
+
+  long position() {
+    return position;
+  }
+
+  long tokenStart() {
+    return tokenStart;
+  }
+
+  private byte byteAt(long offset) {
+    return segment.get(JAVA_BYTE, offset);
+  }
+
+  private void skipBlanks() {
+    while (position < size) {
+      var b = byteAt(position);
+      if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+        return;
+      }
+      position++;
+    }
+  }
+
+  /**
+   * Returns true if there is a token after the blanks.
+   * @return true if there is a token after the blanks.
+   */
+  boolean hasNext() {
+    skipBlanks();
+    return position < size;
+  }
+
+  JSONParseException error(String message) {
+    return error(message, null);
+  }
+
+  /**
+   * Returns an exception located at the start of the current token.
+   * @param message the reason of the error
+   * @param cause the cause or {@code null}
+   * @return an exception located at the start of the current token.
+   */
+  JSONParseException error(String message, Throwable cause) {
+    return JSONParseException.of(message, segment, tokenStart, cause);
+  }
+
+  /**
+   * Reads the next token.
+   * @return the kind of the next token, never {@link Kind#BLANK}.
+   * @throws IllegalStateException if no token is recognized.
+   */
+  Kind next() {
+    skipBlanks();
+    tokenStart = position;
+    if (position >= size) {
+      throw error("no token recognized");
+    }
+    var b = byteAt(position);
+    return switch (b) {
+      case '{' -> single(Kind.LEFT_CURLY);
+      case '}' -> single(Kind.RIGHT_CURLY);
+      case '[' -> single(Kind.LEFT_BRACKET);
+      case ']' -> single(Kind.RIGHT_BRACKET);
+      case ':' -> single(Kind.COLON);
+      case ',' -> single(Kind.COMMA);
+      case '"' -> string();
+      case 'n' -> keyword("null", Kind.NULL);
+      case 't' -> keyword("true", Kind.TRUE);
+      case 'f' -> keyword("false", Kind.FALSE);
+      default -> {
+        if (b == '-' || b == '.' || (b >= '0' && b <= '9')) {
+          yield number();
+        }
+        throw error("no token recognized");
+      }
+    };
+  }
+
+  private Kind single(Kind kind) {
+    position++;
+    tokenEnd = position;
+    return kind;
+  }
+
+  private Kind keyword(String keyword, Kind kind) {
+    var length = keyword.length();
+    if (position + length > size) {
+      throw error("no token recognized");
+    }
+    for (var i = 0; i < length; i++) {
+      if (byteAt(position + i) != keyword.charAt(i)) {
+        throw error("no token recognized");
+      }
+    }
+    position += length;
+    tokenEnd = position;
+    return kind;
+  }
+
+  private Kind string() {
+    var offset = position + 1;
+    escaped = false;
+    while (offset < size) {
+      var b = byteAt(offset);
+      if (b == '"') {
+        tokenStart = position + 1;  // without the quotes
+        tokenEnd = offset;
+        position = offset + 1;
+        return Kind.STRING;
+      }
+      if (b == '\\') {
+        escaped = true;
+        offset++;
+      }
+      offset++;
+    }
+    throw error("unterminated string");
+  }
+
+  private Kind number() {
+    var offset = position;
+    var kind = Kind.INTEGER;
+    while (offset < size) {
+      var b = byteAt(offset);
+      if (b == '.' || b == 'e' || b == 'E') {
+        kind = Kind.DOUBLE;
+      } else if (!(b >= '0' && b <= '9') && b != '-' && b != '+') {
+        break;
+      }
+      offset++;
+    }
+    position = offset;
+    tokenEnd = offset;
+    return kind;
+  }
+
+  /**
+   * Returns the value of the current {@link Kind#INTEGER} token.
+   * @return the value of the current integer token.
+   */
+  long longValue() {
+    var offset = tokenStart;
+    var negative = byteAt(offset) == '-';
+    if (negative) {
+      offset++;
+    }
+    if (offset == tokenEnd || tokenEnd - offset > 19) {
+      throw error("invalid integer");
+    }
+    // accumulate negatively, the magnitude of Long.MIN_VALUE does not fit in a long
+    var limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    var value = 0L;
+    for (; offset < tokenEnd; offset++) {
+      var digit = byteAt(offset) - '0';
+      if (digit < 0 || digit > 9) {
+        throw error("invalid integer");
+      }
+      if (value < limit / 10 || value * 10 < limit + digit) {
+        throw error("integer overflow");
+      }
+      value = value * 10 - digit;
+    }
+    return negative ? value : -value;
+  }
+
+  /**
+   * Returns the value of the current {@link Kind#DOUBLE} token.
+   * @return the value of the current double token.
+   */
+  double doubleValue() {
+    try {
+      return Double.parseDouble(new String(bytes(tokenStart, tokenEnd), UTF_8));
+    } catch (NumberFormatException e) {
+      throw error("invalid number");
+    }
+  }
+
+  /**
+   * Returns the value of the current {@link Kind#STRING} token without the quotes.
+   * @param stringCache a cache of canonical strings or {@code null}.
+   * @return the value of the current string token.
+   */
+  String stringValue(StringCache stringCache) {
+    if (escaped) {
+      return unescape(new String(bytes(tokenStart, tokenEnd), UTF_8));
+    }
+    if (stringCache != null) {
+      return stringCache.intern(segment, tokenStart, tokenEnd);
+    }
+    return new String(bytes(tokenStart, tokenEnd), UTF_8);
+  }
+
+  /**
+   * Returns the bytes of the current token, without the quotes for a string, the escape sequences are not decoded.
+   * @return a slice of the segment containing the bytes of the current token.
+   */
+  MemorySegment tokenBytes() {
+    return segment.asSlice(tokenStart, tokenEnd - tokenStart);
+  }
+
+  /**
+   * Returns the constant named by the current {@link Kind#STRING} token,
+   * the constant is found from the bytes of the token without allocating if the token has no escape sequence.
+   * @param codec the codec of the enum
+   * @return the constant or {@code null} if no constant has that name.
+   */
+  <E extends Enum<E>> E tokenEnum(EnumCodec<E> codec) {
+    if (escaped) {
+      return codec.lookup(stringValue(null));
+    }
+    return codec.lookup(segment, tokenStart, tokenEnd);
+  }
+
+  /**
+   * Returns true if the value of the current {@link Kind#STRING} token is equal to the text,
+   * without allocating if the token has no escape sequence and the text is ASCII.
+   * @param text a text
+   * @return true if the value of the current string token is equal to the text.
+   */
+  boolean tokenEquals(String text) {
+    if (escaped) {
+      return stringValue(null).equals(text);
+    }
+    var length = text.length();
+    for (var i = 0; i < length; i++) {
+      if (text.charAt(i) >= 0x80) {
+        return stringValue(null).equals(text);
+      }
+    }
+    if (tokenEnd - tokenStart != length) {
+      return false;
+    }
+    for (var i = 0; i < length; i++) {
+      if (byteAt(tokenStart + i) != text.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private byte[] bytes(long start, long end) {
+    return segment.asSlice(start, end - start).toArray(JAVA_BYTE);
+  }
+
+  private String unescape(String text) {
+    var builder = new StringBuilder(text.length());
+    for (var i = 0; i < text.length(); i++) {
+      var c = text.charAt(i);
+      if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      c = text.charAt(++i);
+      switch (c) {
+        case '"', '\\', '/' -> builder.append(c);
+        case 'b' -> builder.append('\b');
+        case 'f' -> builder.append('\f');
+        case 'n' -> builder.append('\n');
+        case 'r' -> builder.append('\r');
+        case 't' -> builder.append('\t');
+        case 'u' -> {
+          if (i + 4 >= text.length()) {
+            throw error("invalid unicode escape");
+          }
+          try {
+            builder.append((char) Integer.parseInt(text, i + 1, i + 5, 16));
+          } catch (NumberFormatException e) {
+            throw error("invalid unicode escape");
+          }
+          i += 4;
+        }
+        default -> throw error("invalid escape \\" + c);
+      }
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,154 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the JSON texts of immutable records used by the writer to avoid
+ * encoding the same record instance again and again (reference data, configurations, etc).
+ *
+ * The records are keyed by identity and weakly referenced, so a record that is not used anymore
+ * can be garbage collected, and when the cache is full the least recently used entry is evicted.
+ * A record is only cached if its class is registered with {@link JSONWriter#memoize(Class, SerializedFormCache)},
+ * the record and all its components must be deeply immutable.
+ *
+ * This class is thread-safe.
+ *
+ * @see JSONWriter#memoize(Class, SerializedFormCache)
+ */
+public final class SerializedFormCache {
+  private static final class IdentityKey extends WeakReference<Object> {
+    private final int hash;
+
+    private IdentityKey(Object referent, ReferenceQueue<Object> queue) {
+      super(referent, queue);
+      this.hash = System.identityHashCode(referent);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof IdentityKey key) || hash != key.hash) {
+        return false;
+      }
+      var referent = get();
+      return referent != null && referent == key.get();
+    }
+  }
+
+  private final int maxSize;
+  private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+  private final LinkedHashMap<IdentityKey, String> map;  // guarded by lock
+  private final Object lock = new Object();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Creates a cache that stores at most {@code maxSize} JSON texts.
+   *
+   * @param maxSize the maximum number of cached JSON texts.
+   */
+  public SerializedFormCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("invalid max size " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.map = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<IdentityKey, String> eldest) {
+        if (size() > SerializedFormCache.this.maxSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns the maximum number of cached JSON texts.
+   * @return the maximum number of cached JSON texts.
+   */
+  public int maxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Returns the number of cached JSON texts.
+   * @return the number of cached JSON texts.
+   */
+  public int size() {
+    synchronized (lock) {
+      expunge();
+      return map.size();
+    }
+  }
+
+  /**
+   * Returns the number of records written using a cached JSON text.
+   * @return the number of records written using a cached JSON text.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of records that had to be encoded.
+   * @return the number of records that had to be encoded.
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of JSON texts evicted because the cache was full.
+   * @return the number of JSON texts evicted because the cache was full.
+   */
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Returns the JSON text of a record or {@code null} if the record is not in the cache.
+   * @param record a record
+   * @return the JSON text of a record or {@code null}.
+   */
+  String get(Object record) {
+    String text;
+    synchronized (lock) {
+      expunge();
+      text = map.get(new IdentityKey(record, null));
+    }
+    (text == null ? misses : hits).increment();
+    return text;
+  }
+
+  /**
+   * Stores the JSON text of a record, evicting the least recently used text if the cache is full.
+   * @param record a record
+   * @param text the JSON text of the record.
+   */
+  void put(Object record, String text) {
+    synchronized (lock) {
+      expunge();
+      map.put(new IdentityKey(record, queue), text);
+    }
+  }
+
+  private void expunge() {
+    for (Object key; (key = queue.poll()) != null; ) {
+      map.remove(key);
+    }
+  }
+}
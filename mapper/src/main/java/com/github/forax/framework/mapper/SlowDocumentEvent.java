@@ -0,0 +1,45 @@
+package com.github.forax.framework.mapper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted when a document is encoded or decoded slower than the threshold of the {@link MapperMetrics}.
+ */
+@Name("com.github.forax.framework.mapper.SlowDocument")
+@Label("Slow Document")
+@Description("A JSON document encoded or decoded slower than the threshold of the mapper metrics")
+@Category({"Java Framework", "Mapper"})
+@StackTrace(false)
+final class SlowDocumentEvent extends Event {
+  @Label("Operation")
+  String operation;
+
+  @Label("Type")
+  Class<?> type;
+
+  @Label("Size")
+  @Description("The size of the document in bytes")
+  long size;
+
+  @Label("Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  long elapsed;
+
+  static void emit(String operation, Class<?> type, long size, long elapsed) {
+    var event = new SlowDocumentEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.operation = operation;
+    event.type = type;
+    event.size = size;
+    event.elapsed = elapsed;
+    event.commit();
+  }
+}
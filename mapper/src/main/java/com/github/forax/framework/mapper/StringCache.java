@@ -0,0 +1,169 @@
+package com.github.forax.framework.mapper;
+
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A bounded cache of canonical strings used by the parser to avoid allocating
+ * a new {@link String} for each occurrence of a repeated string value
+ * (country codes, enum names, currencies, etc).
+ *
+ * The cache is direct-mapped: a string is stored in a slot chosen by its hash,
+ * and a new string evicts the previous occupant of the slot.
+ * Strings longer than {@link #maxLength()} are never cached.
+ *
+ * This class is thread-safe, the slots only contain immutable strings so a racy
+ * update may lose an entry but never publish a corrupted one.
+ *
+ * @see JSONReader#useStringCache(StringCache)
+ * @see ToyJSONParser#parse(String, ToyJSONParser.JSONVisitor, StringCache)
+ */
+public final class StringCache {
+  private static final int DEFAULT_MAX_LENGTH = 64;
+
+  private final String[] table;
+  private final int maxLength;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Creates a cache with at least {@code capacity} slots that caches strings
+   * of at most {@code maxLength} characters.
+   *
+   * @param capacity the number of slots, rounded up to a power of two.
+   * @param maxLength the maximum length of a cached string.
+   */
+  public StringCache(int capacity, int maxLength) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("invalid capacity " + capacity);
+    }
+    if (maxLength < 0) {
+      throw new IllegalArgumentException("invalid max length " + maxLength);
+    }
+    this.table = new String[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Creates a cache with at least {@code capacity} slots that caches strings
+   * of at most 64 characters.
+   *
+   * @param capacity the number of slots, rounded up to a power of two.
+   */
+  public StringCache(int capacity) {
+    this(capacity, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Returns the number of slots of this cache.
+   * @return the number of slots of this cache.
+   */
+  public int capacity() {
+    return table.length;
+  }
+
+  /**
+   * Returns the maximum length of a cached string.
+   * @return the maximum length of a cached string.
+   */
+  public int maxLength() {
+    return maxLength;
+  }
+
+  /**
+   * Returns the number of lookups that found a canonical string.
+   * @return the number of lookups that found a canonical string.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that had to allocate a new string.
+   * @return the number of lookups that had to allocate a new string.
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns a string equals to {@code input.substring(start, end)},
+   * the canonical one if it is already in the cache.
+   *
+   * @param input the text containing the string.
+   * @param start the start index, inclusive.
+   * @param end the end index, exclusive.
+   * @return a string equals to {@code input.substring(start, end)}.
+   */
+  String intern(String input, int start, int end) {
+    var length = end - start;
+    if (length > maxLength) {
+      return input.substring(start, end);
+    }
+    var hash = 0;
+    for (var i = start; i < end; i++) {
+      hash = 31 * hash + input.charAt(i);
+    }
+    var index = (hash ^ (hash >>> 16)) & (table.length - 1);
+    var cached = table[index];
+    if (cached != null && cached.length() == length && input.regionMatches(start, cached, 0, length)) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    var string = input.substring(start, end);
+    table[index] = string;
+    return string;
+  }
+
+  /**
+   * Returns a string equals to the UTF-8 bytes of the {@code segment} between {@code start} and {@code end},
+   * the canonical one if it is already in the cache.
+   * Only ASCII strings are cached, so the bytes can be compared to the characters of the cached string.
+   *
+   * @param segment the memory segment containing the UTF-8 bytes.
+   * @param start the start offset, inclusive.
+   * @param end the end offset, exclusive.
+   * @return a string equals to decoded bytes.
+   */
+  String intern(MemorySegment segment, long start, long end) {
+    var length = end - start;
+    if (length > maxLength) {
+      return decode(segment, start, end);
+    }
+    var hash = 0;
+    for (var offset = start; offset < end; offset++) {
+      var b = segment.get(JAVA_BYTE, offset);
+      if (b < 0) {  // not ASCII
+        return decode(segment, start, end);
+      }
+      hash = 31 * hash + b;
+    }
+    var index = (hash ^ (hash >>> 16)) & (table.length - 1);
+    var cached = table[index];
+    if (cached != null && cached.length() == length && regionMatches(segment, start, cached)) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    var string = decode(segment, start, end);
+    table[index] = string;
+    return string;
+  }
+
+  private static boolean regionMatches(MemorySegment segment, long start, String cached) {
+    for (var i = 0; i < cached.length(); i++) {
+      if (segment.get(JAVA_BYTE, start + i) != cached.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String decode(MemorySegment segment, long start, long end) {
+    return new String(segment.asSlice(start, end - start).toArray(JAVA_BYTE), UTF_8);
+  }
+}
@@ -0,0 +1,272 @@
+package com.github.forax.framework.mapper;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The built-in codecs of {@link Instant}, {@link LocalDate} and {@link LocalDateTime}.
+ *
+ * The ISO-8601 text is written digit by digit directly into the output builder and parsed
+ * character by character from the input string, without a {@link java.time.format.DateTimeFormatter},
+ * the text is the same as the one of {@code toString()}.
+ * The years outside [0, 9999] and the texts not in the canonical format (offsets, etc)
+ * are delegated to {@code toString()} and {@code parse()}.
+ */
+final class TimeCodecs {
+  private TimeCodecs() {
+    throw new AssertionError();
+  }
+
+  private static final int SECONDS_PER_DAY = 86_400;
+
+  static final Codec<Instant> INSTANT = new Codec<>() {
+    @Override
+    public void encode(Instant value, StringBuilder builder) {
+      var epochSecond = value.getEpochSecond();
+      var epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+      var secondOfDay = Math.floorMod(epochSecond, SECONDS_PER_DAY);
+      var date = civilFromDays(epochDay);
+      var year = (int) (date >> 32);
+      if (year < 0 || year > 9999) {
+        builder.append('"').append(value).append('"');
+        return;
+      }
+      builder.append('"');
+      appendDate(builder, year, (int) (date >> 8) & 0xFF, (int) date & 0xFF);
+      builder.append('T');
+      appendTime(builder, secondOfDay / 3_600, secondOfDay / 60 % 60, secondOfDay % 60, value.getNano(), false);
+      builder.append("Z\"");
+    }
+
+    @Override
+    public Instant decode(Object value) {
+      var text = text(Instant.class, value);
+      var length = text.length();
+      if (length >= 20 && text.charAt(length - 1) == 'Z') {
+        var epochDay = parseEpochDay(text);
+        var nano = text.charAt(10) == 'T' ? parseTime(text, 11, length - 1, true) : -1;
+        if (epochDay != Long.MIN_VALUE && nano != -1) {
+          var secondOfDay = digits(text, 11, 2) * 3_600 + digits(text, 14, 2) * 60 + digits(text, 17, 2);
+          return Instant.ofEpochSecond(epochDay * SECONDS_PER_DAY + secondOfDay, nano);
+        }
+      }
+      return Instant.parse(text);
+    }
+  };
+
+  static final Codec<LocalDate> LOCAL_DATE = new Codec<>() {
+    @Override
+    public void encode(LocalDate value, StringBuilder builder) {
+      var year = value.getYear();
+      if (year < 0 || year > 9999) {
+        builder.append('"').append(value).append('"');
+        return;
+      }
+      builder.append('"');
+      appendDate(builder, year, value.getMonthValue(), value.getDayOfMonth());
+      builder.append('"');
+    }
+
+    @Override
+    public LocalDate decode(Object value) {
+      var text = text(LocalDate.class, value);
+      if (text.length() == 10) {
+        var year = digits(text, 0, 4);
+        var month = digits(text, 5, 2);
+        var day = digits(text, 8, 2);
+        if (year != -1 && month != -1 && day != -1 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+          try {
+            return LocalDate.of(year, month, day);
+          } catch (DateTimeException e) {
+            // let parse() report the error
+          }
+        }
+      }
+      return LocalDate.parse(text);
+    }
+  };
+
+  static final Codec<LocalDateTime> LOCAL_DATE_TIME = new Codec<>() {
+    @Override
+    public void encode(LocalDateTime value, StringBuilder builder) {
+      var year = value.getYear();
+      if (year < 0 || year > 9999) {
+        builder.append('"').append(value).append('"');
+        return;
+      }
+      builder.append('"');
+      appendDate(builder, year, value.getMonthValue(), value.getDayOfMonth());
+      builder.append('T');
+      appendTime(builder, value.getHour(), value.getMinute(), value.getSecond(), value.getNano(), true);
+      builder.append('"');
+    }
+
+    @Override
+    public LocalDateTime decode(Object value) {
+      var text = text(LocalDateTime.class, value);
+      var length = text.length();
+      if (length >= 16 && text.charAt(10) == 'T') {
+        var year = digits(text, 0, 4);
+        var month = digits(text, 5, 2);
+        var day = digits(text, 8, 2);
+        var nano = parseTime(text, 11, length, false);
+        if (year != -1 && month != -1 && day != -1 && text.charAt(4) == '-' && text.charAt(7) == '-' && nano != -1) {
+          var second = length == 16 ? 0 : digits(text, 17, 2);
+          try {
+            return LocalDateTime.of(year, month, day, digits(text, 11, 2), digits(text, 14, 2), second, nano);
+          } catch (DateTimeException e) {
+            // let parse() report the error
+          }
+        }
+      }
+      return LocalDateTime.parse(text);
+    }
+  };
+
+  private static String text(Class<?> type, Object value) {
+    if (!(value instanceof String text)) {
+      throw new IllegalStateException("expect a string for " + type.getName() + " but was " + value);
+    }
+    return text;
+  }
+
+  private static void append2(StringBuilder builder, int value) {
+    builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+  }
+
+  private static void appendDigits(StringBuilder builder, int value, int count) {
+    for (var divisor = pow10(count - 1); divisor > 0; divisor /= 10) {
+      builder.append((char) ('0' + value / divisor % 10));
+    }
+  }
+
+  private static int pow10(int exponent) {
+    var value = 1;
+    for (var i = 0; i < exponent; i++) {
+      value *= 10;
+    }
+    return value;
+  }
+
+  private static void appendDate(StringBuilder builder, int year, int month, int day) {
+    appendDigits(builder, year, 4);
+    builder.append('-');
+    append2(builder, month);
+    builder.append('-');
+    append2(builder, day);
+  }
+
+  // same format as LocalTime.toString(), the fraction is written by groups of 3 digits
+  private static void appendTime(StringBuilder builder, int hour, int minute, int second, int nano, boolean omitZeroSecond) {
+    append2(builder, hour);
+    builder.append(':');
+    append2(builder, minute);
+    if (omitZeroSecond && second == 0 && nano == 0) {
+      return;
+    }
+    builder.append(':');
+    append2(builder, second);
+    if (nano == 0) {
+      return;
+    }
+    builder.append('.');
+    if (nano % 1_000_000 == 0) {
+      appendDigits(builder, nano / 1_000_000, 3);
+    } else if (nano % 1_000 == 0) {
+      appendDigits(builder, nano / 1_000, 6);
+    } else {
+      appendDigits(builder, nano, 9);
+    }
+  }
+
+  // returns the value of count digits starting at start or -1
+  private static int digits(String text, int start, int count) {
+    var value = 0;
+    for (var i = start; i < start + count; i++) {
+      var digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  // parse HH:MM[:SS[.fffffffff]] between start and end, returns the nano of second or -1
+  private static int parseTime(String text, int start, int end, boolean requireSecond) {
+    var length = end - start;
+    if (length < 5 || text.charAt(start + 2) != ':') {
+      return -1;
+    }
+    var hour = digits(text, start, 2);
+    var minute = digits(text, start + 3, 2);
+    if (hour == -1 || hour > 23 || minute == -1 || minute > 59) {
+      return -1;
+    }
+    if (length == 5) {
+      return requireSecond ? -1 : 0;
+    }
+    if (length < 8 || text.charAt(start + 5) != ':') {
+      return -1;
+    }
+    var second = digits(text, start + 6, 2);
+    if (second == -1 || second > 59) {
+      return -1;
+    }
+    if (length == 8) {
+      return 0;
+    }
+    var fractionLength = length - 9;
+    if (text.charAt(start + 8) != '.' || fractionLength < 1 || fractionLength > 9) {
+      return -1;
+    }
+    var fraction = digits(text, start + 9, fractionLength);
+    return fraction == -1 ? -1 : fraction * pow10(9 - fractionLength);
+  }
+
+  // parse YYYY-MM-DD at the start of the text, returns the epoch day or Long.MIN_VALUE
+  private static long parseEpochDay(String text) {
+    var year = digits(text, 0, 4);
+    var month = digits(text, 5, 2);
+    var day = digits(text, 8, 2);
+    if (year == -1 || month < 1 || month > 12 || day < 1 || text.charAt(4) != '-' || text.charAt(7) != '-'
+        || day > lengthOfMonth(year, month)) {
+      return Long.MIN_VALUE;
+    }
+    return daysFromCivil(year, month, day);
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    return switch (month) {
+      case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+      case 4, 6, 9, 11 -> 30;
+      default -> 31;
+    };
+  }
+
+  // the algorithms of Howard Hinnant, https://howardhinnant.github.io/date_algorithms.html
+  private static long daysFromCivil(int year, int month, int day) {
+    var y = month <= 2 ? year - 1 : year;
+    var era = Math.floorDiv(y, 400);
+    var yearOfEra = y - era * 400;
+    var dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    var dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146_097L + dayOfEra - 719_468;
+  }
+
+  // returns the year in the 32 high bits, the month in bits 8-15 and the day in bits 0-7
+  private static long civilFromDays(long epochDay) {
+    var z = epochDay + 719_468;
+    var era = Math.floorDiv(z, 146_097);
+    var dayOfEra = z - era * 146_097;
+    var yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+    var dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    var mp = (5 * dayOfYear + 2) / 153;
+    var day = dayOfYear - (153 * mp + 2) / 5 + 1;
+    var month = mp < 10 ? mp + 3 : mp - 9;
+    var year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+    return year << 32 | month << 8 | day;
+  }
+}
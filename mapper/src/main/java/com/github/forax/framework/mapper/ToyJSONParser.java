@@ -1,13 +1,15 @@
 package com.github.forax.framework.mapper;
 
 import static java.lang.Double.parseDouble;
-import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
 import static java.util.regex.Pattern.compile;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.IntStream.rangeClosed;
 import static com.github.forax.framework.mapper.ToyJSONParser.Kind.*;
 
+import java.lang.foreign.MemorySegment;
 import java.util.Arrays;
+import java.util.function.LongConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,8 +28,8 @@ class ToyJSONParser {
     NULL("(null)"),
     TRUE("(true)"),
     FALSE("(false)"),
-    DOUBLE("([0-9]*\\.[0-9]*)"),
-    INTEGER("([0-9]+)"),
+    DOUBLE("(-?[0-9]*\\.[0-9]*)"),
+    INTEGER("(-?[0-9]+)"),
     STRING("\"([^\\\"]*)\""),
     LEFT_CURLY("(\\{)"),
     RIGHT_CURLY("(\\})"),
@@ -60,23 +62,43 @@ class ToyJSONParser {
     }
 
     public IllegalStateException error(Kind... expectedKinds) {
-      return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind + " at " + location);
+      return new IllegalStateException("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind);
     }
   }
 
-  private record Lexer(Matcher matcher) {
+  private static final class Lexer {
+    private final String input;
+    private final Matcher matcher;
+    private final StringCache stringCache;
+    private int location;  // start of the current token or end of the last match, used to locate the errors
+
+    private Lexer(String input, Matcher matcher, StringCache stringCache) {
+      this.input = input;
+      this.matcher = matcher;
+      this.stringCache = stringCache;
+    }
+
     private Token next() {
       for(;;) {
         if (!matcher.find()) {
           throw new IllegalStateException("no token recognized");
         }
+        location = matcher.end();
         var index = rangeClosed(1, matcher.groupCount()).filter(i -> matcher.group(i) != null).findFirst().orElseThrow();
         var kind = Kind.VALUES[index - 1];
         if (kind != Kind.BLANK) {
-          return new Token(kind, matcher.group(index), matcher.start(index));
+          location = matcher.start(index);
+          return new Token(kind, text(kind, index), location);
         }
       }
     }
+
+    private String text(Kind kind, int index) {
+      if (kind == STRING && stringCache != null) {
+        return stringCache.intern(input, matcher.start(index), matcher.end(index));
+      }
+      return matcher.group(index);
+    }
   }
 
   /**
@@ -92,6 +114,39 @@ class ToyJSONParser {
      */
     void value(String key, Object value);
 
+    /**
+     * Called during the parsing for an integer value that fits in an int,
+     * by default calls {@link #value(String, Object)} with the boxed value.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void intValue(String key, int value) {
+      value(key, (Integer) value);
+    }
+
+    /**
+     * Called during the parsing for an integer value that does not fit in an int,
+     * by default calls {@link #value(String, Object)} with the boxed value.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void longValue(String key, long value) {
+      value(key, (Long) value);
+    }
+
+    /**
+     * Called during the parsing for a decimal value,
+     * by default calls {@link #value(String, Object)} with the boxed value.
+     *
+     * @param key the key of the value if inside an object, {@code null} otherwise.
+     * @param value the value
+     */
+    default void doubleValue(String key, double value) {
+      value(key, (Double) value);
+    }
+
     /**
      * Called during the parsing at the beginning of an object.
      * @param key the key of the value if inside an object, {@code null} otherwise.
@@ -134,11 +189,25 @@ class ToyJSONParser {
    * @param visitor the visitor to call when parsing the JSON text
    */
   public static void parse(String input, JSONVisitor visitor) {
-    var lexer = new Lexer(PATTERN.matcher(input));
+    parse(input, visitor, null);
+  }
+
+  /**
+   * Parse a JSON text and calls the visitor methods when an array, an object or a value is parsed,
+   * the string keys and values are deduplicated using a {@link StringCache}.
+   *
+   * @param input a JSON text
+   * @param visitor the visitor to call when parsing the JSON text
+   * @param stringCache the cache used to find the canonical strings or {@code null}
+   * @throws JSONParseException if the text is not valid or the visitor throws an {@link IllegalStateException}
+   */
+  public static void parse(String input, JSONVisitor visitor, StringCache stringCache) {
+    var lexer = new Lexer(input, PATTERN.matcher(input), stringCache);
     try {
       parse(lexer, visitor);
     } catch(IllegalStateException e) {
-      throw new IllegalStateException(e.getMessage() + "\n while parsing " + input, e);
+      // the message is built lazily from a bounded window of the input
+      throw JSONParseException.of(e.getMessage(), input, lexer.location, e);
     }
   }
 
@@ -162,8 +231,15 @@ class ToyJSONParser {
       case NULL -> visitor.value(currentKey, null);
       case FALSE -> visitor.value(currentKey, false);
       case TRUE -> visitor.value(currentKey, true);
-      case INTEGER -> visitor.value(currentKey, parseInt(token.text));
-      case DOUBLE -> visitor.value(currentKey, parseDouble(token.text));
+      case INTEGER -> {
+        var value = longValue(token.text);
+        if (value == (int) value) {
+          visitor.intValue(currentKey, (int) value);
+        } else {
+          visitor.longValue(currentKey, value);
+        }
+      }
+      case DOUBLE -> visitor.doubleValue(currentKey, parseDouble(token.text));
       case STRING -> visitor.value(currentKey, token.text);
       case LEFT_CURLY -> {
         visitor.startObject(currentKey);
@@ -177,6 +253,14 @@ class ToyJSONParser {
     }
   }
 
+  private static long longValue(String text) {
+    try {
+      return parseLong(text);
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException("integer overflow", e);
+    }
+  }
+
   private static void parseObject(String currentKey, Lexer lexer, JSONVisitor visitor) {
     var token = lexer.next();
     if (token.is(RIGHT_CURLY)) {
@@ -215,4 +299,153 @@ class ToyJSONParser {
       token = lexer.next();
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Parse a UTF-8 encoded JSON text stored in a memory segment and calls the visitor methods
+   * when an array, an object or a value is parsed.
+   * The segment is read using long offsets, so it can be a memory mapped file larger than 2 GB.
+   *
+   * @param input a memory segment containing a JSON text encoded in UTF-8
+   * @param visitor the visitor to call when parsing the JSON text
+   * @param stringCache the cache used to find the canonical strings or {@code null}
+   * @throws JSONParseException if the text is not valid or the visitor throws an {@link IllegalStateException}
+   */
+  public static void parse(MemorySegment input, JSONVisitor visitor, StringCache stringCache) {
+    var lexer = new SegmentLexer(input);
+    try {
+      parse(lexer, visitor, stringCache);
+    } catch (JSONParseException e) {
+      throw e;
+    } catch (IllegalStateException e) {  // thrown by the visitor
+      throw lexer.error(e.getMessage(), e);
+    }
+    if (lexer.hasNext()) {
+      lexer.next();
+      throw lexer.error("unexpected token");
+    }
+  }
+
+  /**
+   * Parse a sequence of UTF-8 encoded JSON texts separated by blanks or newlines
+   * (newline delimited JSON) stored in a memory segment.
+   * The visitor is called for each JSON text in sequence.
+   *
+   * @param input a memory segment containing JSON texts encoded in UTF-8
+   * @param visitor the visitor to call when parsing the JSON texts
+   * @param stringCache the cache used to find the canonical strings or {@code null}
+   *
+   * @see #parse(MemorySegment, JSONVisitor, StringCache)
+   */
+  public static void parseAll(MemorySegment input, JSONVisitor visitor, StringCache stringCache) {
+    parseAll(input, visitor, stringCache, __ -> {});
+  }
+
+  /**
+   * Parse a sequence of JSON texts like {@link #parseAll(MemorySegment, JSONVisitor, StringCache)}
+   * and calls {@code documentEnd} with the offset after each JSON text.
+   */
+  static void parseAll(MemorySegment input, JSONVisitor visitor, StringCache stringCache, LongConsumer documentEnd) {
+    var lexer = new SegmentLexer(input);
+    try {
+      while (lexer.hasNext()) {
+        parse(lexer, visitor, stringCache);
+        documentEnd.accept(lexer.position());
+      }
+    } catch (JSONParseException e) {
+      throw e;
+    } catch (IllegalStateException e) {  // thrown by the visitor
+      throw lexer.error(e.getMessage(), e);
+    }
+  }
+
+  private static IllegalStateException error(SegmentLexer lexer, Kind kind, Kind... expectedKinds) {
+    return lexer.error("expect " + Arrays.stream(expectedKinds).map(Kind::name).collect(joining(", ")) + " but recognized " + kind);
+  }
+
+  private static void expect(SegmentLexer lexer, Kind kind, Kind expectedKind) {
+    if (kind != expectedKind) {
+      throw error(lexer, kind, expectedKind);
+    }
+  }
+
+  private static void parse(SegmentLexer lexer, JSONVisitor visitor, StringCache stringCache) {
+    var kind = lexer.next();
+    switch(kind) {
+      case LEFT_CURLY -> {
+        visitor.startObject(null);
+        parseObject(null, lexer, visitor, stringCache);
+      }
+      case LEFT_BRACKET -> {
+        visitor.startArray(null);
+        parseArray(null, lexer, visitor, stringCache);
+      }
+      default -> throw error(lexer, kind, LEFT_CURLY, LEFT_BRACKET);
+    }
+  }
+
+  private static void parseValue(String currentKey, Kind kind, SegmentLexer lexer, JSONVisitor visitor, StringCache stringCache) {
+    switch (kind) {
+      case NULL -> visitor.value(currentKey, null);
+      case FALSE -> visitor.value(currentKey, false);
+      case TRUE -> visitor.value(currentKey, true);
+      case INTEGER -> {
+        var value = lexer.longValue();
+        if (value == (int) value) {
+          visitor.intValue(currentKey, (int) value);
+        } else {
+          visitor.longValue(currentKey, value);
+        }
+      }
+      case DOUBLE -> visitor.doubleValue(currentKey, lexer.doubleValue());
+      case STRING -> visitor.value(currentKey, lexer.stringValue(stringCache));
+      case LEFT_CURLY -> {
+        visitor.startObject(currentKey);
+        parseObject(currentKey, lexer, visitor, stringCache);
+      }
+      case LEFT_BRACKET -> {
+        visitor.startArray(currentKey);
+        parseArray(currentKey, lexer, visitor, stringCache);
+      }
+      default -> throw error(lexer, kind, NULL, FALSE, TRUE, INTEGER, DOUBLE, STRING, LEFT_BRACKET, RIGHT_CURLY);
+    }
+  }
+
+  private static void parseObject(String currentKey, SegmentLexer lexer, JSONVisitor visitor, StringCache stringCache) {
+    var kind = lexer.next();
+    if (kind == RIGHT_CURLY) {
+      visitor.endObject(currentKey);
+      return;
+    }
+    for(;;) {
+      expect(lexer, kind, STRING);
+      var key = lexer.stringValue(stringCache);
+      expect(lexer, lexer.next(), COLON);
+      parseValue(key, lexer.next(), lexer, visitor, stringCache);
+      kind = lexer.next();
+      if (kind == RIGHT_CURLY) {
+        visitor.endObject(currentKey);
+        return;
+      }
+      expect(lexer, kind, COMMA);
+      kind = lexer.next();
+    }
+  }
+
+  private static void parseArray(String currentKey, SegmentLexer lexer, JSONVisitor visitor, StringCache stringCache) {
+    var kind = lexer.next();
+    if (kind == RIGHT_BRACKET) {
+      visitor.endArray(currentKey);
+      return;
+    }
+    for(;;) {
+      parseValue(null, kind, lexer, visitor, stringCache);
+      kind = lexer.next();
+      if (kind == RIGHT_BRACKET) {
+        visitor.endArray(currentKey);
+        return;
+      }
+      expect(lexer, kind, COMMA);
+      kind = lexer.next();
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BufferPoolTest {
+  @Test
+  public void acquireRelease() {
+    var pool = new BufferPool<>(4, StringBuilder::new, StringBuilder::capacity, 1_024);
+    var builder = pool.acquire();
+    pool.release(builder);
+    assertAll(
+        () -> assertEquals(1, pool.available()),
+        () -> assertSame(builder, pool.acquire()),
+        () -> assertEquals(0, pool.available())
+    );
+  }
+
+  @Test
+  public void acquireEmptyPool() {
+    var pool = new BufferPool<>(2, StringBuilder::new, StringBuilder::capacity, 1_024);
+    assertNotSame(pool.acquire(), pool.acquire());
+  }
+
+  @Test
+  public void releaseFullPool() {
+    var pool = new BufferPool<>(2, StringBuilder::new, StringBuilder::capacity, 1_024);
+    pool.release(new StringBuilder());
+    pool.release(new StringBuilder());
+    pool.release(new StringBuilder());
+    assertEquals(2, pool.available());
+  }
+
+  @Test
+  public void releaseTooLargeBuffer() {
+    var pool = new BufferPool<>(2, () -> new byte[16], buffer -> buffer.length, 1_024);
+    pool.release(new byte[2_048]);
+    assertEquals(0, pool.available());
+  }
+
+  @Test
+  public void invalidSize() {
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> new BufferPool<>(0, StringBuilder::new, StringBuilder::capacity, 1_024)),
+        () -> assertThrows(IllegalArgumentException.class, () -> new BufferPool<>(3, StringBuilder::new, StringBuilder::capacity, 1_024))
+    );
+  }
+
+  @Test
+  public void neverSharedBetweenThreads() throws Exception {
+    var pool = new BufferPool<>(4, StringBuilder::new, StringBuilder::capacity, 1_024);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = new ArrayList<Future<Boolean>>();
+      for (var i = 0; i < 1_000; i++) {
+        var text = "thread " + i;
+        futures.add(executor.submit(() -> {
+          var builder = pool.acquire();
+          try {
+            for (var j = 0; j < 100; j++) {
+              builder.setLength(0);
+              builder.append(text);
+              Thread.yield();
+              if (!builder.toString().equals(text)) {
+                return false;
+              }
+            }
+            return true;
+          } finally {
+            pool.release(builder);
+          }
+        }));
+      }
+      for (var future : futures) {
+        assertTrue(future.get());
+      }
+    }
+    assertTrue(pool.available() <= 4);
+  }
+
+  public record Point(int x, int y) {}
+
+  @Test
+  public void sharedWriter() throws Exception {
+    var writer = new JSONWriter();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = IntStream.range(0, 1_000)
+          .mapToObj(i -> executor.submit(() -> writer.toJSON(new Point(i, -i))))
+          .toList();
+      for (var i = 0; i < futures.size(); i++) {
+        assertEquals("{\"x\": " + i + ", \"y\": " + -i + "}", futures.get(i).get());
+      }
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CBORReaderTest {
+  public record Address(String street, long zipCode) {}
+  public record Person(@JSONProperty("first-name") String firstName, int age, double weight, boolean vip, Address address) {}
+
+  @Test
+  public void parseCBORRecord() {
+    var writer = new CBORWriter();
+    var reader = new CBORReader();
+    var person = new Person("Bob", -23, 72.5, true, new Address("21 Jump Street", 75_001L));
+    assertEquals(person, reader.parseCBOR(writer.toCBOR(person), Person.class));
+  }
+
+  @Test
+  public void parseCBORRecordWithNull() {
+    var writer = new CBORWriter();
+    var reader = new CBORReader();
+    var person = reader.parseCBOR(writer.toCBOR(new Person(null, 0, 0, false, null)), Person.class);
+    assertAll(
+        () -> assertNull(person.firstName()),
+        () -> assertNull(person.address())
+    );
+  }
+
+  @SuppressWarnings("unused")
+  public static class Bean {
+    private String name;
+    private int count;
+
+    public String getName() {
+      return name;
+    }
+    public void setName(String name) {
+      this.name = name;
+    }
+    public int getCount() {
+      return count;
+    }
+    public void setCount(int count) {
+      this.count = count;
+    }
+  }
+
+  @Test
+  public void parseCBORBean() {
+    var bean = new Bean();
+    bean.setName("foo");
+    bean.setCount(42);
+    var writer = new CBORWriter();
+    var reader = new CBORReader();
+    var result = reader.parseCBOR(writer.toCBOR(bean), Bean.class);
+    assertAll(
+        () -> assertEquals("foo", result.name),
+        () -> assertEquals(42, result.count)
+    );
+  }
+
+  @Test
+  public void parseCBORPrimitive() {
+    var reader = new CBORReader();
+    assertAll(
+        () -> assertEquals(3, reader.parseCBOR(HexFormat.of().parseHex("03"), Integer.class)),
+        () -> assertEquals(500, reader.parseCBOR(HexFormat.of().parseHex("1901f4"), Integer.class)),
+        () -> assertEquals(-10, reader.parseCBOR(HexFormat.of().parseHex("3a00000009"), Integer.class)),
+        () -> assertEquals(3L, reader.parseCBOR(HexFormat.of().parseHex("1b0000000000000003"), Long.class)),
+        () -> assertEquals("foo", reader.parseCBOR(HexFormat.of().parseHex("63666f6f"), String.class))
+    );
+  }
+
+  @Test
+  public void parseCBORInvalid() {
+    var reader = new CBORReader();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(new byte[0], Integer.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(HexFormat.of().parseHex("1a0000"), Integer.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(HexFormat.of().parseHex("0303"), Integer.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(HexFormat.of().parseHex("a163666f6f01"), Bean.class))
+    );
+  }
+
+  public enum Status { NEW, @JSONProperty("in-progress") IN_PROGRESS }
+  public sealed interface Payment permits Card, Cash {}
+  public record Card(String number) implements Payment {}
+  public record Cash() implements Payment {}
+  public record Order(UUID id, Instant date, Status status, BigDecimal price, Payment payment) {}
+
+  @Test
+  public void parseCBORCodecEnumAndVariant() {
+    var writer = new CBORWriter();
+    var reader = new CBORReader();
+    var order1 = new Order(UUID.randomUUID(), Instant.parse("2020-01-01T10:15:30.123Z"), Status.IN_PROGRESS,
+        new BigDecimal("12.5"), new Card("1234"));
+    var order2 = new Order(UUID.randomUUID(), Instant.EPOCH, Status.NEW, new BigDecimal("3"), new Cash());
+    assertAll(
+        () -> assertEquals(order1, reader.parseCBOR(writer.toCBOR(order1), Order.class)),
+        () -> assertEquals(order2, reader.parseCBOR(writer.toCBOR(order2), Order.class)),
+        () -> assertEquals(Status.NEW, reader.parseCBOR(writer.toCBOR(Status.NEW), Status.class)),
+        () -> assertEquals(new Card("1234"), reader.parseCBOR(writer.toCBOR(new Card("1234")), Payment.class)),
+        () -> assertEquals(new Card("1234"), reader.parseCBOR(writer.toCBOR(new Card("1234")), Card.class))
+    );
+  }
+
+  public record Money(long cents) {}
+  public record Invoice(Money total) {}
+
+  @Test
+  public void parseCBORRegisteredCodec() {
+    var codec = new Codec<Money>() {
+      @Override
+      public void encode(Money value, StringBuilder builder) {
+        builder.append(value.cents());
+      }
+
+      @Override
+      public Money decode(Object value) {
+        return new Money(((Number) value).longValue());
+      }
+    };
+    var writer = new CBORWriter();
+    writer.registerCodec(Money.class, codec);
+    var reader = new CBORReader();
+    reader.registerCodec(Money.class, codec);
+    var invoice = new Invoice(new Money(1_250));
+    var bytes = writer.toCBOR(invoice);
+    assertAll(
+        () -> assertEquals("a1" + "65746f74616c" + "1a000004e2", HexFormat.of().formatHex(bytes)),
+        () -> assertEquals(invoice, reader.parseCBOR(bytes, Invoice.class))
+    );
+  }
+
+  @Test
+  public void parseCBORInvalidVariant() {
+    var writer = new CBORWriter();
+    var reader = new CBORReader();
+    assertAll(
+        // no discriminator
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(HexFormat.of().parseHex("a0"), Payment.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(writer.toCBOR(new Address("a", 1)), Payment.class)),
+        // unknown enum constant
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(writer.toCBOR("DONE"), Status.class)),
+        // another variant
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(writer.toCBOR(new Cash()), Card.class))
+    );
+  }
+
+  public record Team(List<String> tags, int[] scores, List<Long> ids, Address[] addresses, List<List<Status>> statuses) {}
+
+  @Test
+  public void parseCBORArraysAndLists() {
+    var writer = new CBORWriter();
+    var reader = new CBORReader();
+    var team = new Team(Arrays.asList("a", null), new int[] { 1, -2, 3 }, List.of(4L, 5L),
+        new Address[] { new Address("a", 1) }, List.of(List.of(Status.NEW), List.of()));
+    var result = reader.parseCBOR(writer.toCBOR(team), Team.class);
+    assertAll(
+        () -> assertEquals(team.tags(), result.tags()),
+        () -> assertArrayEquals(team.scores(), result.scores()),
+        () -> assertEquals(team.ids(), result.ids()),
+        () -> assertArrayEquals(team.addresses(), result.addresses()),
+        () -> assertEquals(team.statuses(), result.statuses()),
+        () -> assertArrayEquals(new long[] { 1, 2 }, reader.parseCBOR(writer.toCBOR(List.of(1, 2)), long[].class))
+    );
+  }
+
+  @Test
+  public void parseCBORInvalidArrays() {
+    var writer = new CBORWriter();
+    var reader = new CBORReader();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(writer.toCBOR(List.of("foo")), int[].class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(writer.toCBOR(List.of(1)), String.class)),
+        () -> assertThrows(IllegalStateException.class, () -> reader.parseCBOR(HexFormat.of().parseHex("82" + "01"), int[].class))
+    );
+  }
+
+  @Test
+  public void parseCBORPreconditions() {
+    var reader = new CBORReader();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> reader.parseCBOR(null, Bean.class)),
+        () -> assertThrows(NullPointerException.class, () -> reader.parseCBOR(new byte[0], null))
+    );
+  }
+}
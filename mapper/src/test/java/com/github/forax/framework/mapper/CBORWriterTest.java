@@ -0,0 +1,115 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CBORWriterTest {
+  private static String hex(byte[] bytes) {
+    return HexFormat.of().formatHex(bytes);
+  }
+
+  @Test
+  public void toCBORPrimitive() {
+    var writer = new CBORWriter();
+    assertAll(
+        () -> assertEquals("f6", hex(writer.toCBOR(null))),
+        () -> assertEquals("f5", hex(writer.toCBOR(true))),
+        () -> assertEquals("f4", hex(writer.toCBOR(false))),
+        () -> assertEquals("1a00000003", hex(writer.toCBOR(3))),
+        () -> assertEquals("3a00000009", hex(writer.toCBOR(-10))),
+        () -> assertEquals("1b0000000000000003", hex(writer.toCBOR(3L))),
+        () -> assertEquals("fb4010000000000000", hex(writer.toCBOR(4.0))),
+        () -> assertEquals("63666f6f", hex(writer.toCBOR("foo"))),
+        () -> assertEquals("62c3a9", hex(writer.toCBOR("é")))
+    );
+  }
+
+  public record Person(@JSONProperty("first-name") String firstName, int age) {}
+
+  @Test
+  public void toCBORRecord() {
+    var writer = new CBORWriter();
+    assertEquals(
+        "a2" + "6a66697273742d6e616d65" + "63426f62" + "63616765" + "1a00000017",
+        hex(writer.toCBOR(new Person("Bob", 23))));
+  }
+
+  public static final class Car {
+    private final String owner;
+
+    public Car(String owner) {
+      this.owner = owner;
+    }
+
+    public String getOwner() {
+      return owner;
+    }
+  }
+
+  @Test
+  public void toCBORBean() {
+    var writer = new CBORWriter();
+    assertEquals("a1" + "656f776e6572" + "634d6178", hex(writer.toCBOR(new Car("Max"))));
+  }
+
+  @Test
+  public void toCBORArray() {
+    var writer = new CBORWriter();
+    assertAll(
+        () -> assertEquals("82" + "1a00000001" + "1a00000002", hex(writer.toCBOR(new int[] { 1, 2 }))),
+        () -> assertEquals("82" + "63666f6f" + "f6", hex(writer.toCBOR(new String[] { "foo", null }))),
+        () -> assertEquals("81" + "80", hex(writer.toCBOR(List.of(List.of()))))
+    );
+  }
+
+  @Test
+  public void toCBORLongString() {
+    var writer = new CBORWriter();
+    var bytes = writer.toCBOR("a".repeat(300));
+    assertAll(
+        () -> assertEquals(303, bytes.length),
+        () -> assertEquals("79012c", hex(bytes).substring(0, 6))
+    );
+  }
+
+  public enum Color { RED, @JSONProperty("dark-blue") BLUE }
+
+  @Test
+  public void toCBOREnum() {
+    var writer = new CBORWriter();
+    assertAll(
+        () -> assertEquals("63524544", hex(writer.toCBOR(Color.RED))),
+        () -> assertEquals("696461726b2d626c7565", hex(writer.toCBOR(Color.BLUE)))
+    );
+  }
+
+  @Test
+  public void toCBORCodec() {
+    var writer = new CBORWriter();
+    var uuid = UUID.randomUUID();
+    assertAll(
+        () -> assertEquals(hex(writer.toCBOR(uuid.toString())), hex(writer.toCBOR(uuid))),
+        () -> assertEquals(hex(writer.toCBOR("2020-01-01T00:00:00Z")), hex(writer.toCBOR(Instant.parse("2020-01-01T00:00:00Z")))),
+        () -> assertEquals(hex(writer.toCBOR(12.5)), hex(writer.toCBOR(new BigDecimal("12.5"))))
+    );
+  }
+
+  public sealed interface Shape permits Circle {}
+  public record Circle(int radius) implements Shape {}
+
+  @Test
+  public void toCBORVariant() {
+    var writer = new CBORWriter();
+    assertEquals(
+        "a2" + "654074797065" + "66436972636c65" + "66726164697573" + "1a00000002",
+        hex(writer.toCBOR(new Circle(2))));
+  }
+}
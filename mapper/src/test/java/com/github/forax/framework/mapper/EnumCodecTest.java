@@ -0,0 +1,157 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.foreign.MemorySegment;
+import java.time.DayOfWeek;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EnumCodecTest {
+  public enum Status {
+    @JSONProperty("in-progress") IN_PROGRESS,
+    @JSONProperty("téléphone") PHONE,
+    DONE {
+      @Override
+      public String toString() {
+        return "done";
+      }
+    }
+  }
+
+  public enum Empty { }
+
+  public enum Duplicate {
+    @JSONProperty("B") A,
+    B
+  }
+
+  public enum SameHash { Aa, BB, AaAa, AaBB, BBAa, BBBB }
+
+  public record Task(String name, Status status) { }
+
+  @Test
+  public void encode() {
+    var codec = EnumCodec.of(Status.class);
+    var builder = new StringBuilder();
+    codec.encode(Status.IN_PROGRESS, builder);
+    codec.encode(Status.PHONE, builder);
+    codec.encode(Status.DONE, builder);
+    assertEquals("\"in-progress\"\"téléphone\"\"DONE\"", builder.toString());
+  }
+
+  @Test
+  public void quotedBytes() {
+    var codec = EnumCodec.of(Status.class);
+    assertAll(
+        () -> assertArrayEquals("\"in-progress\"".getBytes(UTF_8), codec.quotedBytes(Status.IN_PROGRESS)),
+        () -> assertArrayEquals("\"téléphone\"".getBytes(UTF_8), codec.quotedBytes(Status.PHONE))
+    );
+  }
+
+  @Test
+  public void decode() {
+    var codec = EnumCodec.of(Status.class);
+    assertAll(
+        () -> assertSame(Status.IN_PROGRESS, codec.decode("in-progress")),
+        () -> assertSame(Status.PHONE, codec.decode("téléphone")),
+        () -> assertSame(Status.DONE, codec.decode("DONE")),
+        () -> assertThrows(IllegalStateException.class, () -> codec.decode("IN_PROGRESS")),
+        () -> assertThrows(IllegalStateException.class, () -> codec.decode("DON")),
+        () -> assertThrows(IllegalStateException.class, () -> codec.decode("")),
+        () -> assertThrows(IllegalStateException.class, () -> codec.decode(1))
+    );
+  }
+
+  @Test
+  public void lookupSegment() {
+    var codec = EnumCodec.of(Status.class);
+    var segment = MemorySegment.ofArray("[\"in-progress\", \"téléphone\", \"DONE\"]".getBytes(UTF_8));
+    assertAll(
+        () -> assertSame(Status.IN_PROGRESS, codec.lookup(segment, 2, 13)),
+        () -> assertSame(Status.PHONE, codec.lookup(segment, 17, 28)),
+        () -> assertSame(Status.DONE, codec.lookup(segment, 32, 36)),
+        () -> assertNull(codec.lookup(segment, 32, 35)),
+        () -> assertNull(codec.lookup(segment, 1, 13))
+    );
+  }
+
+  @Test
+  public void lookupAllConstants() {
+    lookupAllConstants(TimeUnit.class);
+    lookupAllConstants(DayOfWeek.class);
+    lookupAllConstants(ChronoUnit.class);
+    lookupAllConstants(ElementType.class);
+    lookupAllConstants(Thread.State.class);
+    lookupAllConstants(Character.UnicodeScript.class);
+    lookupAllConstants(Empty.class);
+    lookupAllConstants(SameHash.class);
+  }
+
+  private static <E extends Enum<E>> void lookupAllConstants(Class<E> type) {
+    var codec = EnumCodec.of(type);
+    for (var constant : type.getEnumConstants()) {
+      var bytes = constant.name().getBytes(UTF_8);
+      assertAll(
+          () -> assertSame(constant, codec.lookup(constant.name())),
+          () -> assertSame(constant, codec.lookup(MemorySegment.ofArray(bytes), 0, bytes.length)),
+          () -> assertNull(codec.lookup(constant.name().toLowerCase()))
+      );
+    }
+  }
+
+  @Test
+  public void sameStringHashCode() {
+    var codec = EnumCodec.of(SameHash.class);
+    var builder = new StringBuilder();
+    codec.encode(SameHash.BB, builder);
+    assertAll(
+        () -> assertEquals("Aa".hashCode(), "BB".hashCode()),
+        () -> assertEquals("\"BB\"", builder.toString()),
+        () -> assertSame(SameHash.Aa, codec.decode("Aa")),
+        () -> assertSame(SameHash.BBAa, codec.decode("BBAa"))
+    );
+  }
+
+  @Test
+  public void cachedPerClass() {
+    assertSame(EnumCodec.of(Status.class), EnumCodec.of(Status.class));
+  }
+
+  @Test
+  public void duplicateName() {
+    assertThrows(IllegalStateException.class, () -> EnumCodec.of(Duplicate.class));
+  }
+
+  @Test
+  public void preconditions() {
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> EnumCodec.of(null)),
+        () -> assertThrows(IllegalArgumentException.class, () -> EnumCodec.of((Class) String.class))
+    );
+  }
+
+  @Test
+  public void roundTrip() {
+    var writer = new JSONWriter();
+    var reader = new JSONReader();
+    for (var status : Status.values()) {
+      var task = new Task("task", status);
+      var text = writer.toJSON(task);
+      assertAll(
+          () -> assertEquals(task, reader.parseJSON(text, Task.class)),
+          () -> assertEquals(text.getBytes(UTF_8).length, writer.sizeOf(task))
+      );
+    }
+    assertEquals("{\"name\": \"task\", \"status\": \"in-progress\"}", writer.toJSON(new Task("task", Status.IN_PROGRESS)));
+  }
+}
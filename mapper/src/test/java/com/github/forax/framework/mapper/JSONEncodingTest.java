@@ -0,0 +1,76 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JSONEncodingTest {
+  private static final List<String> TEXTS = List.of(
+      "", "foo", "café €", "😀", "\ud800 unpaired", "a\"b\\c", "\n\r\t\b\f\u0001\u001f", "\u007f");
+
+  @Test
+  public void encodeUTF8SameAsGetBytes() {
+    for (var text : TEXTS) {
+      var bytes = new byte[64];
+      var end = JSONEncoding.encodeUTF8(text, MemorySegment.ofArray(bytes), 3);
+      var expected = text.getBytes(UTF_8);
+      assertAll(
+          () -> assertEquals(expected.length, JSONEncoding.utf8Length(text)),
+          () -> assertEquals(3 + expected.length, end),
+          () -> assertArrayEquals(expected, Arrays.copyOfRange(bytes, 3, (int) end))
+      );
+    }
+  }
+
+  @Test
+  public void encodeQuotedSameAsAppendQuoted() {
+    for (var text : TEXTS) {
+      var builder = new StringBuilder();
+      JSONEncoding.appendQuoted(text, builder);
+      var expected = builder.toString().replace("\ud800", "?").getBytes(UTF_8);
+      var bytes = new byte[64];
+      var end = JSONEncoding.encodeQuoted(text, MemorySegment.ofArray(bytes), 0);
+      assertAll(
+          () -> assertEquals(expected.length, JSONEncoding.quotedLength(text)),
+          () -> assertArrayEquals(expected, Arrays.copyOf(bytes, (int) end))
+      );
+    }
+  }
+
+  @Test
+  public void appendQuoted() {
+    var builder = new StringBuilder();
+    JSONEncoding.appendQuoted("a\"b\\c\nd\u0001", builder);
+    assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", builder.toString());
+  }
+
+  @Test
+  public void encodeLong() {
+    for (var value : new long[] { 0, 7, -7, 10, -10, 123_456_789, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE }) {
+      var bytes = new byte[24];
+      var end = JSONEncoding.encodeLong(value, MemorySegment.ofArray(bytes), 2);
+      var expected = Long.toString(value);
+      assertAll(
+          () -> assertEquals(expected.length(), JSONEncoding.stringSize(value)),
+          () -> assertEquals(expected, new String(bytes, 2, (int) end - 2, UTF_8))
+      );
+    }
+  }
+
+  @Test
+  public void encodeSegmentTooSmall() {
+    var segment = MemorySegment.ofArray(new byte[2]);
+    assertAll(
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> JSONEncoding.encodeQuoted("foo", segment, 0)),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> JSONEncoding.encodeLong(123, segment, 0))
+    );
+  }
+}
@@ -0,0 +1,222 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.JSONPullParser.Token;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JSONPullParserTest {
+  private static ArrayList<Token> tokens(JSONPullParser parser) {
+    var tokens = new ArrayList<Token>();
+    Token token;
+    while ((token = parser.nextToken()) != null) {
+      tokens.add(token);
+    }
+    return tokens;
+  }
+
+  @Test
+  public void tokens() {
+    var parser = new JSONPullParser("""
+        { "a": [1, 2.5, "x"], "b": { "c": true, "d": false }, "e": null, "f": {}, "g": [] }
+        """);
+    assertEquals(
+        List.of(
+            Token.START_OBJECT,
+            Token.FIELD_NAME, Token.START_ARRAY, Token.INTEGER, Token.DOUBLE, Token.STRING, Token.END_ARRAY,
+            Token.FIELD_NAME, Token.START_OBJECT, Token.FIELD_NAME, Token.TRUE, Token.FIELD_NAME, Token.FALSE, Token.END_OBJECT,
+            Token.FIELD_NAME, Token.NULL,
+            Token.FIELD_NAME, Token.START_OBJECT, Token.END_OBJECT,
+            Token.FIELD_NAME, Token.START_ARRAY, Token.END_ARRAY,
+            Token.END_OBJECT),
+        tokens(parser));
+  }
+
+  @Test
+  public void values() {
+    var parser = new JSONPullParser("""
+        { "name": "Bob", "age": 42, "id": 12345678901, "score": 1.5 }
+        """);
+    assertAll(
+        () -> assertEquals(Token.START_OBJECT, parser.nextToken()),
+        () -> assertEquals(Token.FIELD_NAME, parser.nextToken()),
+        () -> assertEquals("name", parser.currentString()),
+        () -> assertEquals(Token.STRING, parser.nextToken()),
+        () -> assertEquals("Bob", parser.currentString()),
+        () -> assertEquals(Token.FIELD_NAME, parser.nextToken()),
+        () -> assertEquals(Token.INTEGER, parser.nextToken()),
+        () -> assertEquals(42, parser.currentInt()),
+        () -> assertEquals(42.0, parser.currentDouble()),
+        () -> assertEquals(Token.FIELD_NAME, parser.nextToken()),
+        () -> assertEquals(Token.INTEGER, parser.nextToken()),
+        () -> assertEquals(12345678901L, parser.currentLong()),
+        () -> assertThrows(IllegalStateException.class, parser::currentInt),
+        () -> assertEquals(Token.FIELD_NAME, parser.nextToken()),
+        () -> assertEquals(Token.DOUBLE, parser.nextToken()),
+        () -> assertEquals(1.5, parser.currentDouble()),
+        () -> assertEquals(Token.END_OBJECT, parser.nextToken()),
+        () -> assertNull(parser.nextToken())
+    );
+  }
+
+  @Test
+  public void currentStringBytes() {
+    var parser = new JSONPullParser("[\"héllo\", \"a\\nb\"]");
+    parser.nextToken();
+    parser.nextToken();
+    var bytes = parser.currentStringBytes();
+    parser.nextToken();
+    assertAll(
+        () -> assertArrayEquals("héllo".getBytes(UTF_8), bytes.toArray(JAVA_BYTE)),
+        () -> assertArrayEquals("a\\nb".getBytes(UTF_8), parser.currentStringBytes().toArray(JAVA_BYTE)),
+        () -> assertEquals("a\nb", parser.currentString())
+    );
+  }
+
+  @Test
+  public void currentTextEquals() {
+    var parser = new JSONPullParser("{ \"age\": \"été\", \"a\\u0067e\": 3 }");
+    parser.nextToken();
+    parser.nextToken();
+    assertAll(
+        () -> assertTrue(parser.currentTextEquals("age")),
+        () -> assertFalse(parser.currentTextEquals("ag")),
+        () -> assertFalse(parser.currentTextEquals("name"))
+    );
+    parser.nextToken();
+    assertTrue(parser.currentTextEquals("été"));
+    parser.nextToken();
+    assertTrue(parser.currentTextEquals("age"));
+  }
+
+  @Test
+  public void skipChildren() {
+    var parser = new JSONPullParser("""
+        { "skip": { "a": [1, [2, 3], { "b": 4 }] }, "keep": 5 }
+        """);
+    parser.nextToken();
+    parser.nextToken();
+    parser.nextToken();
+    parser.skipChildren();
+    assertAll(
+        () -> assertEquals(Token.END_OBJECT, parser.currentToken()),
+        () -> assertEquals(1, parser.depth()),
+        () -> assertEquals(Token.FIELD_NAME, parser.nextToken()),
+        () -> assertTrue(parser.currentTextEquals("keep")),
+        () -> assertEquals(Token.INTEGER, parser.nextToken()),
+        () -> assertEquals(5, parser.currentInt())
+    );
+  }
+
+  @Test
+  public void skipChildrenScalar() {
+    var parser = new JSONPullParser("[1, 2]");
+    parser.nextToken();
+    parser.nextToken();
+    parser.skipChildren();
+    assertAll(
+        () -> assertEquals(Token.INTEGER, parser.currentToken()),
+        () -> assertEquals(1, parser.currentInt())
+    );
+  }
+
+  @Test
+  public void deeplyNested() {
+    var text = "[".repeat(100) + "]".repeat(100);
+    var parser = new JSONPullParser(text);
+    assertEquals(200, tokens(parser).size());
+  }
+
+  @Test
+  public void severalValues() {
+    var parser = new JSONPullParser("{\"a\": 1}\n{\"a\": 2}\n3\n");
+    assertEquals(
+        List.of(
+            Token.START_OBJECT, Token.FIELD_NAME, Token.INTEGER, Token.END_OBJECT,
+            Token.START_OBJECT, Token.FIELD_NAME, Token.INTEGER, Token.END_OBJECT,
+            Token.INTEGER),
+        tokens(parser));
+  }
+
+  @Test
+  public void reset() {
+    var parser = new JSONPullParser("[1, ");
+    parser.nextToken();
+    parser.nextToken();
+    parser.reset("{\"x\": 7}".getBytes(UTF_8));
+    assertAll(
+        () -> assertEquals(Token.START_OBJECT, parser.nextToken()),
+        () -> assertEquals(Token.FIELD_NAME, parser.nextToken()),
+        () -> assertEquals(Token.INTEGER, parser.nextToken()),
+        () -> assertEquals(7, parser.currentInt()),
+        () -> assertEquals(Token.END_OBJECT, parser.nextToken()),
+        () -> assertNull(parser.nextToken())
+    );
+  }
+
+  @Test
+  public void memorySegment() {
+    var parser = new JSONPullParser(MemorySegment.ofArray("[true]".getBytes(UTF_8)));
+    assertEquals(List.of(Token.START_ARRAY, Token.TRUE, Token.END_ARRAY), tokens(parser));
+  }
+
+  @Test
+  public void invalid() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> tokens(new JSONPullParser("[1, ]"))),
+        () -> assertThrows(IllegalStateException.class, () -> tokens(new JSONPullParser("[1 2]"))),
+        () -> assertThrows(IllegalStateException.class, () -> tokens(new JSONPullParser("{ , }"))),
+        () -> assertThrows(IllegalStateException.class, () -> tokens(new JSONPullParser("{ \"a\" 1 }"))),
+        () -> assertThrows(IllegalStateException.class, () -> tokens(new JSONPullParser("{ 1: 1 }"))),
+        () -> assertThrows(IllegalStateException.class, () -> tokens(new JSONPullParser("[1}")))
+    );
+  }
+
+  @Test
+  public void wrongCurrentToken() {
+    var parser = new JSONPullParser("[\"a\", 1]");
+    parser.nextToken();
+    parser.nextToken();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, parser::currentInt),
+        () -> assertThrows(IllegalStateException.class, parser::currentDouble),
+        () -> assertEquals("a", parser.currentString())
+    );
+    parser.nextToken();
+    assertThrows(IllegalStateException.class, parser::currentString);
+  }
+
+  public enum Status {
+    @JSONProperty("in-progress") IN_PROGRESS,
+    DONE
+  }
+
+  @Test
+  public void currentEnum() {
+    var parser = new JSONPullParser("[\"in-progress\", \"DON\\u0045\", \"IN_PROGRESS\", 1]");
+    parser.nextToken();
+    parser.nextToken();
+    assertEquals(Status.IN_PROGRESS, parser.currentEnum(Status.class));
+    parser.nextToken();
+    assertEquals(Status.DONE, parser.currentEnum(Status.class));
+    parser.nextToken();
+    assertThrows(IllegalStateException.class, () -> parser.currentEnum(Status.class));
+    parser.nextToken();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> parser.currentEnum(Status.class)),
+        () -> assertThrows(NullPointerException.class, () -> parser.currentEnum(null))
+    );
+  }
+}
@@ -3,18 +3,38 @@ package com.github.forax.framework.mapper;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.stream.IntStream;
 
+import static java.util.stream.Collectors.joining;
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -23,7 +43,6 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JSONReaderTest {
-  /*
   @Nested
   public class Q1 {
 
@@ -212,7 +231,7 @@ public class JSONReaderTest {
 
   }  // end of Q2
 
-
+  /*
   @Nested
   public class Q3 {
 
@@ -559,4 +578,801 @@ public class JSONReaderTest {
 
   }  // end of Q7
   */
-}
\ No newline at end of file
+
+  @Nested
+  public class OrdinalMode {
+    public record Address(String street) { }
+    public record Person(String name, int age, Address address) { }
+
+    @Test
+    public void parseOrdinalJSON() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var person = new Person("Ana", 37, new Address("21 Jump Street"));
+      assertEquals(person, reader.parseOrdinalJSON(writer.toOrdinalJSON(person), Person.class));
+    }
+
+    @Test
+    public void parseOrdinalJSONWithNull() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var person = new Person(null, 0, null);
+      assertEquals(person, reader.parseOrdinalJSON(writer.toOrdinalJSON(person), Person.class));
+    }
+
+    public record PersonV2(String name, int age, Address address, String email) { }
+
+    @Test
+    public void parseOrdinalJSONSchemaMismatch() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var json = writer.toOrdinalJSON(new Person("Ana", 37, null));
+      var exception = assertThrows(IllegalStateException.class, () -> reader.parseOrdinalJSON(json, PersonV2.class));
+      assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    public void parseOrdinalJSONTooManyValues() {
+      var reader = new JSONReader();
+      var fingerprint = BeanMetadata.of(Address.class).fingerprint();
+      assertThrows(IllegalStateException.class,
+          () -> reader.parseOrdinalJSON("[\"" + fingerprint + "\", \"street\", 3]", Address.class));
+    }
+
+    public record Team(String name, List<String> tags, int[] scores, List<Address> addresses, Address[] history, List<List<Long>> ids) { }
+
+    @Test
+    public void parseOrdinalJSONArraysAndLists() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var team = new Team("blue", List.of("a", "b"), new int[] { 1, 2, 3 },
+          List.of(new Address("1 Main Street"), new Address("2 Main Street")), new Address[] { new Address("old street") },
+          List.of(List.of(1L, 2L), List.of()));
+      var result = reader.parseOrdinalJSON(writer.toOrdinalJSON(team), Team.class);
+      assertAll(
+          () -> assertEquals(team.name(), result.name()),
+          () -> assertEquals(team.tags(), result.tags()),
+          () -> assertArrayEquals(team.scores(), result.scores()),
+          () -> assertEquals(team.addresses(), result.addresses()),
+          () -> assertArrayEquals(team.history(), result.history()),
+          () -> assertEquals(team.ids(), result.ids())
+      );
+    }
+
+    @Test
+    public void parseOrdinalJSONEmptyAndNullArrays() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var team = new Team("red", List.of(), new int[0], null, null, List.of());
+      var result = reader.parseOrdinalJSON(writer.toOrdinalJSON(team), Team.class);
+      assertAll(
+          () -> assertEquals(List.of(), result.tags()),
+          () -> assertArrayEquals(new int[0], result.scores()),
+          () -> assertNull(result.addresses()),
+          () -> assertNull(result.history()),
+          () -> assertEquals(List.of(), result.ids())
+      );
+    }
+
+    @Test
+    public void parseOrdinalJSONPrecondition() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> reader.parseOrdinalJSON(null, Person.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseOrdinalJSON("", null))
+      );
+    }
+  }  // end of OrdinalMode
+
+  @Nested
+  public class SegmentInput {
+    public record Address(String street) { }
+    public record Person(String name, int age, Address address) { }
+
+    @Test
+    public void parseSegment() {
+      var reader = new JSONReader();
+      var segment = MemorySegment.ofArray("""
+          { "name": "Ana", "age": 24, "address": { "street": "21 Jump Street" } }
+          """.getBytes(StandardCharsets.UTF_8));
+      assertEquals(new Person("Ana", 24, new Address("21 Jump Street")), reader.parseSegment(segment, Person.class));
+    }
+
+    @Test
+    public void parseNDJSONMappedFile(@TempDir Path directory) throws IOException {
+      var path = directory.resolve("persons.ndjson");
+      Files.writeString(path, """
+          { "name": "Ana", "age": 24, "address": null }
+          { "name": "Bob", "age": 31, "address": { "street": "21 Jump Street" } }
+          """);
+      var reader = new JSONReader();
+      var persons = new ArrayList<Person>();
+      try (var arena = Arena.ofConfined();
+           var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        reader.parseNDJSON(segment, Person.class, persons::add);
+      }
+      assertEquals(List.of(
+          new Person("Ana", 24, null),
+          new Person("Bob", 31, new Address("21 Jump Street"))), persons);
+    }
+
+    @Test
+    public void parseSegmentPreconditions() {
+      var reader = new JSONReader();
+      var segment = MemorySegment.ofArray(new byte[0]);
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> reader.parseSegment(null, Person.class)),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseSegment(segment, null)),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseNDJSON(null, Person.class, __ -> {})),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseNDJSON(segment, null, __ -> {})),
+          () -> assertThrows(NullPointerException.class, () -> reader.parseNDJSON(segment, Person.class, null))
+      );
+    }
+  }  // end of SegmentInput
+
+  @Nested
+  public class CodecSupport {
+    public enum Color { RED, GREEN }
+    public record Payment(UUID id, Instant instant, LocalDate date, LocalDateTime time, BigDecimal amount, Color color) { }
+
+    @Test
+    public void parseJSONBuiltinCodecs() {
+      var reader = new JSONReader();
+      var payment = reader.parseJSON("""
+          {
+            "id": "123e4567-e89b-12d3-a456-426614174000",
+            "instant": "2021-06-16T20:53:17.123Z",
+            "date": "2021-06-16",
+            "time": "2021-06-16T20:53:17",
+            "amount": 12.25,
+            "color": "GREEN"
+          }
+          """, Payment.class);
+      assertEquals(new Payment(
+          UUID.fromString("123e4567-e89b-12d3-a456-426614174000"),
+          Instant.parse("2021-06-16T20:53:17.123Z"),
+          LocalDate.of(2021, 6, 16),
+          LocalDateTime.of(2021, 6, 16, 20, 53, 17),
+          new BigDecimal("12.25"),
+          Color.GREEN), payment);
+    }
+
+    @Test
+    public void roundTripBuiltinCodecs() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var payment = new Payment(UUID.randomUUID(), Instant.ofEpochSecond(1_000_000, 42), LocalDate.of(1970, 1, 1),
+          LocalDateTime.of(2000, 2, 29, 23, 59, 59, 999_000_000), new BigDecimal("123"), Color.RED);
+      assertEquals(payment, reader.parseJSON(writer.toJSON(payment), Payment.class));
+    }
+
+    @Test
+    public void parseJSONUnknownEnumConstant() {
+      var reader = new JSONReader();
+      assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+          { "color": "BLUE" }
+          """, Payment.class));
+    }
+
+    public record Box(Color color) { }
+
+    @Test
+    public void parseJSONUserDefinedCodec() {
+      var reader = new JSONReader();
+      reader.registerCodec(Color.class, new Codec<>() {
+        @Override
+        public void encode(Color value, StringBuilder builder) {
+          builder.append(value.ordinal());
+        }
+
+        @Override
+        public Color decode(Object value) {
+          return Color.values()[(Integer) value];
+        }
+      });
+      assertEquals(new Box(Color.GREEN), reader.parseJSON("""
+          { "color": 1 }
+          """, Box.class));
+    }
+  }  // end of CodecSupport
+
+  @Nested
+  public class SealedHierarchy {
+    public sealed interface Event permits Created, Deleted, Change { }
+    public record Created(String name) implements Event { }
+    @JSONProperty("deleted")
+    public record Deleted(int id) implements Event { }
+    public sealed interface Change extends Event permits Renamed, Moved { }
+    public record Renamed(String name) implements Change { }
+    public record Moved(String from, String to) implements Change { }
+
+    public record Log(Event event, int sequence) { }
+
+    @Test
+    public void parseJSONVariant() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertEquals(new Created("foo"), reader.parseJSON("""
+              { "@type": "Created", "name": "foo" }
+              """, Event.class)),
+          () -> assertEquals(new Deleted(3), reader.parseJSON("""
+              { "@type": "deleted", "id": 3 }
+              """, Event.class)),
+          () -> assertEquals(new Moved("a", "b"), reader.parseJSON("""
+              { "@type": "Moved", "from": "a", "to": "b" }
+              """, Event.class)),
+          () -> assertEquals(new Renamed("bar"), reader.parseJSON("""
+              { "@type": "Renamed", "name": "bar" }
+              """, Change.class))
+      );
+    }
+
+    @Test
+    public void parseJSONConcreteVariant() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertEquals(new Created("foo"), reader.parseJSON("""
+              { "@type": "Created", "name": "foo" }
+              """, Created.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "@type": "Renamed", "name": "foo" }
+              """, Created.class))
+      );
+    }
+
+    @Test
+    public void roundTripNestedVariant() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var log = new Log(new Moved("a", "b"), 42);
+      assertEquals(log, reader.parseJSON(writer.toJSON(log), Log.class));
+    }
+
+    @Test
+    public void parseJSONInvalidVariant() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "@type": "Unknown" }
+              """, Event.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "name": "foo", "@type": "Created" }
+              """, Event.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              {}
+              """, Event.class))
+      );
+    }
+
+    @Test
+    public void variantTable() {
+      var variants = BeanMetadata.of(Event.class).variants();
+      assertEquals(Set.of("Created", "deleted", "Renamed", "Moved"), variants.keySet());
+    }
+  }  // end of SealedHierarchy
+
+  @Nested
+  public class ShapeSpeculation {
+    public record Point(int x, int y) {}
+    public record Line(Point start, Point end) {}
+
+    @Test
+    public void sameKeyOrder() {
+      var reader = new JSONReader();
+      reader.parseJSON("""
+          { "x": 1, "y": 2 }
+          """, Point.class);
+      assertAll(
+          () -> assertEquals(0, reader.speculationHits()),
+          () -> assertEquals(2, reader.speculationMisses())
+      );
+      reader.parseJSON("""
+          { "x": 3, "y": 4 }
+          """, Point.class);
+      assertAll(
+          () -> assertEquals(2, reader.speculationHits()),
+          () -> assertEquals(2, reader.speculationMisses()),
+          () -> assertEquals(0.5, reader.speculationHitRate())
+      );
+    }
+
+    @Test
+    public void differentKeyOrder() {
+      var reader = new JSONReader();
+      var point1 = reader.parseJSON("""
+          { "x": 1, "y": 2 }
+          """, Point.class);
+      var point2 = reader.parseJSON("""
+          { "y": 4, "x": 3 }
+          """, Point.class);
+      assertAll(
+          () -> assertEquals(new Point(1, 2), point1),
+          () -> assertEquals(new Point(3, 4), point2),
+          () -> assertEquals(0, reader.speculationHits()),
+          () -> assertEquals(4, reader.speculationMisses())
+      );
+    }
+
+    @Test
+    public void nestedObjects() {
+      var reader = new JSONReader();
+      var line = reader.parseJSON("""
+          { "start": { "x": 1, "y": 2 }, "end": { "x": 3, "y": 4 } }
+          """, Line.class);
+      assertAll(
+          () -> assertEquals(new Line(new Point(1, 2), new Point(3, 4)), line),
+          () -> assertEquals(2, reader.speculationHits()),   // the second point
+          () -> assertEquals(4, reader.speculationMisses())  // start, end and the first point
+      );
+    }
+
+    @Test
+    public void duplicateKey() {
+      var reader = new JSONReader();
+      assertEquals(new Point(1, 3), reader.parseJSON("""
+          { "x": 1, "y": 2, "y": 3 }
+          """, Point.class));
+    }
+
+    @Test
+    public void noKeyDecoded() {
+      var reader = new JSONReader();
+      assertEquals(0, reader.speculationHitRate());
+    }
+  }  // end of ShapeSpeculation
+
+  @Nested
+  public class MergePatch {
+    public record Position(int x, int y) { }
+    public record Player(String name, int score, Position position) { }
+
+    @Test
+    public void applyPatch() {
+      var reader = new JSONReader();
+      var player = new Player("Ana", 10, new Position(1, 2));
+      assertAll(
+          () -> assertEquals(new Player("Ana", 20, new Position(1, 2)), reader.applyPatch(player, """
+              { "score": 20 }
+              """)),
+          () -> assertEquals(new Player("Bob", 10, new Position(1, 3)), reader.applyPatch(player, """
+              { "name": "Bob", "position": { "y": 3 } }
+              """)),
+          () -> assertEquals(new Player(null, 10, null), reader.applyPatch(player, """
+              { "name": null, "position": null }
+              """)),
+          () -> assertEquals(player, reader.applyPatch(player, "{}"))
+      );
+    }
+
+    @Test
+    public void applyPatchOnNullNestedBean() {
+      var reader = new JSONReader();
+      assertEquals(new Player("Ana", 10, new Position(0, 3)), reader.applyPatch(new Player("Ana", 10, null), """
+          { "position": { "y": 3 } }
+          """));
+    }
+
+    public static final class Counter {
+      private int value;
+      private String unit;
+
+      public int getValue() {
+        return value;
+      }
+      public void setValue(int value) {
+        this.value = value;
+      }
+      public String getUnit() {
+        return unit;
+      }
+      public void setUnit(String unit) {
+        this.unit = unit;
+      }
+    }
+
+    @Test
+    public void applyPatchOnBean() {
+      var reader = new JSONReader();
+      var counter = new Counter();
+      counter.setValue(3);
+      counter.setUnit("ms");
+      var patched = reader.applyPatch(counter, """
+          { "value": 4 }
+          """);
+      assertAll(
+          () -> assertNotSame(counter, patched),
+          () -> assertEquals(3, counter.getValue()),
+          () -> assertEquals(4, patched.getValue()),
+          () -> assertEquals("ms", patched.getUnit())
+      );
+    }
+
+    @Test
+    public void applyPatchVariant() {
+      var reader = new JSONReader();
+      var log = new SealedHierarchy.Log(new SealedHierarchy.Moved("a", "b"), 1);
+      assertAll(
+          () -> assertEquals(new SealedHierarchy.Log(new SealedHierarchy.Moved("a", "c"), 1), reader.applyPatch(log, """
+              { "event": { "to": "c" } }
+              """)),
+          () -> assertEquals(new SealedHierarchy.Log(new SealedHierarchy.Deleted(3), 1), reader.applyPatch(log, """
+              { "event": { "@type": "deleted", "id": 3 } }
+              """))
+      );
+    }
+
+    @Test
+    public void roundTrip() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var previous = new Player("Ana", 10, new Position(1, 2));
+      var current = new Player("Bob", 10, new Position(5, 2));
+      assertEquals(current, reader.applyPatch(previous, writer.writeDiff(previous, current)));
+    }
+
+    public record Team(String name, int[] scores, List<Position> positions) { }
+
+    @Test
+    public void applyPatchArray() {
+      var reader = new JSONReader();
+      var team = new Team("red", new int[] { 1, 2 }, List.of(new Position(1, 2)));
+      var patched = reader.applyPatch(team, """
+          { "scores": [3, 4, 5], "positions": [{ "x": 3, "y": 4 }, { "x": 5, "y": 6 }] }
+          """);
+      assertAll(
+          () -> assertEquals("red", patched.name()),
+          () -> assertArrayEquals(new int[] { 3, 4, 5 }, patched.scores()),
+          () -> assertEquals(List.of(new Position(3, 4), new Position(5, 6)), patched.positions()),
+          () -> assertArrayEquals(new int[] { 1, 2 }, team.scores())
+      );
+    }
+
+    @Test
+    public void applyPatchEmptyArray() {
+      var reader = new JSONReader();
+      var team = new Team("red", new int[] { 1, 2 }, List.of(new Position(1, 2)));
+      var patched = reader.applyPatch(team, """
+          { "scores": [], "positions": [] }
+          """);
+      assertAll(
+          () -> assertArrayEquals(new int[0], patched.scores()),
+          () -> assertEquals(List.of(), patched.positions())
+      );
+    }
+
+    @Test
+    public void applyPatchNullPrimitive() {
+      var reader = new JSONReader();
+      var counter = new Counter();
+      counter.setValue(3);
+      var exception = assertThrows(IllegalStateException.class, () -> reader.applyPatch(new Player("Ana", 10, null), """
+          { "score": null }
+          """));
+      assertAll(
+          () -> assertEquals("can not remove primitive property score", exception.getMessage()),
+          () -> assertThrows(IllegalStateException.class, () -> reader.applyPatch(counter, """
+              { "value": null }
+              """)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.applyPatch(new Player("Ana", 10, new Position(1, 2)), """
+              { "position": { "x": null } }
+              """))
+      );
+    }
+
+    @Test
+    public void applyPatchInvalid() {
+      var reader = new JSONReader();
+      var player = new Player("Ana", 10, new Position(1, 2));
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.applyPatch(player, """
+              { "level": 3 }
+              """)),
+          () -> assertThrows(NullPointerException.class, () -> reader.applyPatch(null, "{}")),
+          () -> assertThrows(NullPointerException.class, () -> reader.applyPatch(player, null))
+      );
+    }
+  }  // end of MergePatch
+
+  @Nested
+  public class ColumnDecoding {
+    public record Trade(String symbol, int quantity, double price, long timestamp, boolean buy, Trade parent) { }
+
+    private static final String TRADES = """
+        [
+          { "symbol": "ACME", "quantity": 10, "price": 2.5, "timestamp": 1000, "buy": true },
+          { "symbol": "INIT", "quantity": 20, "price": 4.0, "timestamp": 2000, "buy": false },
+          { "symbol": "ACME", "quantity": 30, "price": 3.5, "timestamp": 3000, "buy": true, "parent": { "symbol": "INIT" } }
+        ]
+        """;
+
+    @Test
+    public void parseSelectedColumns() {
+      var reader = new JSONReader();
+      var columns = reader.parseColumns(TRADES, Trade.class, "quantity", "price");
+      assertAll(
+          () -> assertEquals(3, columns.rowCount()),
+          () -> assertEquals(List.of("quantity", "price"), List.copyOf(columns.names())),
+          () -> assertArrayEquals(new int[] { 10, 20, 30 }, columns.ints("quantity")),
+          () -> assertArrayEquals(new double[] { 2.5, 4.0, 3.5 }, columns.doubles("price")),
+          () -> assertThrows(IllegalArgumentException.class, () -> columns.strings("symbol")),
+          () -> assertThrows(IllegalArgumentException.class, () -> columns.longs("quantity"))
+      );
+    }
+
+    @Test
+    public void parseAllColumns() {
+      var reader = new JSONReader();
+      var columns = reader.parseColumns(TRADES, Trade.class);
+      assertAll(
+          () -> assertEquals(List.of("symbol", "quantity", "price", "timestamp", "buy"), List.copyOf(columns.names())),
+          () -> assertArrayEquals(new String[] { "ACME", "INIT", "ACME" }, columns.strings("symbol")),
+          () -> assertArrayEquals(new long[] { 1000, 2000, 3000 }, columns.longs("timestamp")),
+          () -> assertArrayEquals(new boolean[] { true, false, true }, columns.booleans("buy"))
+      );
+    }
+
+    @Test
+    public void parseManyRows() {
+      var reader = new JSONReader();
+      var text = IntStream.range(0, 1_000)
+          .mapToObj(i -> "{ \"quantity\": " + i + " }")
+          .collect(joining(", ", "[", "]"));
+      var columns = reader.parseColumns(text, Trade.class, "quantity");
+      assertArrayEquals(IntStream.range(0, 1_000).toArray(), columns.ints("quantity"));
+    }
+
+    @Test
+    public void parseMissingValues() {
+      var reader = new JSONReader();
+      var columns = reader.parseColumns("""
+          [ { "symbol": null }, { "quantity": 3 } ]
+          """, Trade.class, "symbol", "quantity");
+      assertAll(
+          () -> assertArrayEquals(new String[] { null, null }, columns.strings("symbol")),
+          () -> assertArrayEquals(new int[] { 0, 3 }, columns.ints("quantity"))
+      );
+    }
+
+    @Test
+    public void parseWidenedNumbers() {
+      var reader = new JSONReader();
+      var columns = reader.parseColumns("""
+          [ { "price": 3, "timestamp": 4 }, { "price": 12345678901, "timestamp": 12345678901 } ]
+          """, Trade.class, "price", "timestamp");
+      assertAll(
+          () -> assertArrayEquals(new double[] { 3.0, 12345678901.0 }, columns.doubles("price")),
+          () -> assertArrayEquals(new long[] { 4, 12345678901L }, columns.longs("timestamp")),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseColumns("""
+              [ { "quantity": 1.5 } ]
+              """, Trade.class, "quantity")),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseColumns("""
+              [ { "timestamp": 1.5 } ]
+              """, Trade.class, "timestamp")),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseColumns("""
+              [ 3 ]
+              """, Trade.class, "quantity"))
+      );
+    }
+
+    @Test
+    public void parseEmptyArray() {
+      var reader = new JSONReader();
+      var columns = reader.parseColumns("[]", Trade.class, "quantity");
+      assertAll(
+          () -> assertEquals(0, columns.rowCount()),
+          () -> assertArrayEquals(new int[0], columns.ints("quantity"))
+      );
+    }
+
+    @Test
+    public void parseColumnsInvalid() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertThrows(IllegalArgumentException.class, () -> reader.parseColumns(TRADES, Trade.class, "volume")),
+          () -> assertThrows(IllegalArgumentException.class, () -> reader.parseColumns(TRADES, Trade.class, "parent")),
+          () -> assertThrows(IllegalArgumentException.class, () -> reader.parseColumns(TRADES, Trade.class, "price", "price")),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseColumns("""
+              { "quantity": 3 }
+              """, Trade.class, "quantity")),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseColumns("""
+              [ { "volume": 3 } ]
+              """, Trade.class, "quantity")),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseColumns("""
+              [ { "quantity": "ten" } ]
+              """, Trade.class, "quantity")),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseColumns("""
+              [ 3 ]
+              """, Trade.class, "quantity"))
+      );
+    }
+  }  // end of ColumnDecoding
+
+  @Nested
+  public class ArrayDecoding {
+    public record Series(String name, int[] ints, long[] longs, double[] doubles) { }
+
+    @Test
+    public void parseJSONPrimitiveArrays() {
+      var reader = new JSONReader();
+      var series = reader.parseJSON("""
+          { "name": "foo", "ints": [1, 2, 3], "longs": [4, 12345678901], "doubles": [1.5, 2, 3.25] }
+          """, Series.class);
+      assertAll(
+          () -> assertEquals("foo", series.name()),
+          () -> assertArrayEquals(new int[] { 1, 2, 3 }, series.ints()),
+          () -> assertArrayEquals(new long[] { 4, 12345678901L }, series.longs()),
+          () -> assertArrayEquals(new double[] { 1.5, 2.0, 3.25 }, series.doubles())
+      );
+    }
+
+    @Test
+    public void parseJSONLargeArray() {
+      var reader = new JSONReader();
+      var text = IntStream.range(0, 1_000).mapToObj(Integer::toString).collect(joining(", ", "[", "]"));
+      assertArrayEquals(IntStream.range(0, 1_000).toArray(), reader.parseJSON(text, int[].class));
+    }
+
+    public record Measures(List<Integer> counts, List<Long> sizes, List<Double> ratios, List<String> labels) { }
+
+    @Test
+    public void parseJSONLists() {
+      var reader = new JSONReader();
+      var measures = reader.parseJSON("""
+          { "counts": [1, 2], "sizes": [3], "ratios": [0.5, 1.5], "labels": ["a", "b", null] }
+          """, Measures.class);
+      assertAll(
+          () -> assertEquals(List.of(1, 2), measures.counts()),
+          () -> assertEquals(List.of(3L), measures.sizes()),
+          () -> assertEquals(List.of(0.5, 1.5), measures.ratios()),
+          () -> assertEquals(Arrays.asList("a", "b", null), measures.labels()),
+          () -> assertThrows(UnsupportedOperationException.class, () -> measures.counts().add(3)),
+          () -> assertThrows(UnsupportedOperationException.class, () -> measures.labels().add("c"))
+      );
+    }
+
+    public record Point(int x, int y) { }
+    public record Polygon(List<Point> points, Point[] corners, int[][] matrix, List<UUID> ids) { }
+
+    @Test
+    public void parseJSONNestedArrays() {
+      var reader = new JSONReader();
+      var polygon = reader.parseJSON("""
+          {
+            "points": [ { "x": 1, "y": 2 }, { "x": 3, "y": 4 } ],
+            "corners": [ { "x": 5, "y": 6 } ],
+            "matrix": [ [1, 2], [], [3] ],
+            "ids": [ "4ae05bd3-2bf7-4d9a-a1b8-4a4d1fc1c2d9" ]
+          }
+          """, Polygon.class);
+      assertAll(
+          () -> assertEquals(List.of(new Point(1, 2), new Point(3, 4)), polygon.points()),
+          () -> assertArrayEquals(new Point[] { new Point(5, 6) }, polygon.corners()),
+          () -> assertArrayEquals(new int[][] { { 1, 2 }, {}, { 3 } }, polygon.matrix()),
+          () -> assertEquals(List.of(UUID.fromString("4ae05bd3-2bf7-4d9a-a1b8-4a4d1fc1c2d9")), polygon.ids())
+      );
+    }
+
+    @Test
+    public void parseSegmentArray() {
+      var reader = new JSONReader();
+      var segment = MemorySegment.ofArray("""
+          [1, -2, 12345678901]
+          """.getBytes(StandardCharsets.UTF_8));
+      assertArrayEquals(new long[] { 1, -2, 12345678901L }, reader.parseSegment(segment, long[].class));
+    }
+
+    @Test
+    public void parseJSONInvalidArrays() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "ints": [1, "foo"] }
+              """, Series.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "ints": [1.5] }
+              """, Series.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "name": [1] }
+              """, Series.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "ints": [null] }
+              """, Series.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "doubles": [1.5, null] }
+              """, Series.class))
+      );
+    }
+
+    @Test
+    public void parseJSONListsWithNull() {
+      var reader = new JSONReader();
+      var measures = reader.parseJSON("""
+          { "counts": [1, null, 3], "sizes": [null, 2], "ratios": [0.5, null] }
+          """, Measures.class);
+      assertAll(
+          () -> assertEquals(Arrays.asList(1, null, 3), measures.counts()),
+          () -> assertEquals(Arrays.asList(null, 2L), measures.sizes()),
+          () -> assertEquals(Arrays.asList(0.5, null), measures.ratios()),
+          () -> assertThrows(UnsupportedOperationException.class, () -> measures.counts().add(4))
+      );
+    }
+
+    public record Shapes(List<? extends Point> points, List<? super Integer> values) { }
+
+    @Test
+    public void parseJSONWildcardLists() {
+      var reader = new JSONReader();
+      var shapes = reader.parseJSON("""
+          { "points": [ { "x": 1, "y": 2 } ], "values": [3, null] }
+          """, Shapes.class);
+      assertAll(
+          () -> assertEquals(List.of(new Point(1, 2)), shapes.points()),
+          () -> assertEquals(Arrays.asList(3, null), shapes.values())
+      );
+    }
+  }  // end of ArrayDecoding
+
+  @Nested
+  public class NumberConversion {
+    public record Price(Long id, Double price, long count, double ratio, float weight, short quantity) { }
+
+    @Test
+    public void parseJSONRecordIntegralValues() {
+      var reader = new JSONReader();
+      var price = reader.parseJSON("""
+          { "id": 5, "price": 3, "count": 7, "ratio": 2, "weight": 1, "quantity": 4 }
+          """, Price.class);
+      assertEquals(new Price(5L, 3.0, 7L, 2.0, 1f, (short) 4), price);
+    }
+
+    public static final class Item {
+      private Long id;
+      private Double price;
+
+      public void setId(Long id) {
+        this.id = id;
+      }
+      public void setPrice(Double price) {
+        this.price = price;
+      }
+    }
+
+    @Test
+    public void parseJSONBeanIntegralValues() {
+      var reader = new JSONReader();
+      var item = reader.parseJSON("""
+          { "id": 5, "price": 3 }
+          """, Item.class);
+      assertAll(
+          () -> assertEquals(5L, item.id),
+          () -> assertEquals(3.0, item.price)
+      );
+    }
+
+    @Test
+    public void parseJSONBoxedAndFloatArrays() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertArrayEquals(new Long[] { 1L, 2L }, reader.parseJSON("[1, 2]", Long[].class)),
+          () -> assertArrayEquals(new Double[] { 1.0, 2.5 }, reader.parseJSON("[1, 2.5]", Double[].class)),
+          () -> assertArrayEquals(new float[] { 1f, 2.5f }, reader.parseJSON("[1, 2.5]", float[].class)),
+          () -> assertArrayEquals(new Integer[] { 1, null }, reader.parseJSON("[1, null]", Integer[].class))
+      );
+    }
+
+    @Test
+    public void parseJSONLossyConversions() {
+      var reader = new JSONReader();
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "id": 1.5 }
+              """, Price.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("""
+              { "quantity": 100000 }
+              """, Price.class)),
+          () -> assertThrows(IllegalStateException.class, () -> reader.parseJSON("[12345678901]", Integer[].class))
+      );
+    }
+  }  // end of NumberConversion
+}
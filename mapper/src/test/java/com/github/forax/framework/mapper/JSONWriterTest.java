@@ -4,16 +4,34 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.MonthDay;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 @SuppressWarnings({"unused", "static-method"})
 public class JSONWriterTest {
@@ -157,7 +175,6 @@ public class JSONWriterTest {
     }
   }
 
-  /*
   @Nested
   public class Q5 {
     @Test @Tag("Q5")
@@ -194,6 +211,27 @@ public class JSONWriterTest {
       );
     }
 
+    @Test @Tag("Q5")
+    public void configureOverridesCodec() {
+      var writer = new JSONWriter();
+      writer.registerCodec(LocalTime.class, new Codec<>() {
+        @Override
+        public void encode(LocalTime value, StringBuilder builder) {
+          builder.append("\"codec\"");
+        }
+
+        @Override
+        public LocalTime decode(Object value) {
+          return LocalTime.MIDNIGHT;
+        }
+      });
+      writer.configure(LocalTime.class, __ -> "\"function\"");
+      assertAll(
+          () -> assertEquals("\"function\"", writer.toJSON(LocalTime.NOON)),
+          () -> assertEquals(10, writer.sizeOf(LocalTime.NOON))
+      );
+    }
+
   } // end of Q5
 
   @Nested
@@ -209,6 +247,15 @@ public class JSONWriterTest {
           json);
     }
 
+    @Test @Tag("Q6")
+    public void propertyNames() {
+      assertAll(
+          () -> assertEquals(Map.of("firstName", "first-name", "lastName", "last-name"), JSONWriter.propertyNames(Person.class)),
+          () -> assertEquals(Map.of("birthday", "birth-day", "address", "address"), JSONWriter.propertyNames(PersonInfo.class)),
+          () -> assertThrows(NullPointerException.class, () -> JSONWriter.propertyNames(null))
+      );
+    }
+
   } // end of Q6
 
   public static class AddressInfo {
@@ -270,5 +317,611 @@ public class JSONWriterTest {
     }
 
   }  // end of Q7
-*/
+
+  @Nested
+  public class OrdinalMode {
+    public record Address(String street) { }
+    public record Person(String name, int age, Address address) { }
+
+    @Test
+    public void toOrdinalJSON() {
+      var writer = new JSONWriter();
+      var json = writer.toOrdinalJSON(new Person("Ana", 37, new Address("21 Jump Street")));
+      var fingerprint = BeanMetadata.of(Person.class).fingerprint();
+      assertEquals("""
+          ["%s", "Ana", 37, ["21 Jump Street"]]\
+          """.formatted(fingerprint), json);
+    }
+
+    @Test
+    public void toOrdinalJSONEmptyRecord() {
+      record Empty() { }
+      var writer = new JSONWriter();
+      var fingerprint = BeanMetadata.of(Empty.class).fingerprint();
+      assertEquals("[\"" + fingerprint + "\"]", writer.toOrdinalJSON(new Empty()));
+    }
+
+    @Test
+    public void fingerprintDependsOnSchema() {
+      record Person1(String name, int age) { }
+      record Person2(String name, int age) { }
+      record Person3(String name, long age) { }
+      record Person4(String name, int years) { }
+      assertAll(
+          () -> assertEquals(BeanMetadata.of(Person1.class).fingerprint(), BeanMetadata.of(Person2.class).fingerprint()),
+          () -> assertNotEquals(BeanMetadata.of(Person1.class).fingerprint(), BeanMetadata.of(Person3.class).fingerprint()),
+          () -> assertNotEquals(BeanMetadata.of(Person1.class).fingerprint(), BeanMetadata.of(Person4.class).fingerprint())
+      );
+    }
+
+    @Test
+    public void toOrdinalJSONPrecondition() {
+      var writer = new JSONWriter();
+      assertThrows(NullPointerException.class, () -> writer.toOrdinalJSON(null));
+    }
+  }  // end of OrdinalMode
+
+  public enum Color { RED, GREEN }
+  public record Payment(UUID id, Instant instant, LocalDate date, LocalDateTime time, BigDecimal amount, Color color) { }
+
+  @Nested
+  public class CodecSupport {
+    @Test
+    public void toJSONBuiltinCodecs() {
+      var writer = new JSONWriter();
+      var payment = new Payment(
+          UUID.fromString("123e4567-e89b-12d3-a456-426614174000"),
+          Instant.parse("2021-06-16T20:53:17.123Z"),
+          LocalDate.of(2021, 6, 16),
+          LocalDateTime.of(2021, 6, 16, 20, 53, 17),
+          new BigDecimal("12345678901234567890.12"),
+          Color.GREEN);
+      assertEquals("""
+          {"id": "123e4567-e89b-12d3-a456-426614174000", "instant": "2021-06-16T20:53:17.123Z", \
+          "date": "2021-06-16", "time": "2021-06-16T20:53:17", "amount": 12345678901234567890.12, "color": "GREEN"}\
+          """, writer.toJSON(payment));
+    }
+
+    @Test
+    public void toJSONUserDefinedCodec() {
+      var writer = new JSONWriter();
+      writer.registerCodec(Color.class, new Codec<>() {
+        @Override
+        public void encode(Color value, StringBuilder builder) {
+          builder.append(value.ordinal());
+        }
+
+        @Override
+        public Color decode(Object value) {
+          return Color.values()[(Integer) value];
+        }
+      });
+      assertEquals("1", writer.toJSON(Color.GREEN));
+    }
+
+    @Test
+    public void registerCodecTwice() {
+      var writer = new JSONWriter();
+      writer.configure(Color.class, __ -> "foo");
+      assertThrows(IllegalStateException.class, () -> writer.configure(Color.class, __ -> "bar"));
+    }
+
+    @Test
+    public void registerCodecPreconditions() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> writer.registerCodec(null, new Codec<Object>() {
+            @Override
+            public void encode(Object value, StringBuilder builder) {}
+            @Override
+            public Object decode(Object value) { return null; }
+          })),
+          () -> assertThrows(NullPointerException.class, () -> writer.registerCodec(Color.class, null))
+      );
+    }
+  }  // end of CodecSupport
+
+  public sealed interface Event permits Created, Deleted, Moved { }
+  public record Created(String name) implements Event { }
+  @JSONProperty("deleted")
+  public record Deleted(int id) implements Event { }
+  public record Moved(String from, String to) implements Event { }
+
+  @Nested
+  public class SealedHierarchy {
+    @Test
+    public void toJSONVariant() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("""
+              {"@type": "Created", "name": "foo"}\
+              """, writer.toJSON(new Created("foo"))),
+          () -> assertEquals("""
+              {"@type": "deleted", "id": 3}\
+              """, writer.toJSON(new Deleted(3)))
+      );
+    }
+
+    public record Log(Event event) { }
+
+    @Test
+    public void toJSONNestedVariant() {
+      var writer = new JSONWriter();
+      assertEquals("""
+          {"event": {"@type": "Moved", "from": "a", "to": "b"}}\
+          """, writer.toJSON(new Log(new Moved("a", "b"))));
+    }
+  }  // end of SealedHierarchy
+
+  @Nested
+  public class MergePatch {
+    public record Position(int x, int y) { }
+    public record Player(String name, int score, Position position) { }
+
+    @Test
+    public void writeDiffChangedProperties() {
+      var writer = new JSONWriter();
+      var previous = new Player("Ana", 10, new Position(1, 2));
+      assertAll(
+          () -> assertEquals("""
+              {"score": 20}\
+              """, writer.writeDiff(previous, new Player("Ana", 20, new Position(1, 2)))),
+          () -> assertEquals("""
+              {"name": "Bob", "position": {"y": 3}}\
+              """, writer.writeDiff(previous, new Player("Bob", 10, new Position(1, 3)))),
+          () -> assertEquals("""
+              {"name": null, "position": null}\
+              """, writer.writeDiff(previous, new Player(null, 10, null)))
+      );
+    }
+
+    @Test
+    public void writeDiffNoChange() {
+      var writer = new JSONWriter();
+      var player = new Player("Ana", 10, new Position(1, 2));
+      assertEquals("{}", writer.writeDiff(player, new Player("Ana", 10, new Position(1, 2))));
+    }
+
+    public static final class Counter {
+      private int value;
+
+      public int getValue() {
+        return value;
+      }
+      public void setValue(int value) {
+        this.value = value;
+      }
+    }
+    public record Holder(Counter counter, String label) { }
+
+    @Test
+    public void writeDiffBeanWithoutEquals() {
+      var writer = new JSONWriter();
+      var counter1 = new Counter();
+      var counter2 = new Counter();
+      counter2.setValue(7);
+      assertAll(
+          () -> assertEquals("""
+              {"label": "b"}\
+              """, writer.writeDiff(new Holder(counter1, "a"), new Holder(new Counter(), "b"))),
+          () -> assertEquals("""
+              {"counter": {"value": 7}}\
+              """, writer.writeDiff(new Holder(counter1, "a"), new Holder(counter2, "a")))
+      );
+    }
+
+    @Test
+    public void writeDiffVariant() {
+      var writer = new JSONWriter();
+      assertEquals("""
+          {"event": {"@type": "deleted", "id": 3}}\
+          """, writer.writeDiff(new SealedHierarchy.Log(new Created("a")), new SealedHierarchy.Log(new Deleted(3))));
+    }
+
+    public record Team(String name, int[] scores, List<Position> positions) { }
+
+    @Test
+    public void writeDiffArrayAndList() {
+      var writer = new JSONWriter();
+      var previous = new Team("red", new int[] { 1, 2 }, new ArrayList<>(List.of(new Position(1, 2))));
+      assertAll(
+          () -> assertEquals("{}", writer.writeDiff(previous, new Team("red", new int[] { 1, 2 }, List.of(new Position(1, 2))))),
+          () -> assertEquals("""
+              {"scores": [1, 2, 3]}\
+              """, writer.writeDiff(previous, new Team("red", new int[] { 1, 2, 3 }, List.of(new Position(1, 2))))),
+          () -> assertEquals("""
+              {"positions": [{"x": 1, "y": 2}, {"x": 3, "y": 4}]}\
+              """, writer.writeDiff(previous, new Team("red", new int[] { 1, 2 }, List.of(new Position(1, 2), new Position(3, 4))))),
+          () -> assertEquals("""
+              {"scores": [], "positions": []}\
+              """, writer.writeDiff(previous, new Team("red", new int[0], List.of())))
+      );
+    }
+
+    @Test
+    public void toJSONArrayAndList() {
+      var writer = new JSONWriter();
+      var team = new Team("red", new int[] { 1, 2 }, List.of(new Position(1, 2)));
+      var text = writer.toJSON(team);
+      assertAll(
+          () -> assertEquals("""
+              {"name": "red", "scores": [1, 2], "positions": [{"x": 1, "y": 2}]}\
+              """, text),
+          () -> assertEquals(text.length(), writer.sizeOf(team))
+      );
+    }
+
+    @Test
+    public void roundTripArrayAndList() {
+      var writer = new JSONWriter();
+      var reader = new JSONReader();
+      var previous = new Team("red", new int[] { 1, 2 }, List.of(new Position(1, 2)));
+      var current = new Team("red", new int[] { 4 }, List.of(new Position(3, 4)));
+      var patched = reader.applyPatch(previous, writer.writeDiff(previous, current));
+      assertAll(
+          () -> assertArrayEquals(current.scores(), patched.scores()),
+          () -> assertEquals(current.positions(), patched.positions())
+      );
+    }
+
+    @Test
+    public void writeDiffPrecondition() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> writer.writeDiff(null, "foo")),
+          () -> assertThrows(NullPointerException.class, () -> writer.writeDiff("foo", null)),
+          () -> assertThrows(IllegalArgumentException.class, () -> writer.writeDiff(new Position(1, 2), new Created("a")))
+      );
+    }
+  }  // end of MergePatch
+
+  @Nested
+  public class Memoization {
+    public record Product(String sku, int price) { }
+    public record Line(Product product, int quantity) { }
+
+    @Test
+    public void memoizeSameInstance() {
+      var writer = new JSONWriter();
+      var cache = new SerializedFormCache(16);
+      writer.memoize(Product.class, cache);
+      var product = new Product("A12", 30);
+      var json1 = writer.toJSON(product);
+      var json2 = writer.toJSON(product);
+      assertAll(
+          () -> assertEquals("""
+              {"sku": "A12", "price": 30}\
+              """, json1),
+          () -> assertEquals(json1, json2),
+          () -> assertEquals(1, cache.hits()),
+          () -> assertEquals(1, cache.misses()),
+          () -> assertEquals(1, cache.size())
+      );
+    }
+
+    @Test
+    public void memoizeByIdentity() {
+      var writer = new JSONWriter();
+      var cache = new SerializedFormCache(16);
+      writer.memoize(Product.class, cache);
+      writer.toJSON(new Product("A12", 30));
+      writer.toJSON(new Product("A12", 30));
+      assertAll(
+          () -> assertEquals(0, cache.hits()),
+          () -> assertEquals(2, cache.misses())
+      );
+    }
+
+    @Test
+    public void memoizeNestedRecord() {
+      var writer = new JSONWriter();
+      var cache = new SerializedFormCache(16);
+      writer.memoize(Product.class, cache);
+      var product = new Product("A12", 30);
+      writer.toJSON(new Line(product, 1));
+      assertAll(
+          () -> assertEquals("""
+              {"product": {"sku": "A12", "price": 30}, "quantity": 2}\
+              """, writer.toJSON(new Line(product, 2))),
+          () -> assertEquals(1, cache.hits()),
+          () -> assertEquals(1, cache.size())
+      );
+    }
+
+    @Test
+    public void memoizeLeastRecentlyUsedEviction() {
+      var writer = new JSONWriter();
+      var cache = new SerializedFormCache(2);
+      writer.memoize(Product.class, cache);
+      var product1 = new Product("A1", 1);
+      var product2 = new Product("A2", 2);
+      var product3 = new Product("A3", 3);
+      writer.toJSON(product1);
+      writer.toJSON(product2);
+      writer.toJSON(product1);  // product2 is now the least recently used
+      writer.toJSON(product3);
+      writer.toJSON(product1);
+      assertAll(
+          () -> assertEquals(2, cache.size()),
+          () -> assertEquals(1, cache.evictions()),
+          () -> assertEquals(2, cache.hits()),
+          () -> assertEquals(3, cache.misses())
+      );
+    }
+
+    @Test
+    public void memoizePrecondition() {
+      var writer = new JSONWriter();
+      var cache = new SerializedFormCache(2);
+      writer.memoize(Product.class, cache);
+      assertAll(
+          () -> assertThrows(IllegalStateException.class, () -> writer.memoize(Product.class, cache)),
+          () -> assertThrows(NullPointerException.class, () -> writer.memoize(null, cache)),
+          () -> assertThrows(NullPointerException.class, () -> writer.memoize(Line.class, null)),
+          () -> assertThrows(IllegalArgumentException.class, () -> new SerializedFormCache(0))
+      );
+    }
+  }  // end of Memoization
+
+  @Nested
+  public class Views {
+    public record Account(String login,
+                          @JSONView("admin") String email,
+                          @JSONView({"admin", "audit"}) int failedLogins,
+                          Address address) { }
+    public record Address(String city, String zip) { }
+
+    @Test
+    public void toJSONNamedView() {
+      var writer = new JSONWriter();
+      var account = new Account("bob", "bob@example.com", 3, new Address("Paris", "75001"));
+      assertAll(
+          () -> assertEquals("""
+              {"login": "bob", "email": "bob@example.com", "failedLogins": 3, "address": {"city": "Paris", "zip": "75001"}}\
+              """, writer.toJSON(account, JSONWriter.View.named("admin"))),
+          () -> assertEquals("""
+              {"login": "bob", "failedLogins": 3, "address": {"city": "Paris", "zip": "75001"}}\
+              """, writer.toJSON(account, JSONWriter.View.named("audit"))),
+          () -> assertEquals("""
+              {"login": "bob", "address": {"city": "Paris", "zip": "75001"}}\
+              """, writer.toJSON(account, JSONWriter.View.named("public")))
+      );
+    }
+
+    @Test
+    public void toJSONIncludeExclude() {
+      var writer = new JSONWriter();
+      var account = new Account("bob", "bob@example.com", 3, new Address("Paris", "75001"));
+      assertAll(
+          () -> assertEquals("""
+              {"login": "bob", "address": {"city": "Paris", "zip": "75001"}}\
+              """, writer.toJSON(account, JSONWriter.View.include(Account.class, "login", "address"))),
+          () -> assertEquals("""
+              {"login": "bob", "email": "bob@example.com", "failedLogins": 3, "address": {"city": "Paris"}}\
+              """, writer.toJSON(account, JSONWriter.View.exclude(Address.class, "zip")))
+      );
+    }
+
+    @Test
+    public void toJSONOmitNulls() {
+      var writer = new JSONWriter();
+      var account = new Account(null, null, 0, new Address("Paris", null));
+      assertAll(
+          () -> assertEquals("""
+              {"failedLogins": 0, "address": {"city": "Paris"}}\
+              """, writer.toJSON(account, JSONWriter.View.named("admin").omitNulls())),
+          () -> assertEquals("""
+              {}\
+              """, writer.toJSON(new Address(null, null), JSONWriter.View.include(Address.class, "zip").omitNulls())),
+          () -> assertEquals("""
+              {"login": null, "email": null, "failedLogins": 0, "address": {"city": "Paris", "zip": null}}\
+              """, writer.toJSON(account))
+      );
+    }
+
+    @Test
+    public void toJSONViewVariant() {
+      var writer = new JSONWriter();
+      assertEquals("""
+          {"@type": "Moved", "to": "b"}\
+          """, writer.toJSON(new Moved("a", "b"), JSONWriter.View.exclude(Moved.class, "from")));
+    }
+
+    @Test
+    public void viewPreconditions() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> writer.toJSON(new Address("Paris", "75001"), null)),
+          () -> assertThrows(NullPointerException.class, () -> JSONWriter.View.named(null)),
+          () -> assertThrows(NullPointerException.class, () -> JSONWriter.View.include(null, "zip")),
+          () -> assertThrows(IllegalArgumentException.class, () -> JSONWriter.View.include(Address.class, "street")),
+          () -> assertThrows(IllegalArgumentException.class, () -> JSONWriter.View.exclude(Address.class, "zip", "zip"))
+      );
+    }
+  }  // end of Views
+
+  @Nested
+  public class SizeEstimation {
+    public record Values(boolean flag, int i, long l, float f, double d, String text, Values next) { }
+    public static final class Bean {
+      public String getName() {
+        return "caf\u00e9 \u20ac \ud83d\ude00";
+      }
+    }
+
+    private static int utf8Size(String text) {
+      return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Test
+    public void sizeOfSameAsToJSON() {
+      var writer = new JSONWriter();
+      var values = List.of(
+          new Values(true, 0, 0, 0f, 0.0, "", null),
+          new Values(false, -1, 10, 1.5f, -2.25e-30, "foo", new Values(true, 9, 99, 3f, 1e300, null, null)),
+          new Values(true, Integer.MIN_VALUE, Long.MIN_VALUE, Float.NaN, Double.NEGATIVE_INFINITY, "\u00e9\ud800", null),
+          new Values(true, Integer.MAX_VALUE, Long.MAX_VALUE, Float.MIN_VALUE, Double.MAX_VALUE, "x", null),
+          new Values(true, 1, 1, 1f, 1.0, "a\"b\\c\nd\re\tf\u0001\u001f\u00e9", null));
+      for (var value : values) {
+        assertEquals(utf8Size(writer.toJSON(value)), writer.sizeOf(value));
+      }
+    }
+
+    @Test
+    public void toJSONEscapedString() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("\"a\\\"b\\\\c\"", writer.toJSON("a\"b\\c")),
+          () -> assertEquals("\"\\n\\r\\t\\b\\f\\u0001\\u001f\"", writer.toJSON("\n\r\t\b\f\u0001\u001f")),
+          () -> assertEquals("\"\u00e9 /\"", writer.toJSON("\u00e9 /"))
+      );
+    }
+
+    @Test
+    public void sizeOfBeanCodecsAndVariants() {
+      var writer = new JSONWriter();
+      var payment = new Payment(UUID.randomUUID(), Instant.ofEpochSecond(1_000, 5), LocalDate.of(2021, 6, 16),
+          LocalDateTime.of(2021, 6, 16, 20, 53), new BigDecimal("12.50"), Color.GREEN);
+      assertAll(
+          () -> assertEquals(utf8Size(writer.toJSON(new Bean())), writer.sizeOf(new Bean())),
+          () -> assertEquals(utf8Size(writer.toJSON(payment)), writer.sizeOf(payment)),
+          () -> assertEquals(utf8Size(writer.toJSON(new Deleted(3))), writer.sizeOf(new Deleted(3))),
+          () -> assertEquals(4, writer.sizeOf(null)),
+          () -> assertEquals(6, writer.sizeOf("\u00e9\u00e9"))
+      );
+    }
+
+    @Test
+    public void writeSegment() {
+      var writer = new JSONWriter();
+      var value = new Values(true, 42, -7, 1f, 2.0, "\u20ac \ud83d\ude00", null);
+      var size = writer.sizeOf(value);
+      var segment = MemorySegment.ofArray(new byte[(int) size]);
+      assertAll(
+          () -> assertEquals(size, writer.writeSegment(value, segment)),
+          () -> assertEquals(writer.toJSON(value), new String(segment.toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8)),
+          () -> assertThrows(IndexOutOfBoundsException.class, () -> writer.writeSegment(value, MemorySegment.ofArray(new byte[(int) size - 1]))),
+          () -> assertThrows(NullPointerException.class, () -> writer.writeSegment(value, null))
+      );
+    }
+  }  // end of SizeEstimation
+
+
+  @Nested
+  public class ParallelList {
+    public record Item(int id, String name, Item next) { }
+
+    private static List<Item> items(int count) {
+      return IntStream.range(0, count)
+          .mapToObj(i -> i % 10 == 0 ? null : new Item(i, "item \u00e9 \ud83d\ude00 " + i, i % 3 == 0 ? new Item(-i, null, null) : null))
+          .toList();
+    }
+
+    private static String expected(JSONWriter writer, List<?> list) {
+      return list.stream().map(writer::toJSON).collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    @Test
+    public void toJSONBytes() {
+      var writer = new JSONWriter();
+      var items = items(100_000);
+      assertEquals(expected(writer, items), new String(writer.toJSONBytes(items), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void toJSONBytesSmallAndEmpty() {
+      var writer = new JSONWriter();
+      assertAll(
+          () -> assertEquals("[]", new String(writer.toJSONBytes(List.of()), StandardCharsets.UTF_8)),
+          () -> assertEquals("[null]", new String(writer.toJSONBytes(Arrays.asList((Object) null)), StandardCharsets.UTF_8)),
+          () -> assertEquals("[1, \"two\", true]", new String(writer.toJSONBytes(List.of(1, "two", true)), StandardCharsets.UTF_8))
+      );
+    }
+
+    @Test
+    public void encodeChunksInOrder() {
+      var writer = new JSONWriter();
+      var items = items(1_000);
+      var chunks = writer.encodeChunks(items, 7);
+      var text = Arrays.stream(chunks)
+          .map(chunk -> new String(chunk, StandardCharsets.UTF_8))
+          .collect(Collectors.joining(", ", "[", "]"));
+      assertAll(
+          () -> assertTrue(chunks.length > 1),
+          () -> assertEquals(expected(writer, items), text)
+      );
+    }
+
+    // a blocking channel that writes at most 100 bytes per call
+    private static final class PartialChannel implements GatheringByteChannel {
+      private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      private int writeCalls;
+
+      @Override
+      public long write(ByteBuffer[] srcs, int offset, int length) {
+        writeCalls++;
+        var written = 0L;
+        for (var i = offset; i < offset + length && written < 100; i++) {
+          var src = srcs[i];
+          while (src.hasRemaining() && written < 100) {
+            output.write(src.get());
+            written++;
+          }
+        }
+        return written;
+      }
+
+      @Override
+      public long write(ByteBuffer[] srcs) {
+        return write(srcs, 0, srcs.length);
+      }
+
+      @Override
+      public int write(ByteBuffer src) {
+        return (int) write(new ByteBuffer[] { src });
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {}
+    }
+
+    @Test
+    public void writeJSON() {
+      var writer = new JSONWriter();
+      var items = items(10_000);
+      var channel = new PartialChannel();
+      var size = writer.writeJSON(items, channel);
+      assertAll(
+          () -> assertEquals(expected(writer, items), channel.output.toString(StandardCharsets.UTF_8)),
+          () -> assertEquals(channel.output.size(), size),
+          () -> assertTrue(channel.writeCalls > 1)
+      );
+    }
+
+    @Test
+    public void writeJSONEmpty() {
+      var writer = new JSONWriter();
+      var channel = new PartialChannel();
+      assertAll(
+          () -> assertEquals(2, writer.writeJSON(List.of(), channel)),
+          () -> assertEquals("[]", channel.output.toString(StandardCharsets.UTF_8))
+      );
+    }
+
+    @Test
+    public void parallelListPreconditions() {
+      var writer = new JSONWriter();
+      var channel = new PartialChannel();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> writer.toJSONBytes(null)),
+          () -> assertThrows(NullPointerException.class, () -> writer.writeJSON(null, channel)),
+          () -> assertThrows(NullPointerException.class, () -> writer.writeJSON(List.of(), null))
+      );
+    }
+  }  // end of ParallelList
 }
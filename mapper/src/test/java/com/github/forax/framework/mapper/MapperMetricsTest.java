@@ -0,0 +1,182 @@
+package com.github.forax.framework.mapper;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MapperMetricsTest {
+  public record Point(int x, int y) {}
+  public record Label(String text) {}
+
+  @Test
+  public void encode() {
+    var metrics = new MapperMetrics(Duration.ofHours(1));
+    var writer = new JSONWriter();
+    writer.useMetrics(metrics);
+    var text = writer.toJSON(new Point(1, 2));
+    writer.toJSON(new Point(3, 4));
+    writer.toJSON(new Label("hello"));
+    writer.toJSON(null);
+    var pointMetrics = metrics.classMetrics(Point.class);
+    assertAll(
+        () -> assertEquals(2, pointMetrics.encodeCount()),
+        () -> assertEquals(2L * text.length(), pointMetrics.encodedSize()),
+        () -> assertTrue(pointMetrics.encodeTime().toNanos() > 0),
+        () -> assertEquals(0, pointMetrics.decodeCount()),
+        () -> assertEquals(0, pointMetrics.slowCount()),
+        () -> assertEquals(1, metrics.classMetrics(Label.class).encodeCount()),
+        () -> assertEquals(2, metrics.classMetrics().size())
+    );
+  }
+
+  @Test
+  public void encodeSegmentAndOrdinal() {
+    var metrics = new MapperMetrics(Duration.ofHours(1));
+    var writer = new JSONWriter();
+    writer.useMetrics(metrics);
+    var segment = MemorySegment.ofArray(new byte[64]);
+    var size = writer.writeSegment(new Label("été"), segment);
+    writer.toOrdinalJSON(new Label("a"));
+    var labelMetrics = metrics.classMetrics(Label.class);
+    assertAll(
+        () -> assertEquals(2, labelMetrics.encodeCount()),
+        () -> assertTrue(labelMetrics.encodedSize() > size)
+    );
+  }
+
+  @Test
+  public void decode() {
+    var metrics = new MapperMetrics(Duration.ofHours(1));
+    var reader = new JSONReader();
+    reader.useMetrics(metrics);
+    var text = "{\"x\": 1, \"y\": 2}";
+    reader.parseJSON(text, Point.class);
+    reader.parseSegment(MemorySegment.ofArray(text.getBytes(UTF_8)), Point.class);
+    var pointMetrics = metrics.classMetrics(Point.class);
+    assertAll(
+        () -> assertEquals(2, pointMetrics.decodeCount()),
+        () -> assertEquals(2L * text.length(), pointMetrics.decodedSize()),
+        () -> assertTrue(pointMetrics.decodeTime().toNanos() > 0),
+        () -> assertEquals(0, pointMetrics.encodeCount())
+    );
+  }
+
+  @Test
+  public void sizeInBytes() {
+    var metrics = new MapperMetrics(Duration.ofHours(1));
+    var writer = new JSONWriter();
+    writer.useMetrics(metrics);
+    var reader = new JSONReader();
+    reader.useMetrics(metrics);
+    var text = writer.toJSON(new Label("été"));
+    reader.parseJSON(text, Label.class);
+    var labelMetrics = metrics.classMetrics(Label.class);
+    assertAll(
+        () -> assertEquals(text.getBytes(UTF_8).length, labelMetrics.encodedSize()),
+        () -> assertEquals(text.getBytes(UTF_8).length, labelMetrics.decodedSize())
+    );
+  }
+
+  @Test
+  public void encodeList() throws IOException {
+    var metrics = new MapperMetrics(Duration.ofHours(1));
+    var writer = new JSONWriter();
+    writer.useMetrics(metrics);
+    var bytes = writer.toJSONBytes(List.of(new Point(1, 2), new Point(3, 4)));
+    var path = Files.createTempFile("metrics", ".json");
+    long written;
+    try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      written = writer.writeJSON(List.of(new Point(1, 2)), channel);
+    } finally {
+      Files.delete(path);
+    }
+    var listMetrics = metrics.classMetrics(List.class);
+    assertAll(
+        () -> assertEquals(2, listMetrics.encodeCount()),
+        () -> assertEquals(bytes.length + written, listMetrics.encodedSize()),
+        () -> assertNull(metrics.classMetrics(Point.class))
+    );
+  }
+
+  @Test
+  public void decodeNDJSONPatchAndColumns() {
+    var metrics = new MapperMetrics(Duration.ofHours(1));
+    var reader = new JSONReader();
+    reader.useMetrics(metrics);
+    var ndjson = "{\"x\": 1, \"y\": 2}\n{\"x\": 3, \"y\": 4}\n";
+    var points = new ArrayList<Point>();
+    reader.parseNDJSON(MemorySegment.ofArray(ndjson.getBytes(UTF_8)), Point.class, points::add);
+    reader.applyPatch(new Point(1, 2), "{\"x\": 5}");
+    reader.parseColumns("[{\"x\": 1, \"y\": 2}]", Point.class);
+    var pointMetrics = metrics.classMetrics(Point.class);
+    assertAll(
+        () -> assertEquals(List.of(new Point(1, 2), new Point(3, 4)), points),
+        () -> assertEquals(4, pointMetrics.decodeCount()),
+        () -> assertEquals(ndjson.length() - 1 + "{\"x\": 5}".length() + "[{\"x\": 1, \"y\": 2}]".length(), pointMetrics.decodedSize())
+    );
+  }
+
+  @Test
+  public void disabled() {
+    var metrics = new MapperMetrics(Duration.ZERO);
+    var writer = new JSONWriter();
+    writer.toJSON(new Point(1, 2));
+    assertAll(
+        () -> assertNull(metrics.classMetrics(Point.class)),
+        () -> assertEquals(Map.of(), metrics.classMetrics())
+    );
+  }
+
+  @Test
+  public void slowDocumentEvent() throws IOException {
+    var metrics = new MapperMetrics(Duration.ZERO);
+    var writer = new JSONWriter();
+    writer.useMetrics(metrics);
+    var path = Files.createTempFile("mapper", ".jfr");
+    try {
+      try (var recording = new Recording()) {
+        recording.enable("com.github.forax.framework.mapper.SlowDocument");
+        recording.start();
+        writer.toJSON(new Point(1, 2));
+        recording.stop();
+        recording.dump(path);
+      }
+      var events = RecordingFile.readAllEvents(path).stream()
+          .filter(event -> event.getEventType().getName().equals("com.github.forax.framework.mapper.SlowDocument"))
+          .toList();
+      assertAll(
+          () -> assertEquals(1, metrics.classMetrics(Point.class).slowCount()),
+          () -> assertEquals(1, events.size()),
+          () -> assertEquals("encode", events.getFirst().getString("operation")),
+          () -> assertEquals(Point.class.getName(), events.getFirst().getClass("type").getName())
+      );
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void invalidThreshold() {
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> new MapperMetrics(null)),
+        () -> assertThrows(IllegalArgumentException.class, () -> new MapperMetrics(Duration.ofSeconds(-1)))
+    );
+  }
+}
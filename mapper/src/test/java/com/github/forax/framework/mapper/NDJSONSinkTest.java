@@ -0,0 +1,195 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class NDJSONSinkTest {
+  public record Person(String name, int age) {}
+
+  private static List<Person> persons(int count) {
+    return IntStream.range(0, count).mapToObj(i -> new Person("person é " + i, i)).toList();
+  }
+
+  private static String expected(JSONWriter writer, List<?> objects) {
+    return objects.stream().map(o -> writer.toJSON(o) + "\n").collect(Collectors.joining());
+  }
+
+  @Test
+  public void writeChannel() {
+    var writer = new JSONWriter();
+    var output = new ByteArrayOutputStream();
+    var persons = persons(1_000);
+    try (var sink = writer.ndjsonSink(Channels.newChannel(output))) {
+      sink.writeAll(persons);
+    }
+    assertEquals(expected(writer, persons), output.toString(UTF_8));
+  }
+
+  @Test
+  public void writeChannelSmallBuffers() {
+    var writer = new JSONWriter();
+    var output = new ByteArrayOutputStream();
+    var persons = persons(1_000);
+    long count;
+    try (var sink = NDJSONSink.of(writer, Channels.newChannel(output), 16, 3)) {
+      sink.writeAll(persons.stream());
+      count = sink.count();
+    }
+    assertAll(
+        () -> assertEquals(1_000, count),
+        () -> assertEquals(expected(writer, persons), output.toString(UTF_8))
+    );
+  }
+
+  @Test
+  public void writeFileChannel() throws IOException {
+    var writer = new JSONWriter();
+    var path = Files.createTempFile("ndjson", ".json");
+    try {
+      var persons = persons(1_000);
+      try (var channel = AsynchronousFileChannel.open(path, StandardOpenOption.WRITE)) {
+        try (var sink = NDJSONSink.of(writer, channel, 0, 64, 4)) {
+          sink.writeAll(persons);
+        }
+      }
+      assertEquals(expected(writer, persons), Files.readString(path));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void writeEscapedStrings() {
+    var writer = new JSONWriter();
+    var reader = new JSONReader();
+    var output = new ByteArrayOutputStream();
+    var persons = List.of(new Person("line 1\nline 2\r\n", 1), new Person("\"quoted\" \\ \t\u0001", 2));
+    try (var sink = writer.ndjsonSink(Channels.newChannel(output))) {
+      sink.writeAll(persons);
+    }
+    var bytes = output.toByteArray();
+    var decoded = new ArrayList<Person>();
+    reader.parseNDJSON(MemorySegment.ofArray(bytes), Person.class, decoded::add);
+    assertAll(
+        () -> assertEquals(2, new String(bytes, UTF_8).lines().count()),
+        () -> assertEquals("{\"name\": \"line 1\\nline 2\\r\\n\", \"age\": 1}\n", new String(bytes, UTF_8).lines().findFirst().orElseThrow() + "\n"),
+        () -> assertEquals(persons, decoded)
+    );
+  }
+
+  @Test
+  public void writeFileChannelAtPosition() throws IOException {
+    var writer = new JSONWriter();
+    var path = Files.createTempFile("ndjson", ".json");
+    try {
+      Files.writeString(path, "header\n");
+      try (var channel = AsynchronousFileChannel.open(path, StandardOpenOption.WRITE)) {
+        try (var sink = writer.ndjsonSink(channel, 7)) {
+          sink.write(new Person("Bob", 42));
+          sink.write(null);
+        }
+      }
+      assertEquals("header\n{\"name\": \"Bob\", \"age\": 42}\nnull\n", Files.readString(path));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void writeFailure() {
+    var writer = new JSONWriter();
+    var channel = new WritableByteChannel() {
+      @Override
+      public int write(ByteBuffer src) throws IOException {
+        throw new IOException("disk full");
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {}
+    };
+    var sink = NDJSONSink.of(writer, channel, 16, 2);
+    var e = assertThrows(IllegalStateException.class, () -> {
+      try (sink) {
+        sink.writeAll(persons(100));
+      }
+    });
+    assertEquals("disk full", e.getCause().getMessage());
+  }
+
+  @Test
+  public void writeFailureNotStarted() throws IOException {
+    var writer = new JSONWriter();
+    var path = Files.createTempFile("ndjson", ".json");
+    try (var channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ)) {  // can not write
+      var sink = NDJSONSink.of(writer, channel, 0, 16, 2);
+      assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+        assertThrows(IllegalStateException.class, () -> sink.writeAll(persons(100)));
+        var e = assertThrows(IllegalStateException.class, sink::close);
+        assertInstanceOf(NonWritableChannelException.class, e.getCause());
+      });
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void closeFailureNotStarted() throws IOException {
+    var writer = new JSONWriter();
+    var path = Files.createTempFile("ndjson", ".json");
+    try (var channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ)) {  // can not write
+      var sink = NDJSONSink.of(writer, channel, 0, 1_024, 1);
+      sink.write(new Person("Bob", 42));
+      var e = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(IllegalStateException.class, sink::close));
+      assertInstanceOf(NonWritableChannelException.class, e.getCause());
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void writeAfterClose() {
+    var writer = new JSONWriter();
+    var sink = writer.ndjsonSink(Channels.newChannel(new ByteArrayOutputStream()));
+    sink.close();
+    assertThrows(IllegalStateException.class, () -> sink.write(new Person("Bob", 42)));
+  }
+
+  @Test
+  public void invalidArguments() {
+    var writer = new JSONWriter();
+    var channel = Channels.newChannel(new ByteArrayOutputStream());
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> writer.ndjsonSink((WritableByteChannel) null)),
+        () -> assertThrows(NullPointerException.class, () -> writer.ndjsonSink(null, 0)),
+        () -> assertThrows(IllegalArgumentException.class, () -> NDJSONSink.of(writer, channel, 0, 2)),
+        () -> assertThrows(IllegalArgumentException.class, () -> NDJSONSink.of(writer, channel, 1_024, 0))
+    );
+  }
+}
@@ -0,0 +1,113 @@
+package com.github.forax.framework.mapper;
+
+import com.github.forax.framework.mapper.PropertyScanner.BeanProperty;
+import org.junit.jupiter.api.Test;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SuppressWarnings("unused")
+public class PropertyScannerTest {
+  // the properties found by java.beans.Introspector, the reference implementation,
+  // minus the indexed properties
+  private static List<BeanProperty> introspect(Class<?> type) throws IntrospectionException {
+    return Arrays.stream(Introspector.getBeanInfo(type).getPropertyDescriptors())
+        .filter(descriptor -> !descriptor.getName().equals("class"))
+        .filter(descriptor -> descriptor.getReadMethod() != null || descriptor.getWriteMethod() != null)
+        .map(descriptor -> new BeanProperty(descriptor.getName(), descriptor.getReadMethod(), descriptor.getWriteMethod()))
+        .toList();
+  }
+
+  public static class Person {
+    public String getName() { return null; }
+    public void setName(String name) {}
+    public int getAge() { return 0; }
+    public void setAge(int age) {}
+    public boolean isAdult() { return false; }
+    public String getURL() { return null; }
+    public void setX(int x) {}
+    public static String getStatic() { return null; }
+    public void get() {}
+    public String getWithParameter(int value) { return null; }
+    public int setterWithReturn(int value) { return 0; }
+    public String is() { return null; }
+  }
+
+  public static class Flag {
+    public boolean isEnabled() { return false; }
+    public boolean getEnabled() { return false; }
+    public void setEnabled(boolean enabled) {}
+    public Boolean isBoxed() { return null; }
+  }
+
+  public static class Overloaded {
+    public long getValue() { return 0; }
+    public void setValue(String value) {}
+    public void setValue(long value) {}
+  }
+
+  public static class Base {
+    public Object getContent() { return null; }
+    public int getId() { return 0; }
+  }
+
+  public static class Derived extends Base {
+    @Override
+    public String getContent() { return null; }
+    public void setId(int id) {}
+  }
+
+  public interface Named {
+    String getName();
+  }
+
+  @Test
+  public void sameAsIntrospector() throws IntrospectionException {
+    for (var type : List.of(Person.class, Flag.class, Overloaded.class, Base.class, Derived.class, Named.class, Object.class)) {
+      assertEquals(introspect(type), PropertyScanner.properties(type), type.getName());
+    }
+  }
+
+  @Test
+  public void sortedByName() {
+    assertEquals(
+        List.of("URL", "adult", "age", "name", "x"),
+        PropertyScanner.properties(Person.class).stream().map(BeanProperty::name).toList());
+  }
+
+  @Test
+  public void preferIsGetter() throws NoSuchMethodException {
+    var property = PropertyScanner.properties(Flag.class).getFirst();
+    assertAll(
+        () -> assertEquals("enabled", property.name()),
+        () -> assertEquals(Flag.class.getMethod("isEnabled"), property.getter()),
+        () -> assertEquals(Flag.class.getMethod("setEnabled", boolean.class), property.setter())
+    );
+  }
+
+  @Test
+  public void covariantGetter() throws NoSuchMethodException {
+    var property = PropertyScanner.properties(Derived.class).getFirst();
+    assertAll(
+        () -> assertEquals("content", property.name()),
+        () -> assertEquals(String.class, property.getter().getReturnType()),
+        () -> assertNull(property.setter())
+    );
+  }
+
+  @Test
+  public void decapitalize() {
+    assertAll(
+        () -> assertEquals("fooBar", PropertyScanner.decapitalize("FooBar")),
+        () -> assertEquals("x", PropertyScanner.decapitalize("X")),
+        () -> assertEquals("URL", PropertyScanner.decapitalize("URL")),
+        () -> assertEquals("", PropertyScanner.decapitalize(""))
+    );
+  }
+}
@@ -0,0 +1,82 @@
+package com.github.forax.framework.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TimeCodecsTest {
+  private static <T> String encode(Codec<T> codec, T value) {
+    var builder = new StringBuilder();
+    codec.encode(value, builder);
+    return builder.toString();
+  }
+
+  private static final int[] NANOS = { 0, 1, 42, 1_000, 123_000, 1_000_000, 123_000_000, 999_999_999 };
+
+  @Test
+  public void instantSameAsToString() {
+    var random = new Random(0);
+    for (var i = 0; i < 10_000; i++) {
+      var instant = Instant.ofEpochSecond(random.nextLong(-62_167_219_200L, 253_402_300_799L), NANOS[i % NANOS.length]);
+      var text = encode(TimeCodecs.INSTANT, instant);
+      assertEquals('"' + instant.toString() + '"', text);
+      assertEquals(instant, TimeCodecs.INSTANT.decode(instant.toString()));
+    }
+  }
+
+  @Test
+  public void localDateSameAsToString() {
+    var random = new Random(0);
+    for (var i = 0; i < 10_000; i++) {
+      var date = LocalDate.ofEpochDay(random.nextLong(-719_528, 2_932_896));
+      assertEquals('"' + date.toString() + '"', encode(TimeCodecs.LOCAL_DATE, date));
+      assertEquals(date, TimeCodecs.LOCAL_DATE.decode(date.toString()));
+    }
+  }
+
+  @Test
+  public void localDateTimeSameAsToString() {
+    var random = new Random(0);
+    for (var i = 0; i < 10_000; i++) {
+      var time = LocalDateTime.of(random.nextInt(0, 10_000), random.nextInt(1, 13), random.nextInt(1, 29),
+          random.nextInt(24), random.nextInt(60), i % 3 == 0 ? 0 : random.nextInt(60), NANOS[i % NANOS.length]);
+      assertEquals('"' + time.toString() + '"', encode(TimeCodecs.LOCAL_DATE_TIME, time));
+      assertEquals(time, TimeCodecs.LOCAL_DATE_TIME.decode(time.toString()));
+    }
+  }
+
+  @Test
+  public void outsideFastPath() {
+    var instant = Instant.parse("+10000-01-01T00:00:00Z");
+    var date = LocalDate.of(-5, 3, 1);
+    assertAll(
+        () -> assertEquals('"' + instant.toString() + '"', encode(TimeCodecs.INSTANT, instant)),
+        () -> assertEquals(instant, TimeCodecs.INSTANT.decode(instant.toString())),
+        () -> assertEquals('"' + date.toString() + '"', encode(TimeCodecs.LOCAL_DATE, date)),
+        () -> assertEquals(date, TimeCodecs.LOCAL_DATE.decode(date.toString())),
+        () -> assertEquals(Instant.parse("2021-06-16T22:53:17+02:00"), TimeCodecs.INSTANT.decode("2021-06-16T22:53:17+02:00")),
+        () -> assertEquals(Instant.parse("2021-06-16T20:53:17.5Z"), TimeCodecs.INSTANT.decode("2021-06-16T20:53:17.5Z")),
+        () -> assertEquals(LocalDateTime.of(2021, 6, 16, 20, 53, 17, 120_000_000), TimeCodecs.LOCAL_DATE_TIME.decode("2021-06-16T20:53:17.12"))
+    );
+  }
+
+  @Test
+  public void decodeInvalid() {
+    assertAll(
+        () -> assertThrows(DateTimeException.class, () -> TimeCodecs.LOCAL_DATE.decode("2021-02-30")),
+        () -> assertThrows(DateTimeException.class, () -> TimeCodecs.LOCAL_DATE.decode("2021-13-01")),
+        () -> assertThrows(DateTimeException.class, () -> TimeCodecs.INSTANT.decode("2021-02-29T00:00:00Z")),
+        () -> assertThrows(DateTimeException.class, () -> TimeCodecs.INSTANT.decode("2021-01-01T10:61:00Z")),
+        () -> assertThrows(DateTimeException.class, () -> TimeCodecs.LOCAL_DATE_TIME.decode("2021-01-01T10:61")),
+        () -> assertThrows(IllegalStateException.class, () -> TimeCodecs.LOCAL_DATE.decode(42))
+    );
+  }
+}
@@ -3,18 +3,34 @@ package com.github.forax.framework.mapper;
 import com.github.forax.framework.mapper.ToyJSONParser.JSONVisitor;
 import org.junit.jupiter.api.Test;
 
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ToyJSONParserTest {
   private static Object asJava(String text) {
+    return asJava(visitor -> ToyJSONParser.parse(text, visitor));
+  }
+
+  private static Object asJavaFromSegment(String text) {
+    var segment = MemorySegment.ofArray(text.getBytes(StandardCharsets.UTF_8));
+    return asJava(visitor -> ToyJSONParser.parse(segment, visitor, null));
+  }
+
+  private static Object asJava(Consumer<JSONVisitor> parser) {
     var visitor = new JSONVisitor() {
       private Object result;
       private final ArrayDeque<Object> stack = new ArrayDeque<>();
@@ -64,7 +80,7 @@ class ToyJSONParserTest {
         }
       }
     };
-    ToyJSONParser.parse(text, visitor);
+    parser.accept(visitor);
     return visitor.result;
   }
 
@@ -143,4 +159,255 @@ class ToyJSONParserTest {
         [ 13.4, null ]
         """));
   }
-}
\ No newline at end of file
+
+  private static List<Object> stringValues(String text, StringCache stringCache) {
+    var values = new ArrayList<>();
+    ToyJSONParser.parse(text, new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        values.add(value);
+      }
+
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    }, stringCache);
+    return values;
+  }
+
+  @Test
+  public void parseWithStringCache() {
+    var stringCache = new StringCache(16);
+    var values = stringValues("""
+        [ "FR", "EUR", "FR", "EUR", "FR" ]
+        """, stringCache);
+    assertAll(
+        () -> assertEquals(List.of("FR", "EUR", "FR", "EUR", "FR"), values),
+        () -> assertSame(values.get(0), values.get(2)),
+        () -> assertSame(values.get(0), values.get(4)),
+        () -> assertSame(values.get(1), values.get(3)),
+        () -> assertEquals(3, stringCache.hits()),
+        () -> assertEquals(2, stringCache.misses())
+    );
+  }
+
+  @Test
+  public void parseWithStringCacheKeys() {
+    var stringCache = new StringCache(16);
+    stringValues("""
+        [ { "code": "FR" }, { "code": "FR" } ]
+        """, stringCache);
+    assertEquals(2, stringCache.hits());
+  }
+
+  @Test
+  public void parseWithStringCacheTooLong() {
+    var stringCache = new StringCache(16, 2);
+    var values = stringValues("""
+        [ "EUR", "EUR" ]
+        """, stringCache);
+    assertAll(
+        () -> assertEquals(List.of("EUR", "EUR"), values),
+        () -> assertNotSame(values.get(0), values.get(1)),
+        () -> assertEquals(0, stringCache.hits() + stringCache.misses())
+    );
+  }
+
+  @Test
+  public void stringCachePreconditions() {
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> new StringCache(0)),
+        () -> assertThrows(IllegalArgumentException.class, () -> new StringCache(16, -1)),
+        () -> assertEquals(16, new StringCache(9).capacity()),
+        () -> assertEquals(1, new StringCache(1).capacity())
+    );
+  }
+
+  @Test
+  public void parseSegment() {
+    var text = """
+        {
+          "key1": null,
+          "key2": false,
+          "key3": true,
+          "key4": 123,
+          "key5": 145.4,
+          "key6": "string",
+          "key7": [ 1, "foo", { "bar": [] } ],
+          "key8": {}
+        }
+        """;
+    assertEquals(asJava(text), asJavaFromSegment(text));
+  }
+
+  @Test
+  public void parseSegmentNumbersAndStrings() {
+    assertEquals(
+        Arrays.asList(-12, 3_000_000_000L, -1.5e3, "caf\u00e9", "a\"b\\c\nd", "\u00e9"),
+        asJavaFromSegment("""
+            [ -12, 3000000000, -1.5e3, "café", "a\\"b\\\\c\\nd", "\\u00e9" ]
+            """));
+  }
+
+  @Test
+  public void parseSegmentInvalid() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> asJavaFromSegment("")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaFromSegment("{ \"foo\" }")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaFromSegment("[ 1, 2 ")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaFromSegment("[ \"foo ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaFromSegment("[ nul ]")),
+        () -> assertThrows(IllegalStateException.class, () -> asJavaFromSegment("[] []"))
+    );
+  }
+
+  @Test
+  public void parseLongRange() {
+    var text = "[ -9223372036854775808, 9223372036854775807, -2147483648, -1 ]";
+    var expected = List.of(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, -1);
+    assertAll(
+        () -> assertEquals(expected, asJava(text)),
+        () -> assertEquals(expected, asJavaFromSegment(text))
+    );
+  }
+
+  @Test
+  public void parseLongOverflow() {
+    for (var text : List.of("[ 9223372036854775808 ]", "[ -9223372036854775809 ]", "[ 10000000000000000000 ]")) {
+      assertAll(
+          () -> assertThrows(JSONParseException.class, () -> asJava(text)),
+          () -> assertThrows(JSONParseException.class, () -> asJavaFromSegment(text))
+      );
+    }
+  }
+
+  @Test
+  public void parseAllSegment() {
+    var segment = MemorySegment.ofArray("""
+        { "id": 1 }
+        { "id": 2 }
+
+        [ 3 ]
+        """.getBytes(StandardCharsets.UTF_8));
+    var values = new ArrayList<>();
+    ToyJSONParser.parseAll(segment, new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        values.add(value);
+      }
+
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    }, null);
+    assertEquals(List.of(1, 2, 3), values);
+  }
+
+  @Test
+  public void parseSegmentWithStringCache() {
+    var stringCache = new StringCache(16);
+    var segment = MemorySegment.ofArray("""
+        [ "EUR", "EUR", "café", "café" ]
+        """.getBytes(StandardCharsets.UTF_8));
+    var list = (List<?>) asJava(visitor -> ToyJSONParser.parse(segment, visitor, stringCache));
+    assertAll(
+        () -> assertEquals(List.of("EUR", "EUR", "café", "café"), list),
+        () -> assertSame(list.get(0), list.get(1)),
+        () -> assertEquals(1, stringCache.hits()),
+        () -> assertEquals(1, stringCache.misses())
+    );
+  }
+
+  @Test
+  public void parseErrorLocation() {
+    var e = assertThrows(JSONParseException.class, () -> asJava("""
+        {
+          "a": 1,
+          "b": ,
+        }
+        """));
+    assertAll(
+        () -> assertEquals(3, e.line()),
+        () -> assertEquals(8, e.column()),
+        () -> assertEquals(19, e.offset()),
+        () -> assertTrue(e.reason().endsWith("but recognized COMMA")),
+        () -> assertTrue(e.getMessage().startsWith(e.reason() + " at line 3, column 8 (offset 19)\n"))
+    );
+  }
+
+  @Test
+  public void parseSegmentErrorLocation() {
+    var e = assertThrows(JSONParseException.class, () -> asJavaFromSegment("{\n  \"é\": tru }"));
+    assertAll(
+        () -> assertEquals(2, e.line()),
+        () -> assertEquals(9, e.column()),
+        () -> assertEquals(10, e.offset()),
+        () -> assertEquals("{\n  \"é\": tru }", e.context())
+    );
+  }
+
+  @Test
+  public void parseErrorCaret() {
+    var e = assertThrows(JSONParseException.class, () -> asJava("[1, 2,, 3]"));
+    var lines = e.getMessage().split("\n");
+    assertAll(
+        () -> assertEquals("  [1, 2,, 3]", lines[1]),
+        () -> assertEquals("        ^", lines[2])
+    );
+  }
+
+  @Test
+  public void parseErrorBoundedMessage() {
+    var input = "[" + "1, ".repeat(1_000_000) + "}";
+    var segmentInput = MemorySegment.ofArray(input.getBytes(StandardCharsets.UTF_8));
+    var e = assertThrows(JSONParseException.class, () -> asJava(input));
+    var e2 = assertThrows(JSONParseException.class, () -> asJavaFromSegment(input));
+    assertAll(
+        () -> assertEquals(input.length() - 1, e.offset()),
+        () -> assertTrue(e.context().length() <= JSONParseException.WINDOW),
+        () -> assertTrue(e.getMessage().length() < 300),
+        () -> assertEquals(segmentInput.byteSize() - 1, e2.offset()),
+        () -> assertTrue(e2.getMessage().length() < 300)
+    );
+  }
+
+  @Test
+  public void parseVisitorErrorLocation() {
+    var visitor = new JSONVisitor() {
+      @Override
+      public void value(String key, Object value) {
+        if ("bad".equals(value)) {
+          throw new IllegalStateException("bad value");
+        }
+      }
+      @Override
+      public void startObject(String key) {}
+      @Override
+      public void endObject(String key) {}
+      @Override
+      public void startArray(String key) {}
+      @Override
+      public void endArray(String key) {}
+    };
+    var text = "[\"ok\", \"bad\"]";
+    var e = assertThrows(JSONParseException.class, () -> ToyJSONParser.parse(text, visitor));
+    var e2 = assertThrows(JSONParseException.class,
+        () -> ToyJSONParser.parse(MemorySegment.ofArray(text.getBytes(StandardCharsets.UTF_8)), visitor, null));
+    assertAll(
+        () -> assertEquals("bad value", e.reason()),
+        () -> assertEquals(8, e.offset()),
+        () -> assertEquals("bad value", e2.reason()),
+        () -> assertEquals(8, e2.offset())
+    );
+  }
+}
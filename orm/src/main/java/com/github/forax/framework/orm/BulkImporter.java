@@ -0,0 +1,167 @@
+package com.github.forax.framework.orm;
+
+import com.github.forax.framework.mapper.JSONPullParser;
+import com.github.forax.framework.mapper.JSONPullParser.Token;
+
+import java.beans.BeanInfo;
+import java.beans.PropertyDescriptor;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Inserts the JSON objects read by a {@link JSONPullParser} into the table of an entity class,
+ * either a sequence of objects (newline delimited JSON) or a JSON array of objects.
+ *
+ * No entity is created, the values are bound directly to the parameters of the prepared MERGE
+ * used by {@link ORM#save} built once from the properties of the entity class,
+ * so a row with the same primary key as an existing row replaces it. The names of the JSON properties are the names
+ * of the properties of the entity class. The unknown properties are ignored,
+ * the missing properties are inserted as {@code null}.
+ *
+ * The rows are sent in JDBC batches of {@code batchSize} rows and the transaction is committed
+ * every {@code batchesPerCommit} batches and at the end, so a failure only rolls back
+ * the rows inserted since the last commit.
+ */
+final class BulkImporter {
+  private final Connection connection;
+  private final PreparedStatement statement;
+  private final String[] names;     // JSON names indexed by parameter index - 1
+  private final int[] sqlTypes;     // SQL types indexed by parameter index - 1
+  private final boolean[] bound;    // the parameters bound for the current row
+  private final int batchSize;
+  private final int batchesPerCommit;
+
+  private BulkImporter(Connection connection, PreparedStatement statement, String[] names, int[] sqlTypes, int batchSize, int batchesPerCommit) {
+    this.connection = connection;
+    this.statement = statement;
+    this.names = names;
+    this.sqlTypes = sqlTypes;
+    this.bound = new boolean[names.length];
+    this.batchSize = batchSize;
+    this.batchesPerCommit = batchesPerCommit;
+  }
+
+  // the SQL types of the column types created by ORM.createTable()
+  private static int sqlType(Class<?> type) {
+    if (type == int.class || type == Integer.class) {
+      return Types.INTEGER;
+    }
+    if (type == long.class || type == Long.class) {
+      return Types.BIGINT;
+    }
+    return Types.VARCHAR;
+  }
+
+  /**
+   * Imports all the objects of the parser into the table of an entity class.
+   * @param connection the connection
+   * @param tableName the name of the table
+   * @param beanInfo the properties of the entity class
+   * @param parser the parser
+   * @param batchSize the number of rows of a JDBC batch
+   * @param batchesPerCommit the number of batches between two commits
+   * @return the number of rows inserted
+   * @throws SQLException if a row can not be inserted
+   * @throws IllegalStateException if the JSON text is not valid or is not a sequence or an array of objects
+   */
+  static long importAll(Connection connection, String tableName, BeanInfo beanInfo, JSONPullParser parser,
+                        int batchSize, int batchesPerCommit) throws SQLException {
+    var properties = Arrays.stream(beanInfo.getPropertyDescriptors())
+        .filter(property -> !property.getName().equals("class"))
+        .toArray(PropertyDescriptor[]::new);
+    var names = Arrays.stream(properties).map(PropertyDescriptor::getName).toArray(String[]::new);
+    var sqlTypes = Arrays.stream(properties).mapToInt(property -> sqlType(property.getPropertyType())).toArray();
+    // same query and same parameter order as ORM.save()
+    try (var statement = connection.prepareStatement(ORM.createSaveQuery(tableName, beanInfo))) {
+      return new BulkImporter(connection, statement, names, sqlTypes, batchSize, batchesPerCommit).importAll(parser);
+    }
+  }
+
+  private long importAll(JSONPullParser parser) throws SQLException {
+    var count = 0L;
+    var token = parser.nextToken();
+    var array = token == Token.START_ARRAY;
+    if (array) {
+      token = parser.nextToken();
+    }
+    while (token != null && token != Token.END_ARRAY) {
+      if (token != Token.START_OBJECT) {
+        throw new IllegalStateException("expect an object but was " + token + " at offset " + parser.currentOffset());
+      }
+      bindRow(parser);
+      statement.addBatch();
+      count++;
+      if (count % batchSize == 0) {
+        statement.executeBatch();
+        if ((count / batchSize) % batchesPerCommit == 0) {
+          connection.commit();
+        }
+      }
+      token = parser.nextToken();
+    }
+    if (array && (token == null || parser.nextToken() != null)) {
+      throw new IllegalStateException("expect a single JSON array at offset " + parser.currentOffset());
+    }
+    if (count % batchSize != 0) {
+      statement.executeBatch();
+    }
+    connection.commit();
+    return count;
+  }
+
+  private void bindRow(JSONPullParser parser) throws SQLException {
+    Arrays.fill(bound, false);
+    var expected = 0;  // the properties are usually in the same order in all the rows
+    while (parser.nextToken() == Token.FIELD_NAME) {
+      var index = findName(parser, expected);
+      var token = parser.nextToken();
+      if (index == -1) {  // unknown property
+        parser.skipChildren();
+        continue;
+      }
+      bind(parser, token, index);
+      bound[index] = true;
+      expected = index + 1;
+    }
+    for (var i = 0; i < bound.length; i++) {
+      if (!bound[i]) {
+        statement.setNull(i + 1, sqlTypes[i]);
+      }
+    }
+  }
+
+  private int findName(JSONPullParser parser, int expected) {
+    if (expected < names.length && parser.currentTextEquals(names[expected])) {
+      return expected;
+    }
+    for (var i = 0; i < names.length; i++) {
+      if (i != expected && parser.currentTextEquals(names[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void bind(JSONPullParser parser, Token token, int index) throws SQLException {
+    var parameter = index + 1;
+    switch (token) {
+      case NULL -> statement.setNull(parameter, sqlTypes[index]);
+      case TRUE -> statement.setBoolean(parameter, true);
+      case FALSE -> statement.setBoolean(parameter, false);
+      case INTEGER -> {
+        if (sqlTypes[index] == Types.INTEGER) {
+          statement.setInt(parameter, parser.currentInt());
+        } else {
+          statement.setLong(parameter, parser.currentLong());
+        }
+      }
+      case DOUBLE -> statement.setDouble(parameter, parser.currentDouble());
+      case STRING -> statement.setString(parameter, parser.currentString());
+      default -> throw new IllegalStateException("can not import a nested value for the property " + names[index]
+          + " at offset " + parser.currentOffset());
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package com.github.forax.framework.orm;
+
+import com.github.forax.framework.mapper.JSONEncoding;
+import com.github.forax.framework.mapper.JSONWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes the rows of a {@link ResultSet} as a JSON array of objects encoded in UTF-8,
+ * without creating an entity per row.
+ *
+ * The mapping is resolved once per query from the {@link ResultSetMetaData}:
+ * the name of each column is encoded once with its quotes and its separator,
+ * and each column gets an encoder chosen from its SQL type, the integers, the booleans,
+ * the floating point numbers and the strings are written directly into the buffer
+ * using the encoding of {@link JSONEncoding} (the strings are escaped),
+ * the other values are encoded by the {@link JSONWriter} (so its codecs are used).
+ * The rows are written in the same format as {@link JSONWriter#toJSON(Object)}.
+ *
+ * This class is not thread-safe.
+ */
+final class JSONRowWriter {
+  private static final int BUFFER_SIZE = 8_192;
+
+  @FunctionalInterface
+  private interface ColumnEncoder {
+    void encode(ResultSet resultSet, int column, JSONRowWriter rowWriter) throws SQLException;
+  }
+
+  private final JSONWriter writer;
+  private final OutputStream output;
+  private final byte[][] prefixes;   // "name": with the separator, indexed by column - 1
+  private final ColumnEncoder[] encoders;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private final MemorySegment segment = MemorySegment.ofArray(buffer);
+  private int size;
+
+  private JSONRowWriter(JSONWriter writer, OutputStream output, byte[][] prefixes, ColumnEncoder[] encoders) {
+    this.writer = writer;
+    this.output = output;
+    this.prefixes = prefixes;
+    this.encoders = encoders;
+  }
+
+  /**
+   * Creates a row writer for the columns of a result set.
+   * @param metaData the metadata of the result set
+   * @param nameMapper a function that returns the JSON name of a column from its label
+   * @param writer the writer used to encode the values that are not numbers, booleans or strings
+   * @param output the output stream, not closed by the row writer
+   * @return a new row writer
+   * @throws SQLException if the metadata can not be read
+   */
+  static JSONRowWriter of(ResultSetMetaData metaData, UnaryOperator<String> nameMapper, JSONWriter writer, OutputStream output) throws SQLException {
+    var columnCount = metaData.getColumnCount();
+    var prefixes = new byte[columnCount][];
+    var encoders = new ColumnEncoder[columnCount];
+    for (var i = 0; i < columnCount; i++) {
+      var name = nameMapper.apply(metaData.getColumnLabel(i + 1));
+      prefixes[i] = ((i == 0 ? "\"" : ", \"") + name + "\": ").getBytes(UTF_8);
+      encoders[i] = encoder(metaData.getColumnType(i + 1));
+    }
+    return new JSONRowWriter(Objects.requireNonNull(writer), Objects.requireNonNull(output), prefixes, encoders);
+  }
+
+  private static ColumnEncoder encoder(int sqlType) {
+    return switch (sqlType) {
+      case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> (resultSet, column, rowWriter) -> {
+        var value = resultSet.getInt(column);
+        if (resultSet.wasNull()) {
+          rowWriter.appendNull();
+          return;
+        }
+        rowWriter.appendLong(value);
+      };
+      case Types.BIGINT -> (resultSet, column, rowWriter) -> {
+        var value = resultSet.getLong(column);
+        if (resultSet.wasNull()) {
+          rowWriter.appendNull();
+          return;
+        }
+        rowWriter.appendLong(value);
+      };
+      case Types.BOOLEAN, Types.BIT -> (resultSet, column, rowWriter) -> {
+        var value = resultSet.getBoolean(column);
+        rowWriter.appendASCII(resultSet.wasNull() ? "null" : value ? "true" : "false");
+      };
+      case Types.REAL -> (resultSet, column, rowWriter) -> {
+        var value = resultSet.getFloat(column);
+        rowWriter.appendASCII(resultSet.wasNull() ? "null" : Float.toString(value));
+      };
+      case Types.FLOAT, Types.DOUBLE -> (resultSet, column, rowWriter) -> {
+        var value = resultSet.getDouble(column);
+        rowWriter.appendASCII(resultSet.wasNull() ? "null" : Double.toString(value));
+      };
+      case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR, Types.CLOB -> (resultSet, column, rowWriter) -> {
+        var value = resultSet.getString(column);
+        if (value == null) {
+          rowWriter.appendNull();
+          return;
+        }
+        rowWriter.appendQuoted(value);
+      };
+      case Types.DECIMAL, Types.NUMERIC -> (resultSet, column, rowWriter) -> rowWriter.appendValue(resultSet.getBigDecimal(column));
+      case Types.DATE -> (resultSet, column, rowWriter) -> rowWriter.appendValue(resultSet.getObject(column, LocalDate.class));
+      case Types.TIME -> (resultSet, column, rowWriter) -> {  // no codec for LocalTime, ISO-8601 format
+        var value = resultSet.getObject(column, LocalTime.class);
+        if (value == null) {
+          rowWriter.appendNull();
+          return;
+        }
+        rowWriter.appendByte('"');
+        rowWriter.appendASCII(value.toString());
+        rowWriter.appendByte('"');
+      };
+      case Types.TIMESTAMP -> (resultSet, column, rowWriter) -> rowWriter.appendValue(resultSet.getObject(column, LocalDateTime.class));
+      case Types.TIMESTAMP_WITH_TIMEZONE -> (resultSet, column, rowWriter) -> {
+        var value = resultSet.getObject(column, OffsetDateTime.class);
+        rowWriter.appendValue(value == null ? null : value.toInstant());
+      };
+      default -> (resultSet, column, rowWriter) -> rowWriter.appendValue(resultSet.getObject(column));
+    };
+  }
+
+  /**
+   * Writes all the remaining rows of the result set as a JSON array.
+   * @param resultSet the result set
+   * @return the number of rows written
+   * @throws SQLException if a row can not be read
+   * @throws UncheckedIOException if an I/O error occurs
+   */
+  long writeAll(ResultSet resultSet) throws SQLException {
+    appendByte('[');
+    var count = 0L;
+    while (resultSet.next()) {
+      if (count != 0) {
+        appendByte(',');
+        appendByte(' ');
+      }
+      writeRow(resultSet);
+      count++;
+    }
+    appendByte(']');
+    flush();
+    return count;
+  }
+
+  private void writeRow(ResultSet resultSet) throws SQLException {
+    appendByte('{');
+    for (var i = 0; i < encoders.length; i++) {
+      appendBytes(prefixes[i]);
+      encoders[i].encode(resultSet, i + 1, this);
+    }
+    appendByte('}');
+  }
+
+  private void appendValue(Object value) {
+    if (value == null) {
+      appendNull();
+      return;
+    }
+    appendUTF8(writer.toJSON(value));
+  }
+
+  private void appendNull() {
+    appendASCII("null");
+  }
+
+  private void ensureCapacity(int length) {
+    if (size + length > buffer.length) {
+      flush();
+    }
+  }
+
+  private void appendByte(int b) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) b;
+  }
+
+  private void appendBytes(byte[] bytes) {
+    if (bytes.length > buffer.length) {
+      flush();
+      write(bytes, bytes.length);
+      return;
+    }
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, size, bytes.length);
+    size += bytes.length;
+  }
+
+  private void appendASCII(String text) {
+    ensureCapacity(text.length());
+    for (var i = 0; i < text.length(); i++) {
+      buffer[size++] = (byte) text.charAt(i);
+    }
+  }
+
+  private void appendLong(long value) {
+    ensureCapacity(20);
+    size = (int) JSONEncoding.encodeLong(value, segment, size);
+  }
+
+  // a string larger than the buffer is encoded in its own array
+  private void appendQuoted(String value) {
+    var length = JSONEncoding.quotedLength(value);
+    if (length > buffer.length) {
+      flush();
+      var bytes = new byte[Math.toIntExact(length)];
+      JSONEncoding.encodeQuoted(value, MemorySegment.ofArray(bytes), 0);
+      write(bytes, bytes.length);
+      return;
+    }
+    ensureCapacity((int) length);
+    size = (int) JSONEncoding.encodeQuoted(value, segment, size);
+  }
+
+  // the text is already a JSON text
+  private void appendUTF8(String text) {
+    var length = JSONEncoding.utf8Length(text);
+    if (length > buffer.length) {
+      flush();
+      var bytes = new byte[Math.toIntExact(length)];
+      JSONEncoding.encodeUTF8(text, MemorySegment.ofArray(bytes), 0);
+      write(bytes, bytes.length);
+      return;
+    }
+    ensureCapacity((int) length);
+    size = (int) JSONEncoding.encodeUTF8(text, segment, size);
+  }
+
+  private void flush() {
+    write(buffer, size);
+    size = 0;
+  }
+
+  private void write(byte[] bytes, int length) {
+    try {
+      output.write(bytes, 0, length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
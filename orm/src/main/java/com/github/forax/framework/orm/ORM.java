@@ -1,5 +1,7 @@
 package com.github.forax.framework.orm;
 
+import com.github.forax.framework.mapper.JSONPullParser;
+import com.github.forax.framework.mapper.JSONWriter;
 import org.h2.jdbcx.JdbcDataSource;
 
 import javax.sql.DataSource;
@@ -7,10 +9,17 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -193,6 +202,105 @@ public final class ORM {
     return bean;
   }
 
+  /**
+   * Writes the remaining rows of a result set as a JSON array of objects encoded in UTF-8,
+   * the names of the properties are the column labels, no entity is created.
+   *
+   * @param resultSet the result set, not closed by this method
+   * @param writer the writer used to encode the values that are not numbers, booleans or strings
+   * @param output the output stream, not closed by this method
+   * @return the number of rows written
+   * @throws SQLException if the rows can not be read
+   * @throws java.io.UncheckedIOException if an I/O error occurs
+   */
+  public static long writeJSON(ResultSet resultSet, JSONWriter writer, OutputStream output) throws SQLException {
+    Objects.requireNonNull(resultSet);
+    Objects.requireNonNull(writer);
+    Objects.requireNonNull(output);
+    return JSONRowWriter.of(resultSet.getMetaData(), label -> label, writer, output).writeAll(resultSet);
+  }
+
+  /**
+   * Executes a query and writes its rows as a JSON array of objects encoded in UTF-8,
+   * the columns of the table of the entity class are named by the names of the properties
+   * used by the writer (the ones changed by {@link com.github.forax.framework.mapper.JSONProperty} included),
+   * the other columns by their labels, no entity is created.
+   * By example, with the query {@code SELECT * FROM table}, the JSON text is the same as
+   * encoding the entities returned by {@link Repository#findAll()}.
+   *
+   * @param beanType the entity class
+   * @param sqlQuery the SQL query
+   * @param writer the writer used to encode the values that are not numbers, booleans or strings
+   * @param output the output stream, not closed by this method
+   * @param args the arguments of the query
+   * @return the number of rows written
+   * @throws SQLException if the query fails or the rows can not be read
+   * @throws java.io.UncheckedIOException if an I/O error occurs
+   */
+  public static long writeJSON(Class<?> beanType, String sqlQuery, JSONWriter writer, OutputStream output, Object... args) throws SQLException {
+    Objects.requireNonNull(beanType);
+    Objects.requireNonNull(sqlQuery);
+    Objects.requireNonNull(writer);
+    Objects.requireNonNull(output);
+    var connection = currentConnection();
+    // the column names are mapped to the JSON names of the properties of the bean
+    var jsonNames = JSONWriter.propertyNames(beanType);
+    var propertyNameMap = Arrays.stream(Utils.beanInfo(beanType).getPropertyDescriptors())
+        .filter(property -> !property.getName().equals("class"))
+        .collect(Collectors.toMap(ORM::findColumnName, property -> jsonNames.getOrDefault(property.getName(), property.getName())));
+    try (var statement = connection.prepareStatement(sqlQuery)) {
+      if (args != null) {
+        for (var i = 0; i < args.length; i++) {
+          statement.setObject(i + 1, args[i]);
+        }
+      }
+      try (var resultSet = statement.executeQuery()) {
+        var rowWriter = JSONRowWriter.of(resultSet.getMetaData(),
+            label -> propertyNameMap.getOrDefault(label.toUpperCase(Locale.ROOT), label), writer, output);
+        return rowWriter.writeAll(resultSet);
+      }
+    }
+  }
+
+  /**
+   * Inserts the JSON objects of a file into the table of an entity class, the file contains
+   * either newline delimited JSON objects or a JSON array of objects.
+   * The file is memory mapped and parsed by a {@link JSONPullParser}, no entity is created,
+   * the values are bound to the prepared MERGE of {@link #save} and sent in JDBC batches,
+   * so a row replaces the row with the same primary key.
+   * The transaction is committed every {@code batchesPerCommit} batches and at the end.
+   *
+   * @param beanType the entity class
+   * @param path the path of the file encoded in UTF-8
+   * @param batchSize the number of rows of a JDBC batch
+   * @param batchesPerCommit the number of batches between two commits
+   * @return the number of rows inserted
+   * @throws SQLException if a row can not be inserted
+   * @throws IllegalArgumentException if {@code batchSize} or {@code batchesPerCommit} is not positive
+   * @throws IllegalStateException if the file is not valid JSON or is not a sequence or an array of objects
+   * @throws java.io.UncheckedIOException if the file can not be read
+   */
+  public static long importJSON(Class<?> beanType, Path path, int batchSize, int batchesPerCommit) throws SQLException {
+    Objects.requireNonNull(beanType);
+    Objects.requireNonNull(path);
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("invalid batch size " + batchSize);
+    }
+    if (batchesPerCommit <= 0) {
+      throw new IllegalArgumentException("invalid number of batches per commit " + batchesPerCommit);
+    }
+    var connection = currentConnection();
+    var beanInfo = Utils.beanInfo(beanType);
+    var tableName = findTableName(beanType);
+    try (var arena = Arena.ofConfined();
+         var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+      return BulkImporter.importAll(connection, tableName, beanInfo, new JSONPullParser(segment), batchSize, batchesPerCommit);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   @SuppressWarnings("resource")
   public static <T, ID, R extends Repository<T, ID>> R createRepository(Class<? extends R> type) {
     var beanType = findBeanTypeFromRepository(type);
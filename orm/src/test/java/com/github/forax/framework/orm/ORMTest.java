@@ -1,13 +1,20 @@
 package com.github.forax.framework.orm;
 
+import com.github.forax.framework.mapper.JSONProperty;
+import com.github.forax.framework.mapper.JSONWriter;
 import org.h2.jdbcx.JdbcDataSource;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -15,6 +22,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -1260,4 +1268,335 @@ public class ORMTest {
 
   }
 
+
+  @Nested
+  public class JSONRows {
+
+    @Test
+    @SuppressWarnings("resource")
+    public void testWriteJSONResultSet() throws SQLException {
+      var dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:test");
+      var writer = new JSONWriter();
+      var output = new ByteArrayOutputStream();
+      ORM.transaction(dataSource, () -> {
+        var connection = ORM.currentConnection();
+        var update = """
+          CREATE TABLE ITEM (ID BIGINT, NAME VARCHAR(255), QUANTITY INTEGER, WEIGHT DOUBLE, AVAILABLE BOOLEAN,
+                             PRICE DECIMAL(10, 2), RELEASE DATE, CREATED TIMESTAMP);
+          INSERT INTO ITEM VALUES (1, 'caf\u00e9 \u20ac', -3, 1.5, TRUE, 12.50, '2021-06-16', '2021-06-16 20:53:17');
+          INSERT INTO ITEM VALUES (2, NULL, NULL, NULL, NULL, NULL, NULL, NULL);
+          """;
+        try(var statement = connection.createStatement()) {
+          statement.executeUpdate(update);
+        }
+        try(var statement = connection.createStatement()) {
+          var resultSet = statement.executeQuery("SELECT * FROM ITEM ORDER BY ID");
+          assertEquals(2, ORM.writeJSON(resultSet, writer, output));
+        }
+      });
+      assertEquals(
+          "[{\"ID\": 1, \"NAME\": \"caf\u00e9 \u20ac\", \"QUANTITY\": -3, \"WEIGHT\": 1.5, \"AVAILABLE\": true, " +
+              "\"PRICE\": 12.50, \"RELEASE\": " + writer.toJSON(LocalDate.of(2021, 6, 16)) + ", " +
+              "\"CREATED\": " + writer.toJSON(LocalDateTime.of(2021, 6, 16, 20, 53, 17)) + "}, " +
+          "{\"ID\": 2, \"NAME\": null, \"QUANTITY\": null, \"WEIGHT\": null, \"AVAILABLE\": null, " +
+              "\"PRICE\": null, \"RELEASE\": null, \"CREATED\": null}]",
+          output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWriteJSONQuerySameAsEntities() throws SQLException {
+      interface PersonRepository extends Repository<Person, Long> {}
+
+      var dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:test");
+      var repository = ORM.createRepository(PersonRepository.class);
+      var writer = new JSONWriter();
+      ORM.transaction(dataSource, () -> {
+        ORM.createTable(Person.class);
+        for (var i = 0L; i < 1_000; i++) {
+          repository.save(new Person(i, "person " + i));
+        }
+        var output = new ByteArrayOutputStream();
+        var count = ORM.writeJSON(Person.class, "SELECT * FROM PERSON", writer, output);
+        var expected = repository.findAll().stream().map(writer::toJSON).collect(Collectors.joining(", ", "[", "]"));
+        assertAll(
+            () -> assertEquals(1_000, count),
+            () -> assertEquals(expected, output.toString(StandardCharsets.UTF_8))
+        );
+      });
+    }
+
+    @Test
+    public void testWriteJSONEscapedStrings() throws SQLException {
+      var dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:test");
+      var writer = new JSONWriter();
+      var output = new ByteArrayOutputStream();
+      var text = "a \"quoted\" \\ back\nslash\t";
+      var longText = "\"\u00e9\\".repeat(5_000);  // larger than the buffer once escaped
+      ORM.transaction(dataSource, () -> {
+        var connection = ORM.currentConnection();
+        try(var statement = connection.createStatement()) {
+          statement.executeUpdate("CREATE TABLE NOTE (TEXT VARCHAR(20000))");
+        }
+        try(var statement = connection.prepareStatement("INSERT INTO NOTE VALUES (?)")) {
+          statement.setString(1, text);
+          statement.executeUpdate();
+          statement.setString(1, longText);
+          statement.executeUpdate();
+        }
+        try(var statement = connection.createStatement()) {
+          var resultSet = statement.executeQuery("SELECT * FROM NOTE");
+          assertEquals(2, ORM.writeJSON(resultSet, writer, output));
+        }
+      });
+      assertEquals("[{\"TEXT\": " + writer.toJSON(text) + "}, {\"TEXT\": " + writer.toJSON(longText) + "}]",
+          output.toString(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unused")
+    public static final class Article {
+      private Long id;
+      private String title;
+
+      public Article() {
+      }
+      public Article(Long id, String title) {
+        this.id = id;
+        this.title = title;
+      }
+
+      @Id
+      public Long getId() {
+        return id;
+      }
+      public void setId(Long id) {
+        this.id = id;
+      }
+      @JSONProperty("full-title")
+      public String getTitle() {
+        return title;
+      }
+      public void setTitle(String title) {
+        this.title = title;
+      }
+    }
+
+    @Test
+    public void testWriteJSONQueryRenamedProperty() throws SQLException {
+      interface ArticleRepository extends Repository<Article, Long> {}
+
+      var dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:test");
+      var repository = ORM.createRepository(ArticleRepository.class);
+      var writer = new JSONWriter();
+      ORM.transaction(dataSource, () -> {
+        ORM.createTable(Article.class);
+        repository.save(new Article(1L, "foo"));
+        repository.save(new Article(2L, "bar"));
+        var output = new ByteArrayOutputStream();
+        ORM.writeJSON(Article.class, "SELECT * FROM ARTICLE ORDER BY ID", writer, output);
+        var expected = repository.findAll().stream().map(writer::toJSON).collect(Collectors.joining(", ", "[", "]"));
+        assertAll(
+            () -> assertEquals("[{\"id\": 1, \"full-title\": \"foo\"}, {\"id\": 2, \"full-title\": \"bar\"}]", expected),
+            () -> assertEquals(expected, output.toString(StandardCharsets.UTF_8))
+        );
+      });
+    }
+
+    @Test
+    public void testWriteJSONQueryWithArguments() throws SQLException {
+      interface PersonRepository extends Repository<Person, Long> {}
+
+      var dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:test");
+      var repository = ORM.createRepository(PersonRepository.class);
+      ORM.transaction(dataSource, () -> {
+        ORM.createTable(Person.class);
+        for (var i = 0L; i < 10; i++) {
+          repository.save(new Person(i, "person " + i));
+        }
+        var output = new ByteArrayOutputStream();
+        var count = ORM.writeJSON(Person.class, "SELECT NAME, ID * 10 AS SCORE FROM PERSON WHERE ID >= ? ORDER BY ID", new JSONWriter(), output, 8L);
+        assertAll(
+            () -> assertEquals(2, count),
+            () -> assertEquals("[{\"name\": \"person 8\", \"SCORE\": 80}, {\"name\": \"person 9\", \"SCORE\": 90}]",
+                output.toString(StandardCharsets.UTF_8))
+        );
+      });
+    }
+
+    @Test
+    public void testWriteJSONQueryEmptyTable() throws SQLException {
+      var dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:test");
+      ORM.transaction(dataSource, () -> {
+        ORM.createTable(Person.class);
+        var output = new ByteArrayOutputStream();
+        assertEquals(0, ORM.writeJSON(Person.class, "SELECT * FROM PERSON", new JSONWriter(), output));
+        assertEquals("[]", output.toString(StandardCharsets.UTF_8));
+      });
+    }
+
+    @Test
+    public void testWriteJSONPreconditions() {
+      var writer = new JSONWriter();
+      var output = new ByteArrayOutputStream();
+      assertAll(
+          () -> assertThrows(NullPointerException.class, () -> ORM.writeJSON(null, writer, output)),
+          () -> assertThrows(NullPointerException.class, () -> ORM.writeJSON(Person.class, null, writer, output)),
+          () -> assertThrows(IllegalStateException.class, () -> ORM.writeJSON(Person.class, "SELECT * FROM PERSON", writer, output))
+      );
+    }
+  }
+
+
+  @Nested
+  public class BulkImport {
+    private static Path createTempFile(String text) throws IOException {
+      var path = Files.createTempFile("import", ".json");
+      Files.writeString(path, text);
+      return path;
+    }
+
+    private static List<Person> persons(int count) {
+      return LongStream.range(0, count).mapToObj(i -> new Person(i, "person \u00e9 " + i)).toList();
+    }
+
+    @Test
+    public void testImportNDJSON() throws IOException, SQLException {
+      interface PersonRepository extends Repository<Person, Long> {}
+
+      var writer = new JSONWriter();
+      var persons = persons(2_500);
+      var path = createTempFile(persons.stream().map(writer::toJSON).collect(Collectors.joining("\n")));
+      try {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test");
+        var repository = ORM.createRepository(PersonRepository.class);
+        ORM.transaction(dataSource, () -> {
+          ORM.createTable(Person.class);
+          assertEquals(2_500, ORM.importJSON(Person.class, path, 100, 3));
+          assertEquals(persons, repository.findAll());
+        });
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void testImportJSONArray() throws IOException, SQLException {
+      interface PersonRepository extends Repository<Person, Long> {}
+
+      var path = createTempFile("""
+          [
+            { "id": 1, "name": "john" },
+            { "name": "jane", "unknown": { "nested": [1, 2] }, "id": 2 },
+            { "id": 3 }
+          ]
+          """);
+      try {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test");
+        var repository = ORM.createRepository(PersonRepository.class);
+        ORM.transaction(dataSource, () -> {
+          ORM.createTable(Person.class);
+          assertEquals(3, ORM.importJSON(Person.class, path, 2, 1));
+          assertEquals(List.of(new Person(1L, "john"), new Person(2L, "jane"), new Person(3L, null)), repository.findAll());
+        });
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void testImportReplacesExistingRow() throws IOException, SQLException {
+      interface PersonRepository extends Repository<Person, Long> {}
+
+      var path = createTempFile("""
+          { "id": 1, "name": "jane" }
+          { "id": 2, "name": "bob" }
+          """);
+      try {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test");
+        var repository = ORM.createRepository(PersonRepository.class);
+        ORM.transaction(dataSource, () -> {
+          ORM.createTable(Person.class);
+          repository.save(new Person(1L, "john"));
+          assertEquals(2, ORM.importJSON(Person.class, path, 100, 1));
+          assertEquals(List.of(new Person(1L, "jane"), new Person(2L, "bob")), repository.findAll());
+        });
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void testImportEmptyFile() throws IOException, SQLException {
+      var path = createTempFile("");
+      try {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test");
+        ORM.transaction(dataSource, () -> {
+          ORM.createTable(Person.class);
+          assertEquals(0, ORM.importJSON(Person.class, path, 10, 1));
+        });
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void testImportFailureKeepsCommittedBatches() throws IOException, SQLException {
+      interface PersonRepository extends Repository<Person, Long> {}
+
+      var writer = new JSONWriter();
+      var text = persons(250).stream().map(writer::toJSON).collect(Collectors.joining("\n"))
+          + "\n{ \"id\": 250, \"name\": { \"first\": \"john\" } }";
+      var path = createTempFile(text);
+      try {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test");
+        var repository = ORM.createRepository(PersonRepository.class);
+        ORM.transaction(dataSource, () -> {
+          ORM.createTable(Person.class);
+          assertThrows(IllegalStateException.class, () -> ORM.importJSON(Person.class, path, 100, 1));
+          ORM.currentConnection().rollback();
+          assertEquals(200, repository.findAll().size());
+        });
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void testImportInvalidJSON() throws IOException, SQLException {
+      var path = createTempFile("[1, 2]");
+      try {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test");
+        ORM.transaction(dataSource, () -> {
+          ORM.createTable(Person.class);
+          assertThrows(IllegalStateException.class, () -> ORM.importJSON(Person.class, path, 10, 1));
+        });
+      } finally {
+        Files.delete(path);
+      }
+    }
+
+    @Test
+    public void testImportPreconditions() throws SQLException {
+      var dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:test");
+      var path = Path.of("unused.json");
+      ORM.transaction(dataSource, () -> assertAll(
+          () -> assertThrows(NullPointerException.class, () -> ORM.importJSON(null, path, 10, 1)),
+          () -> assertThrows(NullPointerException.class, () -> ORM.importJSON(Person.class, null, 10, 1)),
+          () -> assertThrows(IllegalArgumentException.class, () -> ORM.importJSON(Person.class, path, 0, 1)),
+          () -> assertThrows(IllegalArgumentException.class, () -> ORM.importJSON(Person.class, path, 10, 0))
+      ));
+    }
+  }
 }